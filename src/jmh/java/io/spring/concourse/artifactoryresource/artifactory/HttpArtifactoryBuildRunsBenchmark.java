@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import io.spring.concourse.artifactoryresource.artifactory.payload.BuildRun;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Benchmarks for build run filtering in {@link HttpArtifactoryBuildRuns}. Responses are
+ * served from memory so that only deserialization and filtering are measured.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class HttpArtifactoryBuildRunsBenchmark {
+
+	private static final DateTimeFormatter STARTED_FORMATTER = DateTimeFormatter
+		.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ")
+		.withZone(ZoneOffset.UTC);
+
+	private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+	@Param({ "1000", "10000" })
+	int runs;
+
+	@Param({ "0", "100" })
+	int limit;
+
+	HttpArtifactoryBuildRuns buildRuns;
+
+	Instant midpoint;
+
+	@Setup
+	public void setup() {
+		byte[] json = getBuildRunsJson();
+		RestTemplate restTemplate = new RestTemplate((uri, httpMethod) -> {
+			MockClientHttpResponse response = new MockClientHttpResponse(json, HttpStatus.OK);
+			response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+			request.setResponse(response);
+			return request;
+		});
+		this.buildRuns = new HttpArtifactoryBuildRuns(restTemplate, "https://repo.example.com/", "my-build", null,
+				(this.limit > 0) ? this.limit : null, false);
+		this.midpoint = START.plus(this.runs / 2, ChronoUnit.MINUTES);
+	}
+
+	private byte[] getBuildRunsJson() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"uri\":\"https://repo.example.com/api/build/my-build\",\"buildsNumbers\":[");
+		for (int i = 0; i < this.runs; i++) {
+			String prefix = (i % 2 != 0) ? "main-" : "other-";
+			String started = STARTED_FORMATTER.format(START.plus(i, ChronoUnit.MINUTES));
+			json.append((i != 0) ? "," : "");
+			json.append("{\"uri\":\"/%s%s\",\"started\":\"%s\"}".formatted(prefix, i, started));
+		}
+		json.append("]}");
+		return json.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public List<BuildRun> getAll() {
+		return this.buildRuns.getAll("main-");
+	}
+
+	@Benchmark
+	public List<BuildRun> getStartedOnOrAfter() {
+		return this.buildRuns.getStartedOnOrAfter("main-", this.midpoint);
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.spring.concourse.artifactoryresource.artifactory.payload.BuildModule;
+import io.spring.concourse.artifactoryresource.artifactory.payload.BuildRun;
+import io.spring.concourse.artifactoryresource.artifactory.payload.ContinuousIntegrationAgent;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableArtifact;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifact;
+
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * In-memory {@link Artifactory} implementation that can be used to benchmark handlers
+ * without network access.
+ *
+ * @author agent
+ */
+public class InMemoryArtifactory implements Artifactory {
+
+	private final Map<String, Map<String, StoredArtifact>> repositories = new ConcurrentHashMap<>();
+
+	private final Map<String, List<BuildRun>> buildRuns = new ConcurrentHashMap<>();
+
+	@Override
+	public ArtifactoryServer server(String uri, String username, String password, Proxy proxy, Duration retryDelay,
+			Boolean admin, TransferLimits transferLimits) {
+		return new Server();
+	}
+
+	/**
+	 * Remove all deployed artifacts and build runs.
+	 */
+	public void clear() {
+		this.repositories.clear();
+		this.buildRuns.clear();
+	}
+
+	/**
+	 * {@link ArtifactoryServer} backed by the in-memory store.
+	 */
+	private class Server implements ArtifactoryServer {
+
+		@Override
+		public ArtifactoryRepository repository(String repositoryName) {
+			return new Repository(repositoryName,
+					InMemoryArtifactory.this.repositories.computeIfAbsent(repositoryName,
+							(name) -> new ConcurrentHashMap<>()));
+		}
+
+		@Override
+		public ArtifactoryBuildRuns buildRuns(String buildName, String project, Integer limit) {
+			return new BuildRuns(buildName);
+		}
+
+	}
+
+	/**
+	 * {@link ArtifactoryRepository} backed by the in-memory store.
+	 */
+	private static class Repository implements ArtifactoryRepository {
+
+		private final String name;
+
+		private final Map<String, StoredArtifact> artifacts;
+
+		Repository(String name, Map<String, StoredArtifact> artifacts) {
+			this.name = name;
+			this.artifacts = artifacts;
+		}
+
+		@Override
+		public void deploy(DeployableArtifact artifact, DeployOption... options) {
+			try {
+				byte[] content = StreamUtils.copyToByteArray(artifact.getContent().getInputStream());
+				String path = StringUtils.trimLeadingCharacter(artifact.getPath(), '/');
+				this.artifacts.put(path, new StoredArtifact(this.name, path, content, artifact.getProperties()));
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		@Override
+		public void download(String path, File destination, boolean downloadChecksums) {
+			StoredArtifact artifact = this.artifacts.get(StringUtils.trimLeadingCharacter(path, '/'));
+			if (artifact == null) {
+				throw new IllegalStateException("No artifact found at '" + path + "'");
+			}
+			try {
+				Path fullPath = destination.toPath().resolve(artifact.getPath());
+				Files.createDirectories(fullPath.getParent());
+				Files.write(fullPath, artifact.getContent());
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+	}
+
+	/**
+	 * {@link ArtifactoryBuildRuns} backed by the in-memory store.
+	 */
+	private class BuildRuns implements ArtifactoryBuildRuns {
+
+		private final String buildName;
+
+		BuildRuns(String buildName) {
+			this.buildName = buildName;
+		}
+
+		@Override
+		public void add(BuildNumber buildNumber, ContinuousIntegrationAgent continuousIntegrationAgent,
+				Instant started, String buildUri, Map<String, String> properties, List<BuildModule> modules) {
+			InMemoryArtifactory.this.buildRuns
+				.computeIfAbsent(this.buildName, (name) -> Collections.synchronizedList(new ArrayList<>()))
+				.add(new BuildRun(buildNumber.toString(), started));
+		}
+
+		@Override
+		public List<BuildRun> getAll(String buildNumberPrefix) {
+			return getStartedOnOrAfter(buildNumberPrefix, Instant.EPOCH);
+		}
+
+		@Override
+		public List<BuildRun> getStartedOnOrAfter(String buildNumberPrefix, Instant timestamp) {
+			List<BuildRun> buildRuns = InMemoryArtifactory.this.buildRuns.getOrDefault(this.buildName,
+					Collections.emptyList());
+			synchronized (buildRuns) {
+				return buildRuns.stream()
+					.filter((buildRun) -> buildNumberPrefix == null
+							|| buildRun.getBuildNumber().startsWith(buildNumberPrefix))
+					.filter((buildRun) -> !buildRun.getStarted().isBefore(timestamp))
+					.toList();
+			}
+		}
+
+		@Override
+		public String getRawBuildInfo(BuildNumber buildNumber) {
+			return "{\"buildInfo\":{\"name\":\"%s\",\"number\":\"%s\"}}".formatted(this.buildName, buildNumber);
+		}
+
+		@Override
+		public List<DeployedArtifact> getDeployedArtifacts(BuildNumber buildNumber) {
+			List<DeployedArtifact> deployed = new ArrayList<>();
+			InMemoryArtifactory.this.repositories.values()
+				.forEach((artifacts) -> artifacts.values()
+					.stream()
+					.filter((artifact) -> artifact.isFromBuild(this.buildName, buildNumber))
+					.map(StoredArtifact::asDeployedArtifact)
+					.forEach(deployed::add));
+			return deployed;
+		}
+
+	}
+
+	/**
+	 * An artifact held in memory.
+	 */
+	private static class StoredArtifact {
+
+		private final String repo;
+
+		private final String path;
+
+		private final byte[] content;
+
+		private final Map<String, String> properties;
+
+		StoredArtifact(String repo, String path, byte[] content, Map<String, String> properties) {
+			this.repo = repo;
+			this.path = path;
+			this.content = content;
+			this.properties = properties;
+		}
+
+		String getPath() {
+			return this.path;
+		}
+
+		byte[] getContent() {
+			return this.content;
+		}
+
+		boolean isFromBuild(String buildName, BuildNumber buildNumber) {
+			return buildName.equals(this.properties.get("build.name"))
+					&& buildNumber.toString().equals(this.properties.get("build.number"));
+		}
+
+		DeployedArtifact asDeployedArtifact() {
+			int lastSlash = this.path.lastIndexOf('/');
+			String folder = this.path.substring(0, Math.max(lastSlash, 0));
+			String name = this.path.substring(lastSlash + 1);
+			return new DeployedArtifact(this.repo, name, folder, null, this.content.length, null, null, null, null,
+					null, null);
+		}
+
+	}
+
+}
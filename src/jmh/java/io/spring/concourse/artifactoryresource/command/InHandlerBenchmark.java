@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.concourse.artifactoryresource.artifactory.InMemoryArtifactory;
+import io.spring.concourse.artifactoryresource.command.payload.InRequest;
+import io.spring.concourse.artifactoryresource.command.payload.InResponse;
+import io.spring.concourse.artifactoryresource.command.payload.OutRequest;
+import io.spring.concourse.artifactoryresource.command.payload.OutResponse;
+import io.spring.concourse.artifactoryresource.command.payload.Source;
+import io.spring.concourse.artifactoryresource.io.Directory;
+import io.spring.concourse.artifactoryresource.io.DirectoryScanner;
+import io.spring.concourse.artifactoryresource.maven.MavenMetadataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * End to end benchmarks for {@link InHandler} using an {@link InMemoryArtifactory}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InHandlerBenchmark {
+
+	@Param({ "100", "1000" })
+	int modules;
+
+	@Param({ "1024", "65536" })
+	int fileSize;
+
+	@Param({ "1", "8" })
+	int threads;
+
+	InMemoryArtifactory artifactory = new InMemoryArtifactory();
+
+	InHandler handler;
+
+	InRequest request;
+
+	File destination;
+
+	@Setup
+	public void setup() throws IOException {
+		DirectoryScanner directoryScanner = new DirectoryScanner();
+		this.handler = new InHandler(this.artifactory, new MavenMetadataGenerator(directoryScanner));
+		File source = SyntheticRepository.createTempDirectory("in-benchmark-source");
+		try {
+			SyntheticRepository.create(new File(source, "repository"), this.modules, this.fileSize);
+			OutHandler outHandler = new OutHandler(this.artifactory, new BuildNumberGenerator(), new ModuleLayouts(),
+					directoryScanner);
+			OutResponse deployed = outHandler.handle(createOutRequest(), new Directory(source));
+			this.request = new InRequest(createSource(), deployed.getVersion(),
+					new InRequest.Params(false, true, false, true, true, this.threads, false, null, null, null, null,
+							null, null, null, null));
+		}
+		finally {
+			SyntheticRepository.delete(source);
+		}
+	}
+
+	private OutRequest createOutRequest() {
+		return new OutRequest(createSource(), new OutRequest.Params(false, "libs-snapshot-local", "1", "repository",
+				null, null, "maven", null, null, false, false, null, 8, null, null, false, null, null, null, null));
+	}
+
+	private Source createSource() {
+		return new Source("https://repo.example.com", "admin", "password", "my-build", null);
+	}
+
+	@Setup(Level.Invocation)
+	public void createDestination() throws IOException {
+		this.destination = SyntheticRepository.createTempDirectory("in-benchmark");
+	}
+
+	@TearDown(Level.Invocation)
+	public void deleteDestination() throws IOException {
+		SyntheticRepository.delete(this.destination);
+	}
+
+	@Benchmark
+	public InResponse handle() {
+		return this.handler.handle(this.request, new Directory(this.destination));
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.concourse.artifactoryresource.artifactory.InMemoryArtifactory;
+import io.spring.concourse.artifactoryresource.command.payload.OutRequest;
+import io.spring.concourse.artifactoryresource.command.payload.OutRequest.Params;
+import io.spring.concourse.artifactoryresource.command.payload.OutResponse;
+import io.spring.concourse.artifactoryresource.command.payload.Source;
+import io.spring.concourse.artifactoryresource.io.Directory;
+import io.spring.concourse.artifactoryresource.io.DirectoryScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * End to end benchmarks for {@link OutHandler} using an {@link InMemoryArtifactory}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OutHandlerBenchmark {
+
+	@Param({ "100", "1000" })
+	int modules;
+
+	@Param({ "1024", "65536" })
+	int fileSize;
+
+	@Param({ "1", "8" })
+	int threads;
+
+	InMemoryArtifactory artifactory = new InMemoryArtifactory();
+
+	OutHandler handler;
+
+	File root;
+
+	OutRequest request;
+
+	@Setup
+	public void setup() throws IOException {
+		this.handler = new OutHandler(this.artifactory, new BuildNumberGenerator(), new ModuleLayouts(),
+				new DirectoryScanner());
+		this.root = SyntheticRepository.createTempDirectory("out-benchmark");
+		SyntheticRepository.create(new File(this.root, "repository"), this.modules, this.fileSize);
+		Source source = new Source("https://repo.example.com", "admin", "password", "my-build", null);
+		Params params = new Params(false, "libs-snapshot-local", "1", "repository", null, null, "maven", null, null,
+				true, false, null, this.threads, null, null, null, null, null, null);
+		this.request = new OutRequest(source, params);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		SyntheticRepository.delete(this.root);
+	}
+
+	@Benchmark
+	public OutResponse handle() {
+		this.artifactory.clear();
+		return this.handler.handle(this.request, new Directory(this.root));
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Creates a synthetic Maven repository tree for use in benchmarks using a
+ * {@link SyntheticMavenRepository}.
+ *
+ * @author agent
+ */
+final class SyntheticRepository {
+
+	private static final List<String> CLASSIFIERS = List.of("sources", "javadoc");
+
+	private SyntheticRepository() {
+	}
+
+	static void create(File root, int modules, int fileSize) throws IOException {
+		new SyntheticMavenRepository(modules, fileSize, fileSize, CLASSIFIERS, 0).generate(root);
+	}
+
+	static File createTempDirectory(String prefix) throws IOException {
+		return Files.createTempDirectory(prefix).toFile();
+	}
+
+	static void delete(File directory) throws IOException {
+		FileSystemUtils.deleteRecursively(directory.toPath());
+	}
+
+}
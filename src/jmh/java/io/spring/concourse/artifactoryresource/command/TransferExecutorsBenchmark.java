@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks comparing the executors created by {@link TransferExecutors} when running
+ * many small transfers that spend most of their time blocked on I/O. Blocking is
+ * simulated by parking each transfer for a fixed time. Run with {@code -prof gc} to
+ * compare allocation, or use the {@code bench} command with {@code virtual_threads} to
+ * compare resident memory against a stand-in server.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransferExecutorsBenchmark {
+
+	@Param({ "false", "true" })
+	boolean virtualThreads;
+
+	@Param({ "256" })
+	int concurrency;
+
+	@Param({ "4096" })
+	int transfers;
+
+	@Param({ "1000" })
+	long latencyMicros;
+
+	@Benchmark
+	public void transfer() throws Exception {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.get(this.concurrency, null);
+		ExecutorService executor = TransferExecutors.create(limiter.getMaxConcurrency(), this.virtualThreads);
+		long latencyNanos = TimeUnit.MICROSECONDS.toNanos(this.latencyMicros);
+		try {
+			CompletableFuture.allOf(IntStream.range(0, this.transfers)
+				.mapToObj((i) -> CompletableFuture
+					.runAsync(() -> limiter.run(0, () -> LockSupport.parkNanos(latencyNanos)), executor))
+				.toArray(CompletableFuture[]::new)).get();
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.Base64;
+import java.util.Collections;
+
+import javax.net.ssl.SSLContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Benchmarks for {@link ConcourseSslContextFactory} measuring the startup cost of loading
+ * a CA certificate bundle and creating an {@link SSLContext}. The bundle is built from
+ * the certificates trusted by the running JDK so that it is a realistic size.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class ConcourseSslContextFactoryBenchmark {
+
+	File certificates;
+
+	ConcourseSslContextFactory factory;
+
+	@Setup
+	public void setup() throws IOException, GeneralSecurityException {
+		this.certificates = Files.createTempFile("ca-certificates", ".crt").toFile();
+		writeJdkCertificates(this.certificates.toPath());
+		this.factory = new ConcourseSslContextFactory(new FileSystemResource(this.certificates));
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.certificates.delete();
+	}
+
+	@Benchmark
+	public ConcourseSslContextFactory loadCertificates() {
+		return new ConcourseSslContextFactory(new FileSystemResource(this.certificates));
+	}
+
+	@Benchmark
+	public SSLContext createSslContext() throws GeneralSecurityException {
+		return this.factory.getSslContext();
+	}
+
+	@Benchmark
+	public SSLContext loadCertificatesAndCreateSslContext() throws GeneralSecurityException {
+		return new ConcourseSslContextFactory(new FileSystemResource(this.certificates)).getSslContext();
+	}
+
+	private static void writeJdkCertificates(Path destination) throws IOException, GeneralSecurityException {
+		Path cacerts = Path.of(System.getProperty("java.home"), "lib", "security", "cacerts");
+		KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+		try (InputStream inputStream = Files.newInputStream(cacerts)) {
+			keyStore.load(inputStream, null);
+		}
+		Base64.Encoder encoder = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII));
+		try (Writer writer = Files.newBufferedWriter(destination, StandardCharsets.US_ASCII)) {
+			for (String alias : Collections.list(keyStore.aliases())) {
+				Certificate certificate = keyStore.getCertificate(alias);
+				if (certificate != null) {
+					writer.write("-----BEGIN CERTIFICATE-----\n");
+					writer.write(encoder.encodeToString(certificate.getEncoded()));
+					writer.write("\n-----END CERTIFICATE-----\n");
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Benchmarks for {@link Checksum}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class ChecksumBenchmark {
+
+	@Param({ "1024", "1048576", "67108864" })
+	int size;
+
+	File file;
+
+	@Setup
+	public void setup() throws IOException {
+		this.file = Files.createTempFile("checksum", ".bin").toFile();
+		byte[] buffer = new byte[8192];
+		Random random = new Random(0);
+		try (OutputStream outputStream = Files.newOutputStream(this.file.toPath())) {
+			for (int remaining = this.size; remaining > 0; remaining -= buffer.length) {
+				random.nextBytes(buffer);
+				outputStream.write(buffer, 0, Math.min(remaining, buffer.length));
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.file.delete();
+	}
+
+	@Benchmark
+	public Map<Checksum, String> calculateAll() {
+		return Checksum.calculateAll(new FileSystemResource(this.file));
+	}
+
+}
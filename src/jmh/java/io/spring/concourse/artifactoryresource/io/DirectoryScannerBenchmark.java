@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Benchmarks comparing the parallel {@link DirectoryScanner} with a single-threaded
+ * {@link Files#find} walk.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class DirectoryScannerBenchmark {
+
+	private static final List<String> INCLUDE = Collections.singletonList("**/*.jar");
+
+	private static final String[] SUFFIXES = { ".jar", ".pom", "-sources.jar", "-javadoc.jar", ".module" };
+
+	private static final byte[] NO_BYTES = {};
+
+	@Param({ "1000", "20000" })
+	int files;
+
+	@Param({ "1", "8" })
+	int parallelism;
+
+	File root;
+
+	Directory directory;
+
+	DirectoryScanner scanner;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.root = Files.createTempDirectory("directory-scanner-benchmark").toFile();
+		int count = 0;
+		for (int module = 0; count < this.files; module++) {
+			File folder = new File(this.root, "com/example/module-" + module + "/1.0.0-SNAPSHOT");
+			folder.mkdirs();
+			for (int i = 0; i < SUFFIXES.length && count < this.files; i++, count++) {
+				FileCopyUtils.copy(NO_BYTES, new File(folder, "module-" + module + "-1.0.0-SNAPSHOT" + SUFFIXES[i]));
+			}
+		}
+		this.directory = new Directory(this.root);
+		this.scanner = new DirectoryScanner(this.parallelism);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileSystemUtils.deleteRecursively(this.root.toPath());
+	}
+
+	@Benchmark
+	public FileSet scan() {
+		return this.scanner.scan(this.directory, INCLUDE);
+	}
+
+	@Benchmark
+	public FileSet find() throws IOException {
+		PathFilter filter = new PathFilter(INCLUDE, Collections.emptyList());
+		String rootPath = StringUtils.cleanPath(this.root.getPath());
+		try (Stream<Path> paths = Files.find(this.root.toPath(), Integer.MAX_VALUE, (path, attributes) -> {
+			if (!path.toFile().isFile()) {
+				return false;
+			}
+			return filter.isMatch(StringUtils.cleanPath(path.toString()).substring(rootPath.length() + 1));
+		})) {
+			return FileSet.of(paths.map(Path::toFile).toArray(File[]::new));
+		}
+	}
+
+}
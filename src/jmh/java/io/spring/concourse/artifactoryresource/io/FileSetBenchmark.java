@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.spring.concourse.artifactoryresource.io.FileSet.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Benchmarks for {@link FileSet}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class FileSetBenchmark {
+
+	private static final String[] SUFFIXES = { ".jar", ".pom", "-sources.jar", "-javadoc.jar", ".module",
+			".jar.asc", ".pom.asc", "-sources.jar.asc", "-javadoc.jar.asc", ".module.asc" };
+
+	@Param({ "10000", "100000" })
+	int files;
+
+	List<File> fileList;
+
+	FileSet fileSet;
+
+	@Setup
+	public void setup() {
+		File root = new File("/tmp/benchmark/repository");
+		this.fileList = new ArrayList<>(this.files);
+		for (int module = 0; this.fileList.size() < this.files; module++) {
+			File folder = new File(root, "com/example/module-" + module + "/1.0.0-SNAPSHOT");
+			for (int i = 0; i < SUFFIXES.length && this.fileList.size() < this.files; i++) {
+				this.fileList.add(new File(folder, "module-" + module + "-1.0.0-SNAPSHOT" + SUFFIXES[i]));
+			}
+		}
+		this.fileSet = FileSet.of(this.fileList);
+	}
+
+	@Benchmark
+	public FileSet of() {
+		return FileSet.of(this.fileList);
+	}
+
+	@Benchmark
+	public MultiValueMap<Category, File> batchedByCategory() {
+		return this.fileSet.batchedByCategory();
+	}
+
+}
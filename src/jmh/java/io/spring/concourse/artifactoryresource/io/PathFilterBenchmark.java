@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link PathFilter}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class PathFilterBenchmark {
+
+	private static final List<String> INCLUDE = List.of("/**/spring-*.jar", "/**/spring-*.pom", "/**/*.module",
+			"/**/*.asc", "/org/springframework/boot/**");
+
+	private static final List<String> EXCLUDE = List.of("/**/*-javadoc.jar", "/**/maven-metadata*.xml",
+			"/**/spring-boot-docs/**", "/**/*.zip");
+
+	PathFilter filter;
+
+	List<String> paths;
+
+	@Setup
+	public void setup() {
+		this.filter = new PathFilter(INCLUDE, EXCLUDE);
+		this.paths = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			String name = "spring-module-" + i;
+			String folder = "/org/springframework/" + name + "/3.2.0-SNAPSHOT/";
+			String base = folder + name + "-3.2.0-20240101.123456-1";
+			this.paths.add(base + ".jar");
+			this.paths.add(base + ".pom");
+			this.paths.add(base + "-javadoc.jar");
+			this.paths.add(base + ".module");
+			this.paths.add(folder + "maven-metadata.xml");
+		}
+	}
+
+	@Benchmark
+	public void isMatch(Blackhole blackhole) {
+		for (String path : this.paths) {
+			blackhole.consume(this.filter.isMatch(path));
+		}
+	}
+
+}
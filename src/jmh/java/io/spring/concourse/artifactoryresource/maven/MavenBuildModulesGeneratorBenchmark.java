@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.maven;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.spring.concourse.artifactoryresource.artifactory.payload.BuildModule;
+import io.spring.concourse.artifactoryresource.artifactory.payload.Checksums;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableArtifact;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableByteArrayArtifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@link MavenBuildModulesGenerator}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class MavenBuildModulesGeneratorBenchmark {
+
+	private static final Checksums CHECKSUMS = new Checksums("a9993e364706816aba3e25717850c26c9cd0d89d",
+			"900150983cd24fb0d6963f7d28e17f72");
+
+	private static final String[] SUFFIXES = { ".jar", ".pom", "-sources.jar", "-javadoc.jar", ".module" };
+
+	@Param({ "100", "1000" })
+	int modules;
+
+	MavenBuildModulesGenerator generator = new MavenBuildModulesGenerator();
+
+	List<DeployableArtifact> artifacts;
+
+	@Setup
+	public void setup() {
+		this.artifacts = new ArrayList<>();
+		byte[] content = new byte[0];
+		for (int module = 0; module < this.modules; module++) {
+			String name = "spring-module-" + module;
+			String folder = "/org/springframework/" + name + "/3.2.0/";
+			for (String suffix : SUFFIXES) {
+				String path = folder + name + "-3.2.0" + suffix;
+				this.artifacts.add(new DeployableByteArrayArtifact(path, content, null, CHECKSUMS));
+			}
+		}
+	}
+
+	@Benchmark
+	public List<BuildModule> getBuildModules() {
+		return this.generator.getBuildModules(this.artifacts);
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.maven;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link MavenCoordinates}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class MavenCoordinatesBenchmark {
+
+	List<String> paths;
+
+	List<String> shuffledPaths;
+
+	@Setup
+	public void setup() {
+		this.paths = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			String folder = "/org/springframework/spring-module-" + i + "/";
+			this.paths.add(folder + "3.2.0/spring-module-" + i + "-3.2.0.jar");
+			this.paths.add(folder + "3.2.0/spring-module-" + i + "-3.2.0-sources.jar");
+			this.paths.add(folder + "3.2.0-SNAPSHOT/spring-module-" + i + "-3.2.0-SNAPSHOT.pom");
+			this.paths.add(folder + "3.2.0-SNAPSHOT/spring-module-" + i + "-3.2.0-20240101.123456-1-javadoc.jar");
+		}
+		this.shuffledPaths = new ArrayList<>(this.paths);
+		Collections.shuffle(this.shuffledPaths, new Random(0));
+	}
+
+	@Benchmark
+	public void fromPath(Blackhole blackhole) {
+		for (String path : this.paths) {
+			blackhole.consume(MavenCoordinates.fromPath(path));
+		}
+	}
+
+	@Benchmark
+	public void fromPathShuffled(Blackhole blackhole) {
+		for (String path : this.shuffledPaths) {
+			blackhole.consume(MavenCoordinates.fromPath(path));
+		}
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) {
+		for (String path : this.paths) {
+			blackhole.consume(MavenPath.parse(path));
+		}
+	}
+
+}
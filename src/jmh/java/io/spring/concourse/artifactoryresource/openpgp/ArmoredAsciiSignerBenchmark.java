@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.openpgp;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Benchmarks for {@link ArmoredAsciiSigner}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class ArmoredAsciiSignerBenchmark {
+
+	@Param({ "1024", "1048576" })
+	int size;
+
+	ArmoredAsciiSigner signer;
+
+	byte[] content;
+
+	@Setup
+	public void setup() throws IOException {
+		this.signer = ArmoredAsciiSigner.get(new ClassPathResource("test-private.txt", getClass()), "password");
+		this.content = new byte[this.size];
+		new Random(0).nextBytes(this.content);
+	}
+
+	@Benchmark
+	public String sign() throws IOException {
+		return this.signer.sign(new ByteArrayInputStream(this.content));
+	}
+
+}
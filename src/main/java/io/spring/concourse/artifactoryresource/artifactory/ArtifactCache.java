@@ -0,0 +1,347 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * A persistent content-addressable cache of downloaded artifacts, keyed by SHA-1. Content
+ * is copied into the cache and only kept if it matches its SHA-1. Cached content is hard
+ * linked into place when possible, falling back to a copy when the destination is on a
+ * different file system. Since a linked file shares content with the cache, content is
+ * verified again before each use and discarded if it has been modified. Once the total
+ * size of the cache exceeds its limit the least recently used content is evicted. Use is
+ * tracked using separate marker files so that the modification time of cached content,
+ * and of any files linked to it, is left untouched. Cache failures are never fatal, they
+ * are logged and the artifact is downloaded as usual.
+ *
+ * @author agent
+ */
+public class ArtifactCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(ArtifactCache.class);
+
+	private static final Pattern SHA1_PATTERN = Pattern.compile("[0-9a-f]{40}");
+
+	private static final String TEMP_PREFIX = ".tmp-";
+
+	private static final String ACCESS_DIRECTORY = "access";
+
+	private final Path directory;
+
+	private final long sizeLimit;
+
+	private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long size;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Create a new {@link ArtifactCache} backed by the given directory. Any content
+	 * already in the directory is reused.
+	 * @param directory the cache directory
+	 * @param sizeLimit the maximum total size of cached content in bytes
+	 */
+	public ArtifactCache(Path directory, long sizeLimit) {
+		Assert.notNull(directory, "Directory must not be null");
+		Assert.isTrue(sizeLimit >= 0, "SizeLimit must not be negative");
+		this.directory = directory;
+		this.sizeLimit = sizeLimit;
+		try {
+			Files.createDirectories(directory);
+			load();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Unable to open artifact cache '" + directory + "'", ex);
+		}
+	}
+
+	private void load() throws IOException {
+		try (Stream<Path> paths = Files.walk(this.directory, 2)) {
+			List<Path> blobs = paths.filter(Files::isRegularFile).filter(this::isBlobOrDeleteTemp).toList();
+			blobs.stream()
+				.sorted(Comparator.comparing(this::getLastUsedTime))
+				.forEach((blob) -> add(blob.getFileName().toString(), blob.toFile().length()));
+		}
+	}
+
+	private boolean isBlobOrDeleteTemp(Path path) {
+		String name = path.getFileName().toString();
+		if (name.startsWith(TEMP_PREFIX)) {
+			deleteQuietly(path);
+			return false;
+		}
+		return isValidSha1(name) && path.equals(getBlob(name));
+	}
+
+	/**
+	 * Link or copy cached content with the given SHA-1 to the destination.
+	 * @param sha1 the SHA-1 of the required content
+	 * @param size the expected size of the content
+	 * @param destination the destination file, which must not already exist
+	 * @return {@code true} if the content was cached and is now at the destination
+	 */
+	public boolean get(String sha1, long size, Path destination) {
+		if (!isValidSha1(sha1)) {
+			return false;
+		}
+		Long cachedSize;
+		synchronized (this) {
+			cachedSize = this.entries.get(sha1);
+		}
+		if (cachedSize == null || cachedSize != size) {
+			this.misses.increment();
+			return false;
+		}
+		Path blob = getBlob(sha1);
+		try {
+			if (!sha1.equals(calculateSha1(blob))) {
+				logger.warn("Cached content for {} has been modified and will be discarded", sha1);
+				remove(sha1);
+				deleteQuietly(blob);
+				deleteQuietly(getAccessMarker(sha1));
+				this.misses.increment();
+				return false;
+			}
+			Files.createDirectories(destination.getParent());
+			link(blob, destination);
+			markUsed(sha1);
+			this.hits.increment();
+			return true;
+		}
+		catch (NoSuchFileException ex) {
+			logger.debug("Cached content for {} was removed", sha1);
+			remove(sha1);
+		}
+		catch (FileAlreadyExistsException ex) {
+			logger.debug("Destination {} already exists", destination);
+		}
+		catch (IOException ex) {
+			logger.warn("Unable to use cached content for {}", sha1, ex);
+			deleteQuietly(destination);
+		}
+		this.misses.increment();
+		return false;
+	}
+
+	/**
+	 * Add the content of the given file to the cache, evicting least recently used
+	 * content if the cache is now over its size limit.
+	 * @param sha1 the SHA-1 of the file content
+	 * @param source the source file
+	 */
+	public void put(String sha1, Path source) {
+		if (!isValidSha1(sha1)) {
+			return;
+		}
+		synchronized (this) {
+			if (this.entries.containsKey(sha1)) {
+				return;
+			}
+		}
+		Path blob = getBlob(sha1);
+		Path temp = this.directory.resolve(TEMP_PREFIX + UUID.randomUUID());
+		try {
+			Files.createDirectories(blob.getParent());
+			String actualSha1 = copy(source, temp);
+			if (!sha1.equals(actualSha1)) {
+				logger.warn("Not caching content for {} since its SHA-1 is {}", sha1, actualSha1);
+				deleteQuietly(temp);
+				return;
+			}
+			Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			markUsed(sha1);
+			add(sha1, Files.size(blob));
+		}
+		catch (IOException ex) {
+			logger.warn("Unable to cache content for {}", sha1, ex);
+			deleteQuietly(temp);
+		}
+	}
+
+	private synchronized void add(String sha1, long size) {
+		Long previous = this.entries.put(sha1, size);
+		this.size += size - ((previous != null) ? previous : 0);
+		evict();
+	}
+
+	private synchronized void remove(String sha1) {
+		Long previous = this.entries.remove(sha1);
+		this.size -= (previous != null) ? previous : 0;
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, Long>> iterator = this.entries.entrySet().iterator();
+		while (this.size > this.sizeLimit && iterator.hasNext()) {
+			Map.Entry<String, Long> entry = iterator.next();
+			iterator.remove();
+			this.size -= entry.getValue();
+			deleteQuietly(getBlob(entry.getKey()));
+			deleteQuietly(getAccessMarker(entry.getKey()));
+			this.evictions.increment();
+			logger.debug("Evicted {} from artifact cache", entry.getKey());
+		}
+	}
+
+	/**
+	 * Return the number of times that content was found in the cache.
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * Return the number of times that content was not found in the cache.
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * Return the number of times that content was evicted from the cache.
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	/**
+	 * Return the total size of the content currently held in the cache.
+	 * @return the cache size in bytes
+	 */
+	public synchronized long getSize() {
+		return this.size;
+	}
+
+	private Path getBlob(String sha1) {
+		return this.directory.resolve(sha1.substring(0, 2)).resolve(sha1);
+	}
+
+	private Path getAccessMarker(String sha1) {
+		return this.directory.resolve(ACCESS_DIRECTORY).resolve(sha1);
+	}
+
+	private void markUsed(String sha1) throws IOException {
+		Path marker = getAccessMarker(sha1);
+		Files.createDirectories(marker.getParent());
+		try {
+			Files.createFile(marker);
+		}
+		catch (FileAlreadyExistsException ex) {
+			Files.setLastModifiedTime(marker, FileTime.fromMillis(System.currentTimeMillis()));
+		}
+	}
+
+	private FileTime getLastUsedTime(Path blob) {
+		Path marker = getAccessMarker(blob.getFileName().toString());
+		return getLastModifiedTime(Files.exists(marker) ? marker : blob);
+	}
+
+	private FileTime getLastModifiedTime(Path path) {
+		try {
+			return Files.getLastModifiedTime(path);
+		}
+		catch (IOException ex) {
+			return FileTime.fromMillis(0);
+		}
+	}
+
+	private static String copy(Path source, Path destination) throws IOException {
+		MessageDigest digest = getSha1Digest();
+		try (InputStream inputStream = new DigestInputStream(Files.newInputStream(source), digest)) {
+			Files.copy(inputStream, destination);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static String calculateSha1(Path path) throws IOException {
+		MessageDigest digest = getSha1Digest();
+		try (InputStream inputStream = new DigestInputStream(Files.newInputStream(path), digest)) {
+			inputStream.transferTo(OutputStream.nullOutputStream());
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static MessageDigest getSha1Digest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static void link(Path existing, Path link) throws IOException {
+		try {
+			Files.createLink(link, existing);
+		}
+		catch (FileAlreadyExistsException | NoSuchFileException ex) {
+			throw ex;
+		}
+		catch (IOException | UnsupportedOperationException ex) {
+			Files.copy(existing, link);
+		}
+	}
+
+	private static boolean isValidSha1(String sha1) {
+		return sha1 != null && SHA1_PATTERN.matcher(sha1).matches();
+	}
+
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch (IOException ex) {
+			logger.debug("Unable to delete {}", path, ex);
+		}
+	}
+
+}
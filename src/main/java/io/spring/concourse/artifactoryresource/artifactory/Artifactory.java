@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2023 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -64,7 +64,23 @@ public interface Artifactory {
 	 * @param admin if the user has admin rights or {@code null} to detect
 	 * @return an {@link ArtifactoryServer}
 	 */
+	default ArtifactoryServer server(String uri, String username, String password, Proxy proxy, Duration retryDelay,
+			Boolean admin) {
+		return server(uri, username, password, proxy, retryDelay, admin, TransferLimits.NONE);
+	}
+
+	/**
+	 * Return an {@link ArtifactoryServer} for the specified connection details.
+	 * @param uri the server URI
+	 * @param username the connection username
+	 * @param password the connection password
+	 * @param proxy the proxy to use or {@code null}
+	 * @param retryDelay the delay between retries
+	 * @param admin if the user has admin rights or {@code null} to detect
+	 * @param transferLimits the limits applied to all transfers made using the server
+	 * @return an {@link ArtifactoryServer}
+	 */
 	ArtifactoryServer server(String uri, String username, String password, Proxy proxy, Duration retryDelay,
-			Boolean admin);
+			Boolean admin, TransferLimits transferLimits);
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2023 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,11 +19,13 @@ package io.spring.concourse.artifactoryresource.artifactory;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildModule;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildRun;
 import io.spring.concourse.artifactoryresource.artifactory.payload.ContinuousIntegrationAgent;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifact;
+import io.spring.concourse.artifactoryresource.io.PathFilter;
 
 import org.springframework.util.Assert;
 
@@ -86,4 +88,31 @@ public interface ArtifactoryBuildRuns {
 	 */
 	List<DeployedArtifact> getDeployedArtifacts(BuildNumber buildNumber);
 
+	/**
+	 * Return a stream of all artifacts that were deployed for the specified build number.
+	 * Implementations may fetch results lazily, a page at a time, so that the first
+	 * artifacts can be consumed before the complete listing has been received.
+	 * @param buildNumber the build number
+	 * @return a stream of the deployed artifacts
+	 */
+	default Stream<DeployedArtifact> streamDeployedArtifacts(BuildNumber buildNumber) {
+		return getDeployedArtifacts(buildNumber).stream();
+	}
+
+	/**
+	 * Return a stream of the artifacts that were deployed for the specified build number
+	 * and that match the given {@code include}/{@code exclude} patterns. Patterns are
+	 * matched against the artifact path relative to its repository. Implementations may
+	 * push patterns down into the search so that unwanted artifacts are never listed.
+	 * @param buildNumber the build number
+	 * @param include the include patterns
+	 * @param exclude the exclude patterns
+	 * @return a stream of the matching deployed artifacts
+	 */
+	default Stream<DeployedArtifact> streamDeployedArtifacts(BuildNumber buildNumber, List<String> include,
+			List<String> exclude) {
+		PathFilter filter = new PathFilter(include, exclude);
+		return streamDeployedArtifacts(buildNumber).filter((artifact) -> filter.isMatch(artifact.getFullPath()));
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2019 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -43,7 +43,20 @@ public interface ArtifactoryRepository {
 	 * @param downloadChecksums if checksum files should also be downloaded
 	 */
 	default void download(DeployedArtifact artifact, File destination, boolean downloadChecksums) {
-		download(artifact.getPath() + "/" + artifact.getName(), destination, downloadChecksums);
+		download(artifact.getFullPath(), destination, downloadChecksums);
+	}
+
+	/**
+	 * Download the specified artifact to the given destination, using the given cache to
+	 * avoid transferring content that has already been downloaded.
+	 * @param artifact the artifacts to download
+	 * @param destination the destination folder.
+	 * @param downloadChecksums if checksum files should also be downloaded
+	 * @param cache the cache to use or {@code null}
+	 */
+	default void download(DeployedArtifact artifact, File destination, boolean downloadChecksums,
+			ArtifactCache cache) {
+		download(artifact, destination, downloadChecksums);
 	}
 
 	/**
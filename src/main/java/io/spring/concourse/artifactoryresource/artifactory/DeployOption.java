@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2019 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,19 @@ public enum DeployOption {
 	/**
 	 * Disable checksum based uploads.
 	 */
-	DISABLE_CHECKSUM_UPLOADS
+	DISABLE_CHECKSUM_UPLOADS,
+
+	/**
+	 * Attempt a checksum based upload regardless of the size of the artifact. Used when
+	 * the content is known to already exist on the server.
+	 */
+	FORCE_CHECKSUM_UPLOADS,
+
+	/**
+	 * Make a single upload attempt and throw a {@link RetryableDeployException} if it
+	 * fails with an error that is likely to be transient. Allows the caller to retry later
+	 * rather than holding a thread while waiting.
+	 */
+	DEFER_RETRIES
 
 }
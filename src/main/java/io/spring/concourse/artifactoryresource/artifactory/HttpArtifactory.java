@@ -19,9 +19,12 @@ package io.spring.concourse.artifactoryresource.artifactory;
 import java.io.IOException;
 import java.net.Proxy;
 import java.net.URI;
+import java.security.GeneralSecurityException;
 import java.time.Duration;
 import java.util.function.Supplier;
 
+import javax.net.ssl.SSLContext;
+
 import io.spring.concourse.artifactoryresource.http.ConcourseSslContextFactory;
 import io.spring.concourse.artifactoryresource.http.SimpleSslClientHttpRequestFactory;
 
@@ -33,6 +36,7 @@ import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.util.function.SingletonSupplier;
 
 /**
  * Default {@link Artifactory} implementation communicating over HTTP.
@@ -44,6 +48,9 @@ import org.springframework.util.StringUtils;
 @Service
 public class HttpArtifactory implements Artifactory {
 
+	private static final Supplier<SSLContext> concourseSslContext = SingletonSupplier
+		.of(HttpArtifactory::createConcourseSslContext);
+
 	private final RestTemplateBuilder restTemplateBuilder;
 
 	HttpArtifactory(RestTemplateBuilder restTemplateBuilder) {
@@ -52,13 +59,13 @@ public class HttpArtifactory implements Artifactory {
 
 	@Override
 	public ArtifactoryServer server(String uri, String username, String password, Proxy proxy, Duration retryDelay,
-			Boolean admin) {
+			Boolean admin, TransferLimits transferLimits) {
 		uri = (!uri.endsWith("/")) ? uri + '/' : uri;
 		RestTemplateBuilder restTemplateBuilder = this.restTemplateBuilder
 			.requestFactory(getRequestFactorySupplier(username, password, proxy))
 			.setConnectTimeout(Duration.ofMinutes(1))
 			.setReadTimeout(Duration.ofMinutes(5));
-		return new HttpArtifactoryServer(restTemplateBuilder.build(), uri, retryDelay, admin);
+		return new HttpArtifactoryServer(restTemplateBuilder.build(), uri, retryDelay, admin, transferLimits);
 	}
 
 	private Supplier<ClientHttpRequestFactory> getRequestFactorySupplier(String username, String password,
@@ -71,13 +78,21 @@ public class HttpArtifactory implements Artifactory {
 	}
 
 	private ClientHttpRequestFactory getRequestFactory(Proxy proxy) {
-		SimpleClientHttpRequestFactory factory = (ConcourseSslContextFactory.isAvailable())
-				? new SimpleSslClientHttpRequestFactory(new ConcourseSslContextFactory())
-				: new SimpleClientHttpRequestFactory();
+		SimpleClientHttpRequestFactory factory = new SimpleSslClientHttpRequestFactory(
+				(ConcourseSslContextFactory.isAvailable()) ? concourseSslContext.get() : null);
 		factory.setProxy(proxy);
 		return factory;
 	}
 
+	private static SSLContext createConcourseSslContext() {
+		try {
+			return new ConcourseSslContextFactory().getSslContext();
+		}
+		catch (GeneralSecurityException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 	private static class BasicAuthClientHttpRequestFactorySupplier implements Supplier<ClientHttpRequestFactory> {
 
 		private final Supplier<ClientHttpRequestFactory> requestFactorySupplier;
@@ -16,15 +16,26 @@
 
 package io.spring.concourse.artifactoryresource.artifactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildAgent;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildInfo;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildModule;
@@ -35,14 +46,23 @@ import io.spring.concourse.artifactoryresource.artifactory.payload.ContinuousInt
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifact;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifactsSearchQueryResponse;
 import io.spring.concourse.artifactoryresource.artifactory.payload.SearchQueryResponse;
+import io.spring.concourse.artifactoryresource.io.PathFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -60,8 +80,23 @@ public final class HttpArtifactoryBuildRuns implements ArtifactoryBuildRuns {
 
 	private static final Logger logger = LoggerFactory.getLogger(HttpArtifactoryBuildRuns.class);
 
+	private static final Set<HttpStatusCode> COMPRESSION_REFUSED_STATUSES = Set.of(HttpStatus.BAD_REQUEST,
+			HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final int DEFAULT_PAGE_SIZE = 1000;
+
+	private static final String ANY_DIRECTORY_PREFIX = "**/";
+
+	private static final String DEPLOYED_ARTIFACTS_QUERY = "items.find(%s)"
+			+ ".include(\"repo\", \"path\", \"name\", \"size\", \"actual_sha1\")"
+			+ ".sort({\"$asc\" : [\"repo\", \"path\", \"name\"]}).offset(%s).limit(%s)";
+
 	private final RestTemplate restTemplate;
 
+	private final ObjectMapper objectMapper;
+
 	private final String uri;
 
 	private final String buildName;
@@ -70,15 +105,27 @@ public final class HttpArtifactoryBuildRuns implements ArtifactoryBuildRuns {
 
 	private final Integer limit;
 
+	private final int pageSize;
+
 	private final BuildRunsProvider buildRunsProvider;
 
+	private volatile boolean compress = true;
+
 	public HttpArtifactoryBuildRuns(RestTemplate restTemplate, String uri, String buildName, String project,
 			Integer limit, boolean admin) {
+		this(restTemplate, uri, buildName, project, limit, admin, DEFAULT_PAGE_SIZE);
+	}
+
+	HttpArtifactoryBuildRuns(RestTemplate restTemplate, String uri, String buildName, String project, Integer limit,
+			boolean admin, int pageSize) {
+		Assert.isTrue(pageSize > 0, "PageSize must be positive");
 		this.restTemplate = restTemplate;
+		this.objectMapper = getObjectMapper(restTemplate);
 		this.uri = uri;
 		this.buildName = buildName;
 		this.project = project;
 		this.limit = limit;
+		this.pageSize = pageSize;
 		this.buildRunsProvider = (!admin) ? new RestBuildRunsProvider()
 				: new ArtifactoryQueryLanguageBuildRunsProvider();
 	}
@@ -100,11 +147,39 @@ public final class HttpArtifactoryBuildRuns implements ArtifactoryBuildRuns {
 		UriComponents uriComponents = builder.build();
 		URI uri = uriComponents.encode().toUri();
 		logger.info("Publishing build info to {}", uri);
-		RequestEntity<BuildInfo> request = RequestEntity.put(uri)
-			.contentType(MediaType.APPLICATION_JSON)
-			.body(buildInfo);
-		ResponseEntity<Void> exchange = this.restTemplate.exchange(request, Void.class);
-		exchange.getBody();
+		if (this.compress) {
+			try {
+				put(uri, buildInfo, true);
+				return;
+			}
+			catch (RestClientResponseException ex) {
+				if (!COMPRESSION_REFUSED_STATUSES.contains(ex.getStatusCode())) {
+					throw ex;
+				}
+				logger.info("Compressed build info refused with {} response, retrying uncompressed",
+						ex.getStatusCode());
+				this.compress = false;
+			}
+		}
+		put(uri, buildInfo, false);
+	}
+
+	private void put(URI uri, BuildInfo buildInfo, boolean compress) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		if (compress) {
+			headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		HttpExchanges.put(this.restTemplate, uri, headers,
+				(outputStream) -> writeBuildInfo(buildInfo, outputStream, compress));
+	}
+
+	private void writeBuildInfo(BuildInfo buildInfo, OutputStream outputStream, boolean compress)
+			throws IOException {
+		outputStream = StreamUtils.nonClosing(outputStream);
+		try (OutputStream target = (compress) ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream) {
+			this.objectMapper.writeValue(target, buildInfo);
+		}
 	}
 
 	@Override
@@ -130,23 +205,113 @@ public final class HttpArtifactoryBuildRuns implements ArtifactoryBuildRuns {
 		}
 		UriComponents uriComponents = builder.buildAndExpand(this.buildName, buildNumber);
 		URI uri = uriComponents.encode().toUri();
-		return this.restTemplate.getForObject(uri, String.class);
+		RequestEntity<Void> request = RequestEntity.get(uri).build();
+		return HttpExchanges.exchange(this.restTemplate, request, String.class, 0).getBody();
 	}
 
 	@Override
 	public List<DeployedArtifact> getDeployedArtifacts(BuildNumber buildNumber) {
+		return streamDeployedArtifacts(buildNumber).toList();
+	}
+
+	@Override
+	public Stream<DeployedArtifact> streamDeployedArtifacts(BuildNumber buildNumber) {
 		logger.debug("Getting deployed artifacts for {}", buildNumber);
 		Assert.notNull(buildNumber, "Build number must not be null");
-		Json criteria = Json.of("@build.name", this.buildName).and("@build.number", buildNumber);
-		String query = "items.find(%s)".formatted(criteria);
-		return search(query, DeployedArtifactsSearchQueryResponse.class).getResults();
+		return streamDeployedArtifacts(getDeployedArtifactsCriteria(buildNumber));
+	}
+
+	@Override
+	public Stream<DeployedArtifact> streamDeployedArtifacts(BuildNumber buildNumber, List<String> include,
+			List<String> exclude) {
+		logger.debug("Getting deployed artifacts for {} including {} excluding {}", buildNumber, include, exclude);
+		Assert.notNull(buildNumber, "Build number must not be null");
+		Json criteria = getDeployedArtifactsCriteria(buildNumber);
+		List<Json> includeNames = getNameCriteria(include, "$match");
+		if (!include.isEmpty() && includeNames.size() == include.size()) {
+			criteria.and("$or", includeNames);
+		}
+		List<Json> excludeNames = getNameCriteria(exclude, "$nmatch");
+		if (!excludeNames.isEmpty()) {
+			criteria.and("$and", excludeNames);
+		}
+		// Patterns that can't be expressed in AQL are still applied to the results
+		PathFilter filter = new PathFilter(include, exclude);
+		return streamDeployedArtifacts(criteria).filter((artifact) -> filter.isMatch(artifact.getFullPath()));
+	}
+
+	private Json getDeployedArtifactsCriteria(BuildNumber buildNumber) {
+		return Json.of("@build.name", this.buildName).and("@build.number", buildNumber);
+	}
+
+	private List<Json> getNameCriteria(List<String> patterns, String operator) {
+		List<Json> criteria = new ArrayList<>();
+		for (String pattern : patterns) {
+			String namePattern = getNamePattern(pattern);
+			if (namePattern != null) {
+				criteria.add(Json.of("name", Json.of(operator, namePattern)));
+			}
+		}
+		return criteria;
+	}
+
+	private String getNamePattern(String pattern) {
+		String prefix = (pattern.startsWith("/")) ? "/" + ANY_DIRECTORY_PREFIX : ANY_DIRECTORY_PREFIX;
+		if (!pattern.startsWith(prefix)) {
+			return null;
+		}
+		String name = pattern.substring(prefix.length());
+		boolean simple = !name.isEmpty() && !name.contains("/") && !name.contains("**") && !name.contains("{")
+				&& !name.contains("\"") && !name.contains("\\");
+		return (simple) ? name : null;
+	}
+
+	private Stream<DeployedArtifact> streamDeployedArtifacts(Json criteria) {
+		return Stream.iterate(getDeployedArtifacts(criteria, 0), Objects::nonNull, this::getNextDeployedArtifacts)
+			.flatMap((page) -> page.getArtifacts().stream());
+	}
+
+	private DeployedArtifactsPage getNextDeployedArtifacts(DeployedArtifactsPage page) {
+		if (page.getArtifacts().size() < this.pageSize) {
+			return null;
+		}
+		return getDeployedArtifacts(page.getCriteria(), page.getOffset() + this.pageSize);
+	}
+
+	private DeployedArtifactsPage getDeployedArtifacts(Json criteria, int offset) {
+		String query = DEPLOYED_ARTIFACTS_QUERY.formatted(criteria, offset, this.pageSize);
+		List<DeployedArtifact> artifacts = search(query, DeployedArtifactsSearchQueryResponse.class).getResults();
+		logger.debug("Found {} deployed artifacts at offset {}", artifacts.size(), offset);
+		return new DeployedArtifactsPage(criteria, offset, artifacts);
 	}
 
 	protected <T extends SearchQueryResponse<?>> T search(String query, Class<T> responseType) {
 		logger.debug("Searching with AQL {}", query);
 		URI uri = UriComponentsBuilder.fromUriString(this.uri).path("/api/search/aql").build().encode().toUri();
-		RequestEntity<String> request = RequestEntity.post(uri).contentType(MediaType.TEXT_PLAIN).body(query);
-		return this.restTemplate.exchange(request, responseType).getBody();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.TEXT_PLAIN);
+		headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		byte[] body = query.getBytes(StandardCharsets.UTF_8);
+		return HttpExchanges.post(this.restTemplate, uri, headers, body,
+				(response) -> readSearchResponse(response, responseType));
+	}
+
+	private <T> T readSearchResponse(ClientHttpResponse response, Class<T> responseType) throws IOException {
+		String contentEncoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+		try (InputStream inputStream = ("gzip".equalsIgnoreCase(contentEncoding))
+				? new GZIPInputStream(response.getBody(), BUFFER_SIZE) : response.getBody()) {
+			return this.objectMapper.readValue(inputStream, responseType);
+		}
+	}
+
+	private static ObjectMapper getObjectMapper(RestTemplate restTemplate) {
+		for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+			if (converter instanceof MappingJackson2HttpMessageConverter jacksonConverter) {
+				return jacksonConverter.getObjectMapper();
+			}
+		}
+		return Jackson2ObjectMapperBuilder.json().build();
 	}
 
 	/**
@@ -204,7 +369,6 @@ public final class HttpArtifactoryBuildRuns implements ArtifactoryBuildRuns {
 		public List<BuildRun> getBuildRuns(String buildNumberPrefix, Instant startedOnOrAfter) {
 			logger.debug("Using REST call to get build runs with prefix {} started on or after {}", buildNumberPrefix,
 					startedOnOrAfter);
-			RestTemplate restTemplate = HttpArtifactoryBuildRuns.this.restTemplate;
 			UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(HttpArtifactoryBuildRuns.this.uri)
 				.path("api/build/{buildName}");
 			if (HttpArtifactoryBuildRuns.this.project != null) {
@@ -212,7 +376,11 @@ public final class HttpArtifactoryBuildRuns implements ArtifactoryBuildRuns {
 			}
 			UriComponents uriComponents = builder.buildAndExpand(HttpArtifactoryBuildRuns.this.buildName);
 			URI uri = uriComponents.encode().toUri();
-			List<BuildRun> all = restTemplate.getForObject(uri, BuildRunsRestResponse.class).getBuildsRuns();
+			RequestEntity<Void> request = RequestEntity.get(uri).build();
+			List<BuildRun> all = HttpExchanges
+				.exchange(HttpArtifactoryBuildRuns.this.restTemplate, request, BuildRunsRestResponse.class, 0)
+				.getBody()
+				.getBuildsRuns();
 			return filterAndLimit(all, buildNumberPrefix, startedOnOrAfter);
 		}
 
@@ -254,6 +422,37 @@ public final class HttpArtifactoryBuildRuns implements ArtifactoryBuildRuns {
 
 	}
 
+	/**
+	 * A single page of deployed artifacts returned from a paged AQL search.
+	 */
+	private static final class DeployedArtifactsPage {
+
+		private final Json criteria;
+
+		private final int offset;
+
+		private final List<DeployedArtifact> artifacts;
+
+		DeployedArtifactsPage(Json criteria, int offset, List<DeployedArtifact> artifacts) {
+			this.criteria = criteria;
+			this.offset = offset;
+			this.artifacts = (artifacts != null) ? artifacts : Collections.emptyList();
+		}
+
+		Json getCriteria() {
+			return this.criteria;
+		}
+
+		int getOffset() {
+			return this.offset;
+		}
+
+		List<DeployedArtifact> getArtifacts() {
+			return this.artifacts;
+		}
+
+	}
+
 	/**
 	 * Simple JSON builder support class.
 	 */
@@ -273,6 +472,14 @@ public final class HttpArtifactoryBuildRuns implements ArtifactoryBuildRuns {
 			if (value instanceof Json) {
 				this.json.append(value);
 			}
+			else if (value instanceof List<?> list) {
+				this.json.append("[");
+				for (int i = 0; i < list.size(); i++) {
+					this.json.append((i > 0) ? ", " : "");
+					appendJson(list.get(i));
+				}
+				this.json.append("]");
+			}
 			else {
 				this.json.append("\"%s\"".formatted(value));
 			}
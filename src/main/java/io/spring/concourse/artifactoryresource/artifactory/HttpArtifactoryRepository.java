@@ -19,18 +19,22 @@ package io.spring.concourse.artifactoryresource.artifactory;
 import java.io.File;
 import java.net.SocketException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import io.spring.concourse.artifactoryresource.artifactory.HttpExchanges.ContentExtractor;
 import io.spring.concourse.artifactoryresource.artifactory.payload.Checksums;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableArtifact;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifact;
 import io.spring.concourse.artifactoryresource.io.Checksum;
 import io.spring.concourse.artifactoryresource.system.ConsoleLogger;
 
 import org.springframework.core.io.Resource;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
@@ -40,11 +44,11 @@ import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
 /**
  * Default {@link ArtifactoryRepository} implementation communicating over HTTP.
@@ -68,6 +72,8 @@ public class HttpArtifactoryRepository implements ArtifactoryRepository {
 
 	private final Duration retryDelay;
 
+	private final Map<Map<String, String>, String> encodedMatrixParams = new ConcurrentHashMap<>();
+
 	public HttpArtifactoryRepository(RestTemplate restTemplate, String uri, String repositoryName,
 			Duration retryDelay) {
 		this.restTemplate = restTemplate;
@@ -80,19 +86,22 @@ public class HttpArtifactoryRepository implements ArtifactoryRepository {
 	public void deploy(DeployableArtifact artifact, DeployOption... options) {
 		try {
 			Assert.notNull(artifact, "Artifact must not be null");
-			if (artifact.getSize() <= CHECKSUM_THRESHOLD
+			boolean forceChecksumUpload = ObjectUtils.containsElement(options, DeployOption.FORCE_CHECKSUM_UPLOADS);
+			boolean deferRetries = ObjectUtils.containsElement(options, DeployOption.DEFER_RETRIES);
+			if ((artifact.getSize() <= CHECKSUM_THRESHOLD && !forceChecksumUpload)
 					|| ObjectUtils.containsElement(options, DeployOption.DISABLE_CHECKSUM_UPLOADS)) {
-				deployUsingContent(artifact);
+				deployUsingContent(artifact, deferRetries);
 				return;
 			}
 			try {
 				deployUsingChecksum(artifact);
 			}
 			catch (Exception ex) {
-				if (!(ex instanceof HttpClientErrorException || isCausedBySocketException(ex))) {
+				if (!(ex instanceof HttpClientErrorException || isCausedBySocketException(ex))
+						|| Thread.currentThread().isInterrupted()) {
 					throw ex;
 				}
-				deployUsingContent(artifact);
+				deployUsingContent(artifact, deferRetries);
 			}
 		}
 		catch (Exception ex) {
@@ -104,17 +113,17 @@ public class HttpArtifactoryRepository implements ArtifactoryRepository {
 
 	private void deployUsingChecksum(DeployableArtifact artifact) {
 		RequestEntity<Void> request = deployRequest(artifact).header("X-Checksum-Deploy", "true").build();
-		this.restTemplate.exchange(request, Void.class);
+		HttpExchanges.exchange(this.restTemplate, request, Void.class, 0);
 	}
 
-	private void deployUsingContent(DeployableArtifact artifact) {
+	private void deployUsingContent(DeployableArtifact artifact, boolean deferRetries) {
 		int attempt = 0;
 		while (true) {
 			try {
 				attempt++;
 				RequestEntity<Resource> request = deployRequest(artifact).contentLength(artifact.getSize())
 					.body(artifact.getContent());
-				this.restTemplate.exchange(request, Void.class);
+				HttpExchanges.exchange(this.restTemplate, request, Void.class, artifact.getSize());
 				return;
 			}
 			catch (RestClientResponseException | ResourceAccessException ex) {
@@ -122,11 +131,14 @@ public class HttpArtifactoryRepository implements ArtifactoryRepository {
 						? restClientException.getStatusCode() : null;
 				boolean flaky = (statusCode == HttpStatus.BAD_REQUEST || statusCode == HttpStatus.NOT_FOUND)
 						|| isCausedBySocketException(ex);
-				if (!flaky || attempt >= 3) {
+				if (!flaky || attempt >= 3 || Thread.currentThread().isInterrupted()) {
 					throw ex;
 				}
-				console.log("Deploy failed with {} response. Retrying in {}ms.", statusCode,
-						this.retryDelay.toMillis());
+				String failure = (statusCode != null) ? statusCode + " response" : ex.getMessage();
+				if (deferRetries) {
+					throw new RetryableDeployException("Deploy failed with " + failure, this.retryDelay, ex);
+				}
+				console.log("Deploy failed with {}. Retrying in {}ms.", failure, this.retryDelay.toMillis());
 				trySleep(this.retryDelay);
 			}
 		}
@@ -155,9 +167,8 @@ public class HttpArtifactoryRepository implements ArtifactoryRepository {
 		UriComponents uriComponents = UriComponentsBuilder.fromUriString(this.uri)
 			.path(this.repositoryName)
 			.path(artifact.getPath())
-			.path(buildMatrixParams(artifact.getProperties()))
 			.build();
-		URI uri = uriComponents.encode().toUri();
+		URI uri = URI.create(uriComponents.encode().toUriString() + getMatrixParams(artifact.getProperties()));
 		Checksums checksums = artifact.getChecksums();
 		return RequestEntity.put(uri)
 			.contentType(MediaType.APPLICATION_OCTET_STREAM)
@@ -165,20 +176,45 @@ public class HttpArtifactoryRepository implements ArtifactoryRepository {
 			.header("X-Checksum-Md5", checksums.getMd5());
 	}
 
+	private String getMatrixParams(Map<String, String> matrixParams) {
+		if (matrixParams == null || matrixParams.isEmpty()) {
+			return "";
+		}
+		return this.encodedMatrixParams.computeIfAbsent(matrixParams, this::buildMatrixParams);
+	}
+
 	private String buildMatrixParams(Map<String, String> matrixParams) {
 		StringBuilder matrix = new StringBuilder();
-		if (matrixParams != null && !matrixParams.isEmpty()) {
-			for (Map.Entry<String, String> entry : matrixParams.entrySet()) {
-				matrix.append(";" + entry.getKey() + "=" + entry.getValue());
-			}
+		for (Map.Entry<String, String> entry : matrixParams.entrySet()) {
+			matrix.append(";" + entry.getKey() + "=" + entry.getValue());
 		}
-		return matrix.toString();
+		return UriUtils.encodePath(matrix.toString(), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void download(DeployedArtifact artifact, File destination, boolean downloadChecksums,
+			ArtifactCache cache) {
+		if (cache == null) {
+			download(artifact, destination, downloadChecksums);
+			return;
+		}
+		String path = artifact.getFullPath();
+		Path file = destination.toPath().resolve(path);
+		if (!cache.get(artifact.getActualSha1(), artifact.getSize(), file)) {
+			getFile(path, destination);
+			cache.put(artifact.getActualSha1(), file);
+		}
+		getChecksumFiles(path, destination, downloadChecksums);
 	}
 
 	@Override
 	public void download(String path, File destination, boolean downloadChecksums) {
 		Assert.hasLength(path, "Path must not be empty");
 		getFile(path, destination);
+		getChecksumFiles(path, destination, downloadChecksums);
+	}
+
+	private void getChecksumFiles(String path, File destination, boolean downloadChecksums) {
 		if (downloadChecksums && !Checksum.isChecksumFile(path)) {
 			Checksum.getFileExtensions().forEach((checksumExtension) -> {
 				try {
@@ -197,15 +233,24 @@ public class HttpArtifactoryRepository implements ArtifactoryRepository {
 			.path("/" + path)
 			.build();
 		URI uri = uriComponents.encode().toUri();
-		this.restTemplate.execute(uri, HttpMethod.GET, null, getResponseExtractor(path, destination));
+		HttpExchanges.get(this.restTemplate, uri, getContentExtractor(path, destination));
 	}
 
-	private ResponseExtractor<Void> getResponseExtractor(String path, File destination) {
+	private ContentExtractor getContentExtractor(String path, File destination) {
 		return (response) -> {
 			Path fullPath = destination.toPath().resolve(path);
 			Files.createDirectories(fullPath.getParent());
-			Files.copy(response.getBody(), fullPath);
-			return null;
+			// Content is moved into place once complete so that a retried download
+			// replaces rather than conflicts with the result of an earlier attempt
+			Path temp = Files.createTempFile(fullPath.getParent(), "." + fullPath.getFileName(), ".download");
+			try {
+				long bytes = Files.copy(response.getBody(), temp, StandardCopyOption.REPLACE_EXISTING);
+				Files.move(temp, fullPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				return bytes;
+			}
+			finally {
+				Files.deleteIfExists(temp);
+			}
 		};
 	}
 
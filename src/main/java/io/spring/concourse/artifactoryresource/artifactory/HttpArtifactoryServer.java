@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2023 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,9 +39,10 @@ public class HttpArtifactoryServer implements ArtifactoryServer {
 
 	private final boolean admin;
 
-	HttpArtifactoryServer(RestTemplate restTemplate, String uri, Duration retryDelay, Boolean admin) {
+	HttpArtifactoryServer(RestTemplate restTemplate, String uri, Duration retryDelay, Boolean admin,
+			TransferLimits transferLimits) {
 		this.uri = uri;
-		this.restTemplate = restTemplate;
+		this.restTemplate = TransferGovernor.apply(restTemplate, transferLimits);
 		this.retryDelay = retryDelay;
 		this.admin = (admin != null) ? admin : detectAdmin();
 	}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.function.Supplier;
+
+import io.spring.concourse.artifactoryresource.jfr.HttpExchangeEvent;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Helper used to make {@link RestTemplate} calls that are recorded as
+ * {@link HttpExchangeEvent HTTP exchange events}.
+ *
+ * @author agent
+ */
+final class HttpExchanges {
+
+	private HttpExchanges() {
+	}
+
+	/**
+	 * Perform a {@link RestTemplate#exchange(RequestEntity, Class) exchange}.
+	 * @param <T> the response type
+	 * @param restTemplate the rest template
+	 * @param request the request
+	 * @param responseType the response type
+	 * @param bytes the number of bytes sent
+	 * @return the response entity
+	 */
+	static <T> ResponseEntity<T> exchange(RestTemplate restTemplate, RequestEntity<?> request, Class<T> responseType,
+			long bytes) {
+		HttpExchangeEvent event = new HttpExchangeEvent(request.getMethod().name(), request.getUrl().getPath());
+		event.setBytes(bytes);
+		return record(event, () -> {
+			ResponseEntity<T> response = restTemplate.exchange(request, responseType);
+			event.setOutcome(Integer.toString(response.getStatusCode().value()));
+			return response;
+		});
+	}
+
+	/**
+	 * Perform a {@link RestTemplate#execute(URI, HttpMethod,
+	 * org.springframework.web.client.RequestCallback, ResponseExtractor) GET request}
+	 * that extracts content using the given {@link ContentExtractor}.
+	 * @param restTemplate the rest template
+	 * @param uri the URI to get
+	 * @param extractor the extractor used to consume the response
+	 */
+	static void get(RestTemplate restTemplate, URI uri, ContentExtractor extractor) {
+		HttpExchangeEvent event = new HttpExchangeEvent(HttpMethod.GET.name(), uri.getPath());
+		record(event, () -> restTemplate.execute(uri, HttpMethod.GET, null, (response) -> {
+			event.setOutcome(Integer.toString(response.getStatusCode().value()));
+			event.setBytes(extractor.extract(response));
+			return null;
+		}));
+	}
+
+	/**
+	 * Perform a {@link RestTemplate#execute(URI, HttpMethod,
+	 * org.springframework.web.client.RequestCallback, ResponseExtractor) PUT request}
+	 * that streams content using the given {@link ContentWriter}. Content is written
+	 * directly to the connection rather than being buffered in memory when the request
+	 * supports it.
+	 * @param restTemplate the rest template
+	 * @param uri the URI to put
+	 * @param headers the request headers
+	 * @param writer the writer used to produce the request body
+	 */
+	static void put(RestTemplate restTemplate, URI uri, HttpHeaders headers, ContentWriter writer) {
+		HttpExchangeEvent event = new HttpExchangeEvent(HttpMethod.PUT.name(), uri.getPath());
+		record(event, () -> restTemplate.execute(uri, HttpMethod.PUT, (request) -> {
+			request.getHeaders().putAll(headers);
+			writeBody(request, (outputStream) -> {
+				CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+				writer.write(countingOutputStream);
+				event.setBytes(countingOutputStream.getCount());
+			});
+		}, (response) -> {
+			event.setOutcome(Integer.toString(response.getStatusCode().value()));
+			return null;
+		}));
+	}
+
+	/**
+	 * Perform a {@link RestTemplate#execute(URI, HttpMethod,
+	 * org.springframework.web.client.RequestCallback, ResponseExtractor) POST request}
+	 * that sends the given body and extracts the response using the given
+	 * {@link ResponseExtractor}.
+	 * @param <T> the response type
+	 * @param restTemplate the rest template
+	 * @param uri the URI to post to
+	 * @param headers the request headers
+	 * @param body the request body
+	 * @param extractor the extractor used to consume the response
+	 * @return the extracted response
+	 */
+	static <T> T post(RestTemplate restTemplate, URI uri, HttpHeaders headers, byte[] body,
+			ResponseExtractor<T> extractor) {
+		HttpExchangeEvent event = new HttpExchangeEvent(HttpMethod.POST.name(), uri.getPath());
+		event.setBytes(body.length);
+		return record(event, () -> restTemplate.execute(uri, HttpMethod.POST, (request) -> {
+			request.getHeaders().putAll(headers);
+			writeBody(request, (outputStream) -> outputStream.write(body));
+		}, (response) -> {
+			event.setOutcome(Integer.toString(response.getStatusCode().value()));
+			return extractor.extractData(response);
+		}));
+	}
+
+	private static <T> T record(HttpExchangeEvent event, Supplier<T> action) {
+		return event.record(() -> {
+			try {
+				return action.get();
+			}
+			catch (RestClientResponseException ex) {
+				event.setOutcome(Integer.toString(ex.getStatusCode().value()));
+				throw ex;
+			}
+		});
+	}
+
+	private static void writeBody(ClientHttpRequest request, StreamingHttpOutputMessage.Body body)
+			throws IOException {
+		if (request instanceof StreamingHttpOutputMessage streamingRequest) {
+			streamingRequest.setBody(body);
+			return;
+		}
+		body.writeTo(request.getBody());
+	}
+
+	/**
+	 * Strategy used to extract content from a response.
+	 */
+	@FunctionalInterface
+	interface ContentExtractor {
+
+		/**
+		 * Extract content from the response.
+		 * @param response the response
+		 * @return the number of bytes extracted
+		 * @throws IOException on IO error
+		 */
+		long extract(ClientHttpResponse response) throws IOException;
+
+	}
+
+	/**
+	 * Strategy used to write request content.
+	 */
+	@FunctionalInterface
+	interface ContentWriter {
+
+		/**
+		 * Write content to the given stream.
+		 * @param outputStream the destination stream
+		 * @throws IOException on IO error
+		 */
+		void write(OutputStream outputStream) throws IOException;
+
+	}
+
+	/**
+	 * {@link OutputStream} that counts the bytes written.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			this.count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			this.count += len;
+		}
+
+		long getCount() {
+			return this.count;
+		}
+
+	}
+
+}
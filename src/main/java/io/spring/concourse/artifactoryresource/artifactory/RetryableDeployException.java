@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a deploy made with {@link DeployOption#DEFER_RETRIES} fails with an
+ * error that is likely to be transient.
+ *
+ * @author agent
+ */
+public class RetryableDeployException extends RuntimeException {
+
+	private final Duration retryDelay;
+
+	public RetryableDeployException(String message, Duration retryDelay, Throwable cause) {
+		super(message, cause);
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * Return the delay that should be left before the deploy is retried.
+	 * @return the retry delay
+	 */
+	public Duration getRetryDelay() {
+		return this.retryDelay;
+	}
+
+}
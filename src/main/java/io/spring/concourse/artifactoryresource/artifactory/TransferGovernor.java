@@ -0,0 +1,324 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Governs the bandwidth and request rate used when communicating with an Artifactory
+ * server. Each budget is a token bucket shared by every thread using the server. Threads
+ * reserve tokens in small chunks and wait in reservation order so that no single worker
+ * can starve the others.
+ *
+ * @author agent
+ * @see TransferLimits
+ */
+final class TransferGovernor {
+
+	static final int CHUNK_SIZE = 16 * 1024;
+
+	private static final Duration BURST = Duration.ofSeconds(1);
+
+	private final TokenBucket uploadBytes;
+
+	private final TokenBucket downloadBytes;
+
+	private final TokenBucket uploadRequests;
+
+	private final TokenBucket downloadRequests;
+
+	TransferGovernor(TransferLimits limits) {
+		this.uploadBytes = TokenBucket.get(limits.getUploadBandwidth());
+		this.downloadBytes = TokenBucket.get(limits.getDownloadBandwidth());
+		this.uploadRequests = TokenBucket.get(limits.getUploadRequestsPerSecond());
+		this.downloadRequests = TokenBucket.get(limits.getDownloadRequestsPerSecond());
+	}
+
+	/**
+	 * Apply the given limits to the {@link RestTemplate}. The template is returned
+	 * unchanged if no limits are set.
+	 * @param restTemplate the rest template
+	 * @param limits the transfer limits
+	 * @return the governed rest template
+	 */
+	static RestTemplate apply(RestTemplate restTemplate, TransferLimits limits) {
+		if (limits == null || !limits.isLimited()) {
+			return restTemplate;
+		}
+		TransferGovernor governor = new TransferGovernor(limits);
+		List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(restTemplate.getInterceptors());
+		restTemplate.setInterceptors(new ArrayList<>());
+		restTemplate.setRequestFactory(governor.new GovernedClientHttpRequestFactory(restTemplate.getRequestFactory()));
+		restTemplate.setInterceptors(interceptors);
+		return restTemplate;
+	}
+
+	private static void acquire(TokenBucket bucket, long permits) throws InterruptedIOException {
+		if (bucket != null && permits > 0) {
+			bucket.acquire(permits);
+		}
+	}
+
+	/**
+	 * Lock-free token bucket. Callers reserve permits by advancing the time at which all
+	 * previously reserved permits will have been paid for and then wait until their own
+	 * reservation is paid. Up to {@link TransferGovernor#BURST} of unused capacity may be
+	 * banked while idle.
+	 */
+	static final class TokenBucket {
+
+		private final double nanosPerPermit;
+
+		private final long burstNanos;
+
+		private final AtomicLong paidUntil;
+
+		TokenBucket(double permitsPerSecond, Duration burst) {
+			this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+			this.burstNanos = burst.toNanos();
+			this.paidUntil = new AtomicLong(System.nanoTime() - this.burstNanos);
+		}
+
+		void acquire(long permits) throws InterruptedIOException {
+			long cost = (long) Math.ceil(permits * this.nanosPerPermit);
+			long now;
+			long previous;
+			long reserved;
+			do {
+				now = System.nanoTime();
+				previous = this.paidUntil.get();
+				long earliest = now - this.burstNanos;
+				reserved = ((previous - earliest < 0) ? earliest : previous) + cost;
+			}
+			while (!this.paidUntil.compareAndSet(previous, reserved));
+			long wait = reserved - now;
+			if (wait > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(wait);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted waiting for transfer budget");
+				}
+			}
+		}
+
+		static TokenBucket get(double permitsPerSecond) {
+			return (permitsPerSecond > 0) ? new TokenBucket(permitsPerSecond, BURST) : null;
+		}
+
+	}
+
+	/**
+	 * {@link ClientHttpRequestFactory} that creates governed requests.
+	 */
+	private class GovernedClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+		private final ClientHttpRequestFactory delegate;
+
+		GovernedClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+			return new GovernedClientHttpRequest(this.delegate.createRequest(uri, httpMethod));
+		}
+
+	}
+
+	/**
+	 * {@link ClientHttpRequest} that waits for the request budget before executing and
+	 * throttles request and response content. Streaming is passed through to the
+	 * delegate so that content is throttled as it is written to the connection.
+	 */
+	private class GovernedClientHttpRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+		private final ClientHttpRequest delegate;
+
+		private final boolean upload;
+
+		GovernedClientHttpRequest(ClientHttpRequest delegate) {
+			this.delegate = delegate;
+			this.upload = HttpMethod.PUT.equals(delegate.getMethod());
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return this.delegate.getMethod();
+		}
+
+		@Override
+		public URI getURI() {
+			return this.delegate.getURI();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.delegate.getHeaders();
+		}
+
+		@Override
+		public OutputStream getBody() throws IOException {
+			return new GovernedOutputStream(this.delegate.getBody(), TransferGovernor.this.uploadBytes);
+		}
+
+		@Override
+		public void setBody(Body body) {
+			if (this.delegate instanceof StreamingHttpOutputMessage streamingDelegate) {
+				streamingDelegate.setBody((outputStream) -> body
+					.writeTo(new GovernedOutputStream(outputStream, TransferGovernor.this.uploadBytes)));
+				return;
+			}
+			try {
+				body.writeTo(getBody());
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		@Override
+		public ClientHttpResponse execute() throws IOException {
+			acquire((this.upload) ? TransferGovernor.this.uploadRequests : TransferGovernor.this.downloadRequests, 1);
+			return new GovernedClientHttpResponse(this.delegate.execute());
+		}
+
+	}
+
+	/**
+	 * {@link ClientHttpResponse} that throttles response content.
+	 */
+	private class GovernedClientHttpResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+
+		GovernedClientHttpResponse(ClientHttpResponse delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public HttpStatusCode getStatusCode() throws IOException {
+			return this.delegate.getStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return this.delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.delegate.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			return new GovernedInputStream(this.delegate.getBody(), TransferGovernor.this.downloadBytes);
+		}
+
+		@Override
+		public void close() {
+			this.delegate.close();
+		}
+
+	}
+
+	/**
+	 * {@link OutputStream} that waits for the upload budget before writing each chunk.
+	 */
+	private static class GovernedOutputStream extends FilterOutputStream {
+
+		private final TokenBucket bucket;
+
+		GovernedOutputStream(OutputStream out, TokenBucket bucket) {
+			super(out);
+			this.bucket = bucket;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			acquire(this.bucket, 1);
+			this.out.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			int written = 0;
+			while (written < len) {
+				int chunk = Math.min(len - written, CHUNK_SIZE);
+				acquire(this.bucket, chunk);
+				this.out.write(b, off + written, chunk);
+				written += chunk;
+			}
+		}
+
+	}
+
+	/**
+	 * {@link InputStream} that waits for the download budget after reading each chunk.
+	 */
+	private static class GovernedInputStream extends FilterInputStream {
+
+		private final TokenBucket bucket;
+
+		GovernedInputStream(InputStream in, TokenBucket bucket) {
+			super(in);
+			this.bucket = bucket;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int result = this.in.read();
+			if (result != -1) {
+				acquire(this.bucket, 1);
+			}
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int result = this.in.read(b, off, Math.min(len, CHUNK_SIZE));
+			acquire(this.bucket, result);
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.Assert;
+
+/**
+ * Limits applied to all traffic between an {@link ArtifactoryServer} and Artifactory.
+ * {@code PUT} requests and request content count against the upload budget, all other
+ * requests and all response content count against the download budget. A value of
+ * {@code 0} indicates no limit.
+ *
+ * @author agent
+ * @see ArtifactoryServer
+ */
+public final class TransferLimits {
+
+	/**
+	 * {@link TransferLimits} that do not limit transfers.
+	 */
+	public static final TransferLimits NONE = new TransferLimits(null, null, null, null);
+
+	private final long uploadBandwidth;
+
+	private final long downloadBandwidth;
+
+	private final double uploadRequestsPerSecond;
+
+	private final double downloadRequestsPerSecond;
+
+	@JsonCreator
+	public TransferLimits(@JsonProperty("upload_bandwidth") Long uploadBandwidth,
+			@JsonProperty("download_bandwidth") Long downloadBandwidth,
+			@JsonProperty("upload_requests_per_second") Double uploadRequestsPerSecond,
+			@JsonProperty("download_requests_per_second") Double downloadRequestsPerSecond) {
+		this.uploadBandwidth = (uploadBandwidth != null) ? uploadBandwidth : 0;
+		this.downloadBandwidth = (downloadBandwidth != null) ? downloadBandwidth : 0;
+		this.uploadRequestsPerSecond = (uploadRequestsPerSecond != null) ? uploadRequestsPerSecond : 0;
+		this.downloadRequestsPerSecond = (downloadRequestsPerSecond != null) ? downloadRequestsPerSecond : 0;
+		Assert.isTrue(this.uploadBandwidth >= 0, "Upload bandwidth must not be negative");
+		Assert.isTrue(this.downloadBandwidth >= 0, "Download bandwidth must not be negative");
+		Assert.isTrue(this.uploadRequestsPerSecond >= 0, "Upload requests per second must not be negative");
+		Assert.isTrue(this.downloadRequestsPerSecond >= 0, "Download requests per second must not be negative");
+	}
+
+	/**
+	 * Return the maximum number of bytes per second that may be uploaded.
+	 * @return the upload bandwidth or {@code 0}
+	 */
+	public long getUploadBandwidth() {
+		return this.uploadBandwidth;
+	}
+
+	/**
+	 * Return the maximum number of bytes per second that may be downloaded.
+	 * @return the download bandwidth or {@code 0}
+	 */
+	public long getDownloadBandwidth() {
+		return this.downloadBandwidth;
+	}
+
+	/**
+	 * Return the maximum number of upload requests that may be made per second.
+	 * @return the upload request rate or {@code 0}
+	 */
+	public double getUploadRequestsPerSecond() {
+		return this.uploadRequestsPerSecond;
+	}
+
+	/**
+	 * Return the maximum number of download requests that may be made per second.
+	 * @return the download request rate or {@code 0}
+	 */
+	public double getDownloadRequestsPerSecond() {
+		return this.downloadRequestsPerSecond;
+	}
+
+	/**
+	 * Return if any limit has been set.
+	 * @return if transfers are limited
+	 */
+	public boolean isLimited() {
+		return this.uploadBandwidth > 0 || this.downloadBandwidth > 0 || this.uploadRequestsPerSecond > 0
+				|| this.downloadRequestsPerSecond > 0;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		TransferLimits other = (TransferLimits) obj;
+		return this.uploadBandwidth == other.uploadBandwidth && this.downloadBandwidth == other.downloadBandwidth
+				&& this.uploadRequestsPerSecond == other.uploadRequestsPerSecond
+				&& this.downloadRequestsPerSecond == other.downloadRequestsPerSecond;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.uploadBandwidth, this.downloadBandwidth, this.uploadRequestsPerSecond,
+				this.downloadRequestsPerSecond);
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("uploadBandwidth", this.uploadBandwidth)
+			.append("downloadBandwidth", this.downloadBandwidth)
+			.append("uploadRequestsPerSecond", this.uploadRequestsPerSecond)
+			.append("downloadRequestsPerSecond", this.downloadRequestsPerSecond)
+			.toString();
+	}
+
+}
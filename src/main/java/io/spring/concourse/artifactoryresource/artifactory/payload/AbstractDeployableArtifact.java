@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2019 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,8 +40,7 @@ public abstract class AbstractDeployableArtifact implements DeployableArtifact {
 		Assert.hasText(path, "Path must not be empty");
 		Assert.isTrue(path.startsWith("/"), "Path must start with '/'");
 		this.path = path;
-		this.properties = (properties != null) ? Collections.unmodifiableMap(new LinkedHashMap<>(properties))
-				: Collections.emptyMap();
+		this.properties = copyProperties(properties);
 		this.checksums = checksums;
 	}
 
@@ -63,4 +62,14 @@ public abstract class AbstractDeployableArtifact implements DeployableArtifact {
 		return this.checksums;
 	}
 
+	private static Map<String, String> copyProperties(Map<String, String> properties) {
+		if (properties == null) {
+			return Collections.emptyMap();
+		}
+		if (PropertiesInterner.isInterned(properties)) {
+			return properties;
+		}
+		return Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+	}
+
 }
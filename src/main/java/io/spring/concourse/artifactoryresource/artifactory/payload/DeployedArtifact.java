@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2023 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -57,8 +57,11 @@ public class DeployedArtifact {
 	@JsonIsoDateFormat
 	private final Instant updated;
 
+	@JsonProperty("actual_sha1")
+	private final String actualSha1;
+
 	public DeployedArtifact(String repo, String name, String path) {
-		this(repo, name, path, null, 0, null, null, null, null, null);
+		this(repo, name, path, null, 0, null, null, null, null, null, null);
 	}
 
 	@JsonCreator
@@ -66,7 +69,7 @@ public class DeployedArtifact {
 			@JsonProperty("path") String path, @JsonProperty("type") String type, @JsonProperty("size") long size,
 			@JsonProperty("created") Instant created, @JsonProperty("created-by") String createdBy,
 			@JsonProperty("modified") Instant modified, @JsonProperty("modified-by") String modifiedBy,
-			@JsonProperty("updated") Instant updated) {
+			@JsonProperty("updated") Instant updated, @JsonProperty("actual_sha1") String actualSha1) {
 		Assert.hasText(repo, "Repo must not be empty");
 		Assert.hasText(name, "Name must not be empty");
 		Assert.hasText(path, "Path must not be empty");
@@ -80,6 +83,7 @@ public class DeployedArtifact {
 		this.modified = modified;
 		this.modifiedBy = modifiedBy;
 		this.updated = updated;
+		this.actualSha1 = actualSha1;
 	}
 
 	public String getRepo() {
@@ -122,4 +126,21 @@ public class DeployedArtifact {
 		return this.size;
 	}
 
+	/**
+	 * Return the SHA-1 checksum calculated by Artifactory for the artifact or
+	 * {@code null} if it was not included in the search results.
+	 * @return the actual SHA-1 checksum
+	 */
+	public String getActualSha1() {
+		return this.actualSha1;
+	}
+
+	/**
+	 * Return the path of the artifact including its name, relative to the repository.
+	 * @return the full path of the artifact
+	 */
+	public String getFullPath() {
+		return (!".".equals(this.path)) ? this.path + "/" + this.name : this.name;
+	}
+
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory.payload;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interns {@link DeployableArtifact#getProperties() artifact properties} so that
+ * artifacts with identical properties share a single immutable map. Interned maps are
+ * used directly by {@link AbstractDeployableArtifact} rather than being copied.
+ *
+ * @author agent
+ */
+public class PropertiesInterner {
+
+	private final Map<Map<String, String>, Map<String, String>> interned = new HashMap<>();
+
+	/**
+	 * Return an immutable map with the same entries as the given properties, reusing a
+	 * previously interned instance when possible.
+	 * @param properties the properties to intern
+	 * @return the interned properties
+	 */
+	public synchronized Map<String, String> intern(Map<String, String> properties) {
+		if (properties instanceof InternedProperties) {
+			return properties;
+		}
+		Map<String, String> interned = this.interned.get(properties);
+		if (interned == null) {
+			interned = new InternedProperties(properties);
+			this.interned.put(interned, interned);
+		}
+		return interned;
+	}
+
+	/**
+	 * Return the number of distinct property maps that have been interned.
+	 * @return the number of interned maps
+	 */
+	public synchronized int size() {
+		return this.interned.size();
+	}
+
+	static boolean isInterned(Map<String, String> properties) {
+		return properties instanceof InternedProperties;
+	}
+
+	/**
+	 * Immutable properties map created by the interner.
+	 */
+	private static final class InternedProperties extends AbstractMap<String, String> {
+
+		private final Map<String, String> properties;
+
+		private final int hashCode;
+
+		InternedProperties(Map<String, String> properties) {
+			this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+			this.hashCode = this.properties.hashCode();
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			return this.properties.entrySet();
+		}
+
+		@Override
+		public String get(Object key) {
+			return this.properties.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return this.properties.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return this.properties.size();
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+	}
+
+}
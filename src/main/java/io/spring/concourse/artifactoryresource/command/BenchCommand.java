@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.spring.concourse.artifactoryresource.command.payload.BenchRequest;
+import io.spring.concourse.artifactoryresource.command.payload.BenchRequest.Params;
+import io.spring.concourse.artifactoryresource.command.payload.BenchResponse;
+import io.spring.concourse.artifactoryresource.command.payload.InRequest;
+import io.spring.concourse.artifactoryresource.command.payload.OutRequest;
+import io.spring.concourse.artifactoryresource.command.payload.OutResponse;
+import io.spring.concourse.artifactoryresource.command.payload.Source;
+import io.spring.concourse.artifactoryresource.command.payload.Version;
+import io.spring.concourse.artifactoryresource.io.Directory;
+import io.spring.concourse.artifactoryresource.standin.ArtifactoryStandIn;
+import io.spring.concourse.artifactoryresource.standin.StandInSettings;
+import io.spring.concourse.artifactoryresource.system.ConsoleLogger;
+import io.spring.concourse.artifactoryresource.system.SystemInput;
+import io.spring.concourse.artifactoryresource.system.SystemOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Command that measures deploy and download throughput by running the {@link OutHandler}
+ * and {@link InHandler} against a synthetic Maven repository. When the request has no
+ * source, a local {@link ArtifactoryStandIn} is used as the target.
+ *
+ * @author agent
+ */
+@Component
+public class BenchCommand implements Command {
+
+	private static final Logger logger = LoggerFactory.getLogger(BenchCommand.class);
+
+	private static final ConsoleLogger console = new ConsoleLogger();
+
+	private static final String STAND_IN_BUILD_NAME = "bench";
+
+	private static final String REPOSITORY_FOLDER = "repository";
+
+	private static final String PERFORMANCE_SUMMARY_FILE = "performance-summary.json";
+
+	private static final String OUT_PERFORMANCE_SUMMARY_FILE = "out-performance-summary.json";
+
+	private final SystemInput systemInput;
+
+	private final SystemOutput systemOutput;
+
+	private final ObjectMapper objectMapper;
+
+	private final OutHandler outHandler;
+
+	private final InHandler inHandler;
+
+	public BenchCommand(SystemInput systemInput, SystemOutput systemOutput, ObjectMapper objectMapper,
+			OutHandler outHandler, InHandler inHandler) {
+		this.systemInput = systemInput;
+		this.systemOutput = systemOutput;
+		this.objectMapper = objectMapper;
+		this.outHandler = outHandler;
+		this.inHandler = inHandler;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		logger.debug("Running 'bench' command");
+		BenchRequest request = this.systemInput.read(BenchRequest.class);
+		Params params = request.getParams();
+		File root = Files.createTempDirectory("artifactory-resource-bench").toFile();
+		try (ArtifactoryStandIn standIn = startStandInIfNecessary(request)) {
+			Source source = (standIn != null) ? new Source(standIn.getUri().toString(), STAND_IN_BUILD_NAME,
+					STAND_IN_BUILD_NAME, STAND_IN_BUILD_NAME, null) : request.getSource();
+			File outFolder = createFolder(root, "out");
+			File inFolder = createFolder(root, "in");
+			SyntheticMavenRepository.Contents contents = new SyntheticMavenRepository(params.getModules(),
+					params.getMinFileSize(), params.getMaxFileSize(), params.getClassifiers(), 0)
+				.generate(new File(outFolder, REPOSITORY_FOLDER));
+			console.log("Generated {} files ({}) for {} modules", contents.getFiles(),
+					PerformanceSummary.formatBytes(contents.getBytes()), params.getModules());
+			Version version = runOut(source, params, outFolder, new File(root, OUT_PERFORMANCE_SUMMARY_FILE));
+			runIn(source, params, version, inFolder);
+			Map<String, Long> requests = (standIn != null) ? standIn.getRequestCounts() : null;
+			BenchResponse response = new BenchResponse(source.getUri(), contents.getFiles(), contents.getBytes(),
+					readPerformanceSummary(new File(root, OUT_PERFORMANCE_SUMMARY_FILE)),
+					readPerformanceSummary(new File(inFolder, PERFORMANCE_SUMMARY_FILE)), requests);
+			logger.trace("Writing response {}", response);
+			this.systemOutput.write(response);
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(root);
+		}
+	}
+
+	private ArtifactoryStandIn startStandInIfNecessary(BenchRequest request) throws IOException {
+		if (request.getSource() != null) {
+			return null;
+		}
+		Params params = request.getParams();
+		StandInSettings settings = StandInSettings.DEFAULT
+			.withLatency(Duration.ofMillis(params.getStandInLatency()))
+			.withBandwidth(params.getStandInBandwidth())
+			.withCapacity(params.getStandInCapacity());
+		ArtifactoryStandIn standIn = new ArtifactoryStandIn(settings);
+		standIn.start();
+		console.log("Started Artifactory stand-in at {} with {}", standIn.getUri(), settings);
+		return standIn;
+	}
+
+	private File createFolder(File root, String name) throws IOException {
+		return Files.createDirectories(new File(root, name).toPath()).toFile();
+	}
+
+	private Version runOut(Source source, Params params, File folder, File performanceSummaryFile) {
+		console.log("Running out against {}", source.getUri());
+		OutRequest.Params outParams = new OutRequest.Params(null, params.getRepo(), null, REPOSITORY_FOLDER, null,
+				null, null, null, null, null, null, null, params.getThreads(), null, null,
+				params.getAdaptiveConcurrency(), params.isVirtualThreads(), null, null);
+		OutResponse response = this.outHandler.handle(new OutRequest(source, outParams), new Directory(folder),
+				performanceSummaryFile);
+		return response.getVersion();
+	}
+
+	private void runIn(Source source, Params params, Version version, File folder) {
+		console.log("Running in against {}", source.getUri());
+		InRequest.Params inParams = new InRequest.Params(null, null, null, null, null, params.getThreads(), true,
+				params.getAdaptiveConcurrency(), params.isVirtualThreads(), null, null, null, null, null, null);
+		this.inHandler.handle(new InRequest(source, version, inParams), new Directory(folder));
+	}
+
+	private Map<String, Object> readPerformanceSummary(File file) throws IOException {
+		if (!file.exists()) {
+			return Collections.emptyMap();
+		}
+		return this.objectMapper.readValue(file, new TypeReference<>() {
+		});
+	}
+
+}
@@ -107,7 +107,8 @@ public class CheckHandler {
 	}
 
 	private ArtifactoryServer artifactoryServer(Source source) {
-		return this.artifactory.server(source.getUri(), source.getUsername(), source.getPassword(), source.getProxy());
+		return this.artifactory.server(source.getUri(), source.getUsername(), source.getPassword(), source.getProxy(),
+				null, null, source.getTransferLimits());
 	}
 
 	private List<BuildRun> getLatest(List<BuildRun> all) {
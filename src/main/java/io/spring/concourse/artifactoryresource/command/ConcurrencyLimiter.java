@@ -0,0 +1,445 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import io.spring.concourse.artifactoryresource.artifactory.RetryableDeployException;
+import io.spring.concourse.artifactoryresource.command.payload.AdaptiveConcurrency;
+import io.spring.concourse.artifactoryresource.system.ConsoleLogger;
+
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Limits the number of concurrent transfers and, optionally, the number of bytes in
+ * flight during an {@code in} or {@code out} run.
+ *
+ * @author agent
+ * @see #get(int, AdaptiveConcurrency, long)
+ */
+abstract class ConcurrencyLimiter {
+
+	/**
+	 * Return the maximum number of transfers that may run concurrently. Used to size the
+	 * thread pool that runs transfers when platform threads are used.
+	 * @return the maximum concurrency
+	 */
+	abstract int getMaxConcurrency();
+
+	/**
+	 * Run the given transfer action once a permit is available.
+	 * @param bytes the number of bytes the action transfers
+	 * @param action the action to run
+	 */
+	void run(long bytes, Runnable action) {
+		Transfer transfer = new Transfer(bytes, action);
+		run(() -> transfer);
+	}
+
+	/**
+	 * Run the transfer returned by the given selector once a permit is available. The
+	 * selector is only called once the permit has been acquired so that the transfer
+	 * that runs is chosen from the work pending at that time rather than when the
+	 * caller started waiting.
+	 * @param selector supplies the transfer to run or {@code null} if there is nothing
+	 * to run
+	 */
+	abstract void run(Supplier<Transfer> selector);
+
+	/**
+	 * Report how concurrency was managed to the given summary.
+	 * @param summary the performance summary
+	 */
+	abstract void report(PerformanceSummary summary);
+
+	/**
+	 * Return a {@link ConcurrencyLimiter} for the given settings.
+	 * @param threads the number of threads, used as the starting concurrency when
+	 * adaptive
+	 * @param adaptiveConcurrency the adaptive concurrency settings or {@code null} to use
+	 * a fixed number of threads
+	 * @return a concurrency limiter
+	 */
+	static ConcurrencyLimiter get(int threads, AdaptiveConcurrency adaptiveConcurrency) {
+		return get(threads, adaptiveConcurrency, 0);
+	}
+
+	/**
+	 * Return a {@link ConcurrencyLimiter} for the given settings.
+	 * @param threads the number of threads, used as the starting concurrency when
+	 * adaptive
+	 * @param adaptiveConcurrency the adaptive concurrency settings or {@code null} to use
+	 * a fixed number of threads
+	 * @param maxInFlightBytes the maximum number of bytes that may be in flight or
+	 * {@code 0} for no limit
+	 * @return a concurrency limiter
+	 */
+	static ConcurrencyLimiter get(int threads, AdaptiveConcurrency adaptiveConcurrency, long maxInFlightBytes) {
+		ConcurrencyLimiter limiter = (adaptiveConcurrency != null)
+				? new Adaptive(threads, adaptiveConcurrency.getMin(), adaptiveConcurrency.getMax())
+				: new Fixed(threads);
+		return (maxInFlightBytes > 0) ? new InFlightBytes(limiter, maxInFlightBytes) : limiter;
+	}
+
+	/**
+	 * {@link ConcurrencyLimiter} that allows a fixed number of concurrent transfers. A
+	 * semaphore is used so that the limit also applies when transfers run on an executor
+	 * that does not bound its threads.
+	 */
+	static class Fixed extends ConcurrencyLimiter {
+
+		private final int threads;
+
+		private final Semaphore permits;
+
+		Fixed(int threads) {
+			this.threads = threads;
+			this.permits = new Semaphore(threads, true);
+		}
+
+		@Override
+		int getMaxConcurrency() {
+			return this.threads;
+		}
+
+		@Override
+		void run(Supplier<Transfer> selector) {
+			this.permits.acquireUninterruptibly();
+			try {
+				Transfer transfer = selector.get();
+				if (transfer != null) {
+					transfer.run();
+				}
+			}
+			finally {
+				this.permits.release();
+			}
+		}
+
+		@Override
+		void report(PerformanceSummary summary) {
+			summary.setValue("concurrency", "fixed " + this.threads);
+		}
+
+	}
+
+	/**
+	 * {@link ConcurrencyLimiter} that limits the total size of transfers in flight before
+	 * applying a delegate limiter. Transfers larger than the limit run on their own.
+	 * Limits too large to be counted in single byte permits are counted in larger units.
+	 */
+	static class InFlightBytes extends ConcurrencyLimiter {
+
+		private final ConcurrencyLimiter delegate;
+
+		private final long maxInFlightBytes;
+
+		private final long bytesPerPermit;
+
+		private final int maxPermits;
+
+		private final Semaphore permits;
+
+		InFlightBytes(ConcurrencyLimiter delegate, long maxInFlightBytes) {
+			this.delegate = delegate;
+			this.maxInFlightBytes = maxInFlightBytes;
+			this.bytesPerPermit = ceilDiv(maxInFlightBytes, Integer.MAX_VALUE);
+			this.maxPermits = (int) ceilDiv(maxInFlightBytes, this.bytesPerPermit);
+			this.permits = new Semaphore(this.maxPermits, true);
+		}
+
+		@Override
+		int getMaxConcurrency() {
+			return this.delegate.getMaxConcurrency();
+		}
+
+		@Override
+		void run(Supplier<Transfer> selector) {
+			// Bytes are acquired once the transfer is known and are held across any
+			// retries made by the delegate
+			AtomicInteger acquired = new AtomicInteger();
+			try {
+				this.delegate.run(() -> {
+					Transfer transfer = selector.get();
+					if (transfer != null) {
+						int required = (int) Math.min(ceilDiv(Math.max(transfer.getBytes(), 0), this.bytesPerPermit),
+								this.maxPermits);
+						this.permits.acquireUninterruptibly(required);
+						acquired.set(required);
+					}
+					return transfer;
+				});
+			}
+			finally {
+				this.permits.release(acquired.get());
+			}
+		}
+
+		@Override
+		void report(PerformanceSummary summary) {
+			this.delegate.report(summary);
+			summary.setValue("in-flight bytes limit", PerformanceSummary.formatBytes(this.maxInFlightBytes));
+		}
+
+		private static long ceilDiv(long x, long y) {
+			return -Math.floorDiv(-x, y);
+		}
+
+	}
+
+	/**
+	 * {@link ConcurrencyLimiter} that uses additive-increase/multiplicative-decrease to
+	 * find the concurrency the server can sustain. The limit grows by roughly one each
+	 * time a full window of transfers succeeds and is halved when the server reports
+	 * overload or when size-normalized latency rises well above its running baseline.
+	 * Transfers rejected because of overload are retried once a permit is available again.
+	 */
+	static class Adaptive extends ConcurrencyLimiter {
+
+		private static final ConsoleLogger console = new ConsoleLogger();
+
+		static final int MAX_ATTEMPTS = 5;
+
+		private static final long BACKOFF_MILLIS = 50;
+
+		private static final double DECREASE_FACTOR = 0.5;
+
+		private static final double LATENCY_THRESHOLD = 3.0;
+
+		private static final double BASELINE_ALPHA = 0.1;
+
+		private static final int WARMUP_SAMPLES = 10;
+
+		private static final double NORMALIZATION_BYTES = 256 * 1024;
+
+		private final int min;
+
+		private final int max;
+
+		private final Lock lock = new ReentrantLock();
+
+		private final Condition available = this.lock.newCondition();
+
+		private final LongAdder retries = new LongAdder();
+
+		private double limit;
+
+		private int inFlight;
+
+		private long epoch;
+
+		private double baseline;
+
+		private int samples;
+
+		private int peak;
+
+		private int decreases;
+
+		Adaptive(int initial, int min, int max) {
+			this.min = min;
+			this.max = max;
+			this.limit = Math.min(Math.max(initial, min), max);
+			this.peak = (int) this.limit;
+		}
+
+		@Override
+		int getMaxConcurrency() {
+			return this.max;
+		}
+
+		@Override
+		void run(Supplier<Transfer> selector) {
+			Transfer transfer = null;
+			for (int attempt = 1;; attempt++) {
+				long epoch = acquire();
+				long start = System.nanoTime();
+				boolean succeeded = false;
+				boolean overloaded = false;
+				try {
+					transfer = (transfer != null) ? transfer : selector.get();
+					if (transfer == null) {
+						return;
+					}
+					start = System.nanoTime();
+					transfer.run();
+					succeeded = true;
+					return;
+				}
+				catch (RuntimeException ex) {
+					overloaded = isOverload(ex);
+					if (!overloaded || attempt >= MAX_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+						throw ex;
+					}
+				}
+				finally {
+					long bytes = (transfer != null) ? transfer.getBytes() : 0;
+					release(epoch, succeeded, overloaded, normalize(System.nanoTime() - start, bytes));
+				}
+				this.retries.increment();
+				console.log("Server overloaded, retrying with concurrency limit {}", getLimit());
+				backoff(attempt);
+			}
+		}
+
+		@Override
+		void report(PerformanceSummary summary) {
+			this.lock.lock();
+			try {
+				summary.setValue("concurrency", "adaptive %d-%d, final %d, peak %d, %d decreases".formatted(this.min,
+						this.max, (int) this.limit, this.peak, this.decreases));
+			}
+			finally {
+				this.lock.unlock();
+			}
+			long retries = this.retries.sum();
+			if (retries > 0) {
+				summary.add("overload retries", retries);
+			}
+		}
+
+		int getLimit() {
+			this.lock.lock();
+			try {
+				return (int) this.limit;
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		private long acquire() {
+			this.lock.lock();
+			try {
+				while (this.inFlight >= (int) this.limit) {
+					this.available.awaitUninterruptibly();
+				}
+				this.inFlight++;
+				return this.epoch;
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		private void release(long epoch, boolean succeeded, boolean overloaded, double latency) {
+			this.lock.lock();
+			try {
+				boolean saturated = this.inFlight >= (int) this.limit;
+				this.inFlight--;
+				if (overloaded) {
+					decrease(epoch);
+				}
+				else if (succeeded) {
+					boolean spike = this.samples >= WARMUP_SAMPLES && latency > this.baseline * LATENCY_THRESHOLD;
+					this.baseline = (this.samples != 0) ? this.baseline + BASELINE_ALPHA * (latency - this.baseline)
+							: latency;
+					this.samples++;
+					if (spike) {
+						decrease(epoch);
+					}
+					else if (saturated) {
+						increase();
+					}
+				}
+				this.available.signalAll();
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		private void increase() {
+			this.limit = Math.min(this.max, this.limit + 1.0 / this.limit);
+			this.peak = Math.max(this.peak, (int) this.limit);
+		}
+
+		private void decrease(long epoch) {
+			if (epoch != this.epoch) {
+				return;
+			}
+			this.limit = Math.max(this.min, this.limit * DECREASE_FACTOR);
+			this.epoch++;
+			this.decreases++;
+		}
+
+		private double normalize(long nanos, long bytes) {
+			return nanos / (1.0 + Math.max(bytes, 0) / NORMALIZATION_BYTES);
+		}
+
+		private boolean isOverload(Throwable ex) {
+			while (ex != null) {
+				if (ex instanceof RetryableDeployException) {
+					// Already scheduled to be retried later, so must not also be retried here
+					return false;
+				}
+				if (ex instanceof RestClientResponseException responseException) {
+					int status = responseException.getStatusCode().value();
+					return status == 429 || status >= 500;
+				}
+				if (ex instanceof SocketException || ex instanceof SocketTimeoutException) {
+					return true;
+				}
+				ex = ex.getCause();
+			}
+			return false;
+		}
+
+		private void backoff(int attempt) {
+			try {
+				Thread.sleep(BACKOFF_MILLIS * attempt);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+	/**
+	 * A transfer run by a {@link ConcurrencyLimiter}.
+	 */
+	static final class Transfer {
+
+		private final long bytes;
+
+		private final Runnable action;
+
+		Transfer(long bytes, Runnable action) {
+			this.bytes = bytes;
+			this.action = action;
+		}
+
+		long getBytes() {
+			return this.bytes;
+		}
+
+		void run() {
+			this.action.run();
+		}
+
+	}
+
+}
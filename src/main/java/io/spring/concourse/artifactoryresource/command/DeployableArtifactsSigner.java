@@ -26,6 +26,7 @@ import java.util.stream.Collectors;
 import io.spring.concourse.artifactoryresource.artifactory.payload.Checksums;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableArtifact;
 import io.spring.concourse.artifactoryresource.io.FileSet.Category;
+import io.spring.concourse.artifactoryresource.jfr.SignEvent;
 import io.spring.concourse.artifactoryresource.openpgp.ArmoredAsciiSigner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -104,8 +105,13 @@ class DeployableArtifactsSigner {
 				signatureFile.getParentFile().mkdirs();
 				signatureFile.deleteOnExit();
 				logger.debug("signing {}", artifact.getPath());
-				DeployableArtifactsSigner.this.signer.sign(artifact.getContent().getInputStream(),
-						this.signatureResource.getOutputStream());
+				SignEvent event = new SignEvent(artifact.getPath());
+				event.setBytes(artifact.getSize());
+				event.record(() -> {
+					DeployableArtifactsSigner.this.signer.sign(artifact.getContent().getInputStream(),
+							this.signatureResource.getOutputStream());
+					return null;
+				});
 				this.size = this.signatureResource.contentLength();
 				this.checksums = Checksums.calculate(this.signatureResource);
 			}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.util.Assert;
+
+/**
+ * Tracks the files that are being transferred into each folder and calls an action as
+ * soon as all files in a folder are complete. Folders are only considered complete once
+ * the tracker has been {@link #seal() sealed} so that a folder is never reported while
+ * its files are still being listed.
+ *
+ * @author agent
+ */
+class FolderCompletionTracker {
+
+	private final Consumer<String> action;
+
+	private final Map<String, Integer> pending = new HashMap<>();
+
+	private boolean sealed;
+
+	FolderCompletionTracker(Consumer<String> action) {
+		Assert.notNull(action, "Action must not be null");
+		this.action = action;
+	}
+
+	/**
+	 * Add a file that will be transferred into the given folder.
+	 * @param folder the folder
+	 */
+	void add(String folder) {
+		synchronized (this.pending) {
+			Assert.state(!this.sealed, "Tracker has been sealed");
+			this.pending.merge(folder, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * Mark a file in the given folder as complete, calling the action if it was the last
+	 * pending file of a sealed tracker.
+	 * @param folder the folder
+	 */
+	void complete(String folder) {
+		boolean complete;
+		synchronized (this.pending) {
+			Integer remaining = this.pending.computeIfPresent(folder, (key, count) -> count - 1);
+			Assert.state(remaining != null, () -> "Folder '" + folder + "' has no pending files");
+			complete = this.sealed && remaining == 0;
+			if (complete) {
+				this.pending.remove(folder);
+			}
+		}
+		if (complete) {
+			this.action.accept(folder);
+		}
+	}
+
+	/**
+	 * Seal the tracker once all files have been added, calling the action for any folders
+	 * that are already complete.
+	 */
+	void seal() {
+		List<String> complete = new ArrayList<>();
+		synchronized (this.pending) {
+			this.sealed = true;
+			this.pending.entrySet().removeIf((entry) -> entry.getValue() == 0 && complete.add(entry.getKey()));
+		}
+		complete.forEach(this.action);
+	}
+
+}
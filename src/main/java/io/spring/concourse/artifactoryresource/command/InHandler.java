@@ -19,23 +19,28 @@ package io.spring.concourse.artifactoryresource.command;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import io.spring.concourse.artifactoryresource.artifactory.ArtifactCache;
 import io.spring.concourse.artifactoryresource.artifactory.Artifactory;
 import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryBuildRuns;
 import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryServer;
 import io.spring.concourse.artifactoryresource.artifactory.BuildNumber;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifact;
+import io.spring.concourse.artifactoryresource.command.LargestFirstScheduler.RetryPolicy;
 import io.spring.concourse.artifactoryresource.command.payload.InRequest;
 import io.spring.concourse.artifactoryresource.command.payload.InRequest.Params;
 import io.spring.concourse.artifactoryresource.command.payload.InResponse;
 import io.spring.concourse.artifactoryresource.command.payload.Source;
 import io.spring.concourse.artifactoryresource.command.payload.Version;
 import io.spring.concourse.artifactoryresource.io.Directory;
+import io.spring.concourse.artifactoryresource.jfr.FlightRecording;
 import io.spring.concourse.artifactoryresource.maven.MavenMetadataGenerator;
 import io.spring.concourse.artifactoryresource.system.ConsoleLogger;
 import org.slf4j.Logger;
@@ -43,8 +48,6 @@ import org.slf4j.LoggerFactory;
 
 import org.springframework.stereotype.Component;
 import org.springframework.util.FileCopyUtils;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 
 /**
  * Delegate used to handle operations triggered from the {@link InCommand}.
@@ -70,31 +73,85 @@ public class InHandler {
 	}
 
 	public InResponse handle(InRequest request, Directory directory) {
+		FlightRecording recording = FlightRecording.start(request.getSource().isFlightRecording());
+		try {
+			return doHandle(request, directory);
+		}
+		finally {
+			recording.stop(directory.getFile());
+		}
+	}
+
+	private InResponse doHandle(InRequest request, Directory directory) {
 		Source source = request.getSource();
 		Version version = request.getVersion();
 		logger.debug("Handling in for source '{}' version '{}'", source, version);
 		BuildNumber buildNumber = BuildNumber.of(version.getBuildNumber());
 		Params params = request.getParams();
 		DebugLogging.setEnabled(params.isDebug());
+		PerformanceSummary summary = new PerformanceSummary();
 		ArtifactoryServer artifactoryServer = getArtifactoryServer(request.getSource());
 		ArtifactoryBuildRuns buildRuns = artifactoryServer.buildRuns(source.getBuildName(), source.getProject());
+		// Build info is fetched while artifacts are downloaded
+		CompletableFuture<String> buildInfo = (params.isSaveBuildInfo())
+				? fetchBuildInfo(buildRuns, buildNumber, summary) : null;
 		if (params.isDownloadArtifacts()) {
-			List<DeployedArtifact> artifacts = buildRuns.getDeployedArtifacts(buildNumber);
 			console.log("Downloading build {} artifacts from {} using {} thread(s)", buildNumber, source.getUri(),
 					params.getThreads());
-			download(artifactoryServer, groupByRepo(artifacts), directory.getFile(), params.isDownloadChecksums(),
-					params.getThreads());
-			if (params.isGenerateMavenMetadata()) {
-				logger.debug("Generating maven metadata");
-				this.mavenMetadataGenerator.generate(directory, params.isDownloadChecksums());
+			ConcurrencyLimiter limiter = ConcurrencyLimiter.get(params.getThreads(), params.getAdaptiveConcurrency(),
+					params.getMaxInFlightBytes());
+			ArtifactCache cache = getCache(params);
+			FolderCompletionTracker folders = new FolderCompletionTracker(
+					(folder) -> folderDownloaded(directory, folder, params, summary));
+			summary.phase("download",
+					() -> download(artifactoryServer,
+							buildRuns.streamDeployedArtifacts(buildNumber, params.getInclude(), params.getExclude()),
+							directory.getFile(), params, limiter, cache, folders, summary));
+			if (cache != null) {
+				summary.add("cache hits", cache.getHits());
+				summary.add("cache misses", cache.getMisses());
+				summary.add("cache evictions", cache.getEvictions());
 			}
 		}
-		if (params.isSaveBuildInfo()) {
-			String buildInfo = buildRuns.getRawBuildInfo(buildNumber);
-			saveBuildInfo(buildInfo, new File(directory.getFile(), "build-info.json"));
+		if (buildInfo != null) {
+			saveBuildInfo(getBuildInfo(buildInfo), new File(directory.getFile(), "build-info.json"));
+		}
+		if (params.isSavePerformanceSummary()) {
+			summary.save(new File(directory.getFile(), "performance-summary.json"));
 		}
 		logger.debug("Done");
-		return new InResponse(version);
+		return new InResponse(version, summary.getMetadata());
+	}
+
+	private void folderDownloaded(Directory directory, String folder, Params params, PerformanceSummary summary) {
+		if (params.isGenerateMavenMetadata()) {
+			logger.debug("Generating maven metadata for {}", folder);
+			// Folders complete on many threads at once so the time recorded is summed
+			// across threads and can exceed the elapsed time
+			summary.phase("maven-metadata cumulative", () -> this.mavenMetadataGenerator.generate(directory,
+					new File(directory.getFile(), folder), params.isDownloadChecksums()));
+			summary.increment("maven-metadata folders");
+		}
+	}
+
+	private CompletableFuture<String> fetchBuildInfo(ArtifactoryBuildRuns buildRuns, BuildNumber buildNumber,
+			PerformanceSummary summary) {
+		return CompletableFuture
+			.supplyAsync(() -> summary.phase("build-info", () -> buildRuns.getRawBuildInfo(buildNumber)));
+	}
+
+	private String getBuildInfo(CompletableFuture<String> buildInfo) {
+		try {
+			return buildInfo.get();
+		}
+		catch (ExecutionException ex) {
+			throw (ex.getCause() instanceof RuntimeException runtimeException) ? runtimeException
+					: new IllegalStateException(ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
 	}
 
 	private void saveBuildInfo(String buildInfo, File buildInfoFile) {
@@ -111,45 +168,70 @@ public class InHandler {
 		if (source.getProxy() != null) {
 			logger.debug("Artifactory server configured to use proxy: {}", source.getProxy());
 		}
-		return this.artifactory.server(source.getUri(), source.getUsername(), source.getPassword(), source.getProxy());
+		return this.artifactory.server(source.getUri(), source.getUsername(), source.getPassword(), source.getProxy(),
+				null, null, source.getTransferLimits());
 	}
 
-	private MultiValueMap<String, DeployedArtifact> groupByRepo(List<DeployedArtifact> artifacts) {
-		MultiValueMap<String, DeployedArtifact> artifactsByRepo = new LinkedMultiValueMap<>();
-		artifacts.stream().forEach((a) -> artifactsByRepo.add(a.getRepo(), a));
-		return artifactsByRepo;
+	private ArtifactCache getCache(Params params) {
+		if (params.getCacheDirectory() == null) {
+			return null;
+		}
+		logger.debug("Using artifact cache {} limited to {} bytes", params.getCacheDirectory(),
+				params.getCacheSizeLimit());
+		return new ArtifactCache(Path.of(params.getCacheDirectory()), params.getCacheSizeLimit());
 	}
 
-	private void download(ArtifactoryServer artifactoryServer, MultiValueMap<String, DeployedArtifact> artifactsByRepo,
-			File destination, boolean downloadChecksums, int threads) {
-		ExecutorService executor = Executors.newFixedThreadPool(threads);
+	private void download(ArtifactoryServer artifactoryServer, Stream<DeployedArtifact> artifacts, File destination,
+			Params params, ConcurrencyLimiter limiter, ArtifactCache cache, FolderCompletionTracker folders,
+			PerformanceSummary summary) {
+		boolean virtualThreads = params.isVirtualThreads();
+		ExecutorService executor = TransferExecutors.create(limiter.getMaxConcurrency(), virtualThreads);
+		summary.setValue("threads", TransferExecutors.getThreadMode(limiter.getMaxConcurrency(), virtualThreads));
+		Consumer<DeployedArtifact> action = (artifact) -> download(artifactoryServer, destination,
+				params.isDownloadChecksums(), cache, artifact.getRepo(), artifact, summary);
+		// Folders are completed once the permit has been released since completing the
+		// last artifact in a folder can generate maven metadata
+		LargestFirstScheduler<DeployedArtifact> scheduler = new LargestFirstScheduler<>(executor, limiter,
+				DeployedArtifact::getSize, action, (artifact) -> folders.complete(artifact.getPath()),
+				params.isContinueOnError(), RetryPolicy.none());
 		try {
-			CompletableFuture
-				.allOf(artifactsByRepo.values()
-					.stream()
-					.flatMap((artifacts) -> artifacts.stream())
-					.map((artifact) -> CompletableFuture.runAsync(() -> download(artifactoryServer, destination,
-							downloadChecksums, artifact.getRepo(), artifact), executor))
-					.toArray(CompletableFuture[]::new))
-				.get();
+			// Artifacts are listed a page at a time so downloads start with the first page
+			// and listing stops if downloads are cancelled
+			long listStart = System.nanoTime();
+			List<CompletableFuture<Void>> downloads = artifacts.takeWhile((artifact) -> !scheduler.isCancelled())
+				.peek((artifact) -> folders.add(artifact.getPath()))
+				.map(scheduler::submit)
+				.toList();
+			summary.recordPhase("list", System.nanoTime() - listStart);
+			folders.seal();
+			CompletableFuture.allOf(downloads.toArray(CompletableFuture[]::new)).get();
+			scheduler.throwIfFailed("download", this::getDescription);
 		}
 		catch (ExecutionException ex) {
 			throw new RuntimeException(ex);
 		}
 		catch (InterruptedException ex) {
+			scheduler.cancel();
 			Thread.currentThread().interrupt();
 		}
 		finally {
 			executor.shutdown();
+			limiter.report(summary);
 		}
 	}
 
-	private void download(ArtifactoryServer artifactoryServer, File destination, boolean downloadChecksums, String repo,
-			DeployedArtifact artifact) {
+	private String getDescription(DeployedArtifact artifact) {
+		return artifact.getRepo() + "/" + artifact.getFullPath();
+	}
+
+	private void download(ArtifactoryServer artifactoryServer, File destination, boolean downloadChecksums,
+			ArtifactCache cache, String repo, DeployedArtifact artifact, PerformanceSummary summary) {
 		console.log("Downloading {}/{} from {}", artifact.getPath(), artifact.getName(), repo);
+		long start = System.nanoTime();
 		artifactoryServer.repository(repo)
 			.download(artifact, destination,
-					downloadChecksums && !DeployableArtifactsSigner.isSignatureFile(artifact.getName()));
+					downloadChecksums && !DeployableArtifactsSigner.isSignatureFile(artifact.getName()), cache);
+		summary.recordTransfer(artifact.getSize(), System.nanoTime() - start);
 	}
 
 }
@@ -0,0 +1,451 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import io.spring.concourse.artifactoryresource.command.ConcurrencyLimiter.Transfer;
+
+/**
+ * Schedules transfers on an {@link Executor} so that the largest pending item is always
+ * started next (longest-processing-time-first). Starting large items early stops a
+ * single big artifact that happens to be submitted last from stretching the total time,
+ * and leaves the small items to fill in gaps as threads become free. Each submitted task
+ * takes whichever pending item is largest when it runs, so items submitted while earlier
+ * transfers are already in progress are still ordered correctly. Items of equal size run
+ * in submission order.
+ * <p>
+ * By default the first failure {@link #cancel() cancels} all remaining work so that a
+ * batch fails fast rather than transferring everything else first. When continuing on
+ * error, failures are instead collected so that they can be reported together once all
+ * items have been processed.
+ * <p>
+ * Items that fail with a transient error can be retried according to a
+ * {@link RetryPolicy}. Retries are deferred rather than waited for on the worker thread
+ * so that healthy items continue to be processed during the backoff. Similarly, an
+ * action can throw a {@link DeferredException} to have its item queued again once some
+ * other work has completed.
+ * <p>
+ * When a {@link ConcurrencyLimiter} is used, each task only takes the largest pending
+ * item once the limiter has granted it a permit. Tasks that are waiting for a permit do
+ * not hold an item, so items submitted while they wait are still ordered correctly.
+ *
+ * @param <T> the item type
+ * @author agent
+ */
+final class LargestFirstScheduler<T> {
+
+	private static final Comparator<Pending<?>> LARGEST_FIRST = Comparator
+		.comparingLong((Pending<?> pending) -> pending.size)
+		.reversed()
+		.thenComparingLong((pending) -> pending.sequence);
+
+	private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+	private final PriorityBlockingQueue<Pending<T>> pending = new PriorityBlockingQueue<>(11, LARGEST_FIRST);
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final Executor executor;
+
+	private final ConcurrencyLimiter limiter;
+
+	private final ToLongFunction<T> size;
+
+	private final Consumer<T> action;
+
+	private final Consumer<T> onProcessed;
+
+	private final boolean continueOnError;
+
+	private final RetryPolicy<T> retryPolicy;
+
+	private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+
+	private final List<Failure<T>> failures = new ArrayList<>();
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Create a new {@link LargestFirstScheduler} instance that cancels remaining work on
+	 * the first failure.
+	 * @param executor the executor used to run the action
+	 * @param size function used to get the size of an item
+	 * @param action the action to run for each item
+	 */
+	LargestFirstScheduler(Executor executor, ToLongFunction<T> size, Consumer<T> action) {
+		this(executor, size, action, false);
+	}
+
+	/**
+	 * Create a new {@link LargestFirstScheduler} instance.
+	 * @param executor the executor used to run the action
+	 * @param size function used to get the size of an item
+	 * @param action the action to run for each item
+	 * @param continueOnError if failures should be collected rather than cancelling
+	 * remaining work
+	 */
+	LargestFirstScheduler(Executor executor, ToLongFunction<T> size, Consumer<T> action, boolean continueOnError) {
+		this(executor, size, action, continueOnError, RetryPolicy.none());
+	}
+
+	/**
+	 * Create a new {@link LargestFirstScheduler} instance.
+	 * @param executor the executor used to run the action
+	 * @param size function used to get the size of an item
+	 * @param action the action to run for each item
+	 * @param continueOnError if failures should be collected rather than cancelling
+	 * remaining work
+	 * @param retryPolicy the policy used to decide if failed items should be retried
+	 */
+	LargestFirstScheduler(Executor executor, ToLongFunction<T> size, Consumer<T> action, boolean continueOnError,
+			RetryPolicy<T> retryPolicy) {
+		this(executor, null, size, action, (item) -> {
+		}, continueOnError, retryPolicy);
+	}
+
+	/**
+	 * Create a new {@link LargestFirstScheduler} instance.
+	 * @param executor the executor used to run the action
+	 * @param limiter the limiter that must grant a permit before an item is taken or
+	 * {@code null}
+	 * @param size function used to get the size of an item
+	 * @param action the action to run for each item while holding the permit
+	 * @param onProcessed the action to run for each item that is processed successfully,
+	 * once the permit has been released
+	 * @param continueOnError if failures should be collected rather than cancelling
+	 * remaining work
+	 * @param retryPolicy the policy used to decide if failed items should be retried
+	 */
+	LargestFirstScheduler(Executor executor, ConcurrencyLimiter limiter, ToLongFunction<T> size, Consumer<T> action,
+			Consumer<T> onProcessed, boolean continueOnError, RetryPolicy<T> retryPolicy) {
+		this.executor = executor;
+		this.limiter = limiter;
+		this.size = size;
+		this.action = action;
+		this.onProcessed = onProcessed;
+		this.continueOnError = continueOnError;
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Submit an item to be processed.
+	 * @param item the item to submit
+	 * @return a future that completes when a task started by this call completes. The
+	 * task may process a different item if a larger one is pending.
+	 */
+	CompletableFuture<Void> submit(T item) {
+		add(item);
+		return run(this.executor);
+	}
+
+	/**
+	 * Submit all the given items to be processed. All items are queued before any
+	 * processing starts so that they run strictly largest first.
+	 * @param items the items to submit
+	 * @return a future that completes when all items have been processed
+	 */
+	CompletableFuture<Void> submitAll(Collection<? extends T> items) {
+		items.forEach(this::add);
+		List<CompletableFuture<Void>> futures = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			futures.add(run(this.executor));
+		}
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+	}
+
+	/**
+	 * Cancel all remaining work. Pending items are discarded and running items are
+	 * interrupted so that their in-flight exchanges are aborted.
+	 */
+	void cancel() {
+		this.cancelled = true;
+		this.pending.clear();
+		for (Thread thread : this.running) {
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Return if work has been cancelled.
+	 * @return if work has been cancelled
+	 */
+	boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * Throw a single exception reporting every failure collected when continuing on
+	 * error. Does nothing if no items have failed.
+	 * @param operation the operation being performed, for example {@code "download"}
+	 * @param description function used to describe a failed item
+	 */
+	void throwIfFailed(String operation, Function<T, String> description) {
+		synchronized (this.failures) {
+			if (this.failures.isEmpty()) {
+				return;
+			}
+			StringBuilder message = new StringBuilder();
+			message.append("Unable to %s %s artifact(s)".formatted(operation, this.failures.size()));
+			for (Failure<T> failure : this.failures) {
+				message.append("%n    %s: %s".formatted(description.apply(failure.item), failure.exception));
+			}
+			IllegalStateException exception = new IllegalStateException(message.toString());
+			this.failures.forEach((failure) -> exception.addSuppressed(failure.exception));
+			throw exception;
+		}
+	}
+
+	private void add(T item) {
+		this.pending.add(new Pending<>(item, this.size.applyAsLong(item), this.sequence.getAndIncrement(), 1));
+	}
+
+	private CompletableFuture<Void> run(Executor executor) {
+		return CompletableFuture.supplyAsync(this::runLargest, executor).thenCompose((retry) -> retry);
+	}
+
+	private CompletableFuture<Void> runLargest() {
+		Thread thread = Thread.currentThread();
+		this.running.add(thread);
+		AtomicReference<Pending<T>> taken = new AtomicReference<>();
+		try {
+			process(taken);
+			Pending<T> pending = taken.get();
+			if (pending != null) {
+				completed(pending, null);
+				this.onProcessed.accept(pending.item);
+			}
+			return COMPLETED;
+		}
+		catch (DeferredException ex) {
+			return requeueWhenComplete(taken.get(), ex.getUntil());
+		}
+		catch (RuntimeException ex) {
+			Pending<T> pending = taken.get();
+			if (pending == null) {
+				throw ex;
+			}
+			Duration retryDelay = getRetryDelay(pending, ex);
+			if (retryDelay != null) {
+				return retryLater(pending, retryDelay);
+			}
+			completed(pending, ex);
+			failed(pending.item, ex);
+			return COMPLETED;
+		}
+		finally {
+			this.running.remove(thread);
+			if (this.cancelled) {
+				Thread.interrupted();
+			}
+		}
+	}
+
+	private void process(AtomicReference<Pending<T>> taken) {
+		Supplier<Transfer> selector = () -> take(taken);
+		if (this.limiter != null) {
+			this.limiter.run(selector);
+			return;
+		}
+		Transfer transfer = selector.get();
+		if (transfer != null) {
+			transfer.run();
+		}
+	}
+
+	private Transfer take(AtomicReference<Pending<T>> taken) {
+		// Each task is submitted after its item was added so the queue is only empty when
+		// work has been cancelled
+		Pending<T> pending = this.pending.poll();
+		if (pending == null) {
+			return null;
+		}
+		taken.set(pending);
+		return new Transfer(pending.size, () -> this.action.accept(pending.item));
+	}
+
+	private void completed(Pending<T> pending, RuntimeException failure) {
+		if (pending.attempt > 1) {
+			this.retryPolicy.completed(pending.item, pending.attempt - 1, failure);
+		}
+	}
+
+	private Duration getRetryDelay(Pending<T> pending, RuntimeException ex) {
+		return (!this.cancelled) ? this.retryPolicy.getRetryDelay(pending.item, ex, pending.attempt) : null;
+	}
+
+	private CompletableFuture<Void> retryLater(Pending<T> pending, Duration delay) {
+		// The item is only queued again once the delay has passed so that the worker
+		// thread is free to process other items in the meantime
+		Executor delayedExecutor = CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS,
+				this.executor);
+		return CompletableFuture.runAsync(() -> {
+			if (!this.cancelled) {
+				this.pending.add(pending.retry(this.sequence.getAndIncrement()));
+			}
+		}, delayedExecutor).thenCompose((queued) -> run(this.executor));
+	}
+
+	private CompletableFuture<Void> requeueWhenComplete(Pending<T> pending, CompletableFuture<?> until) {
+		// The item is only queued again once the work it depends on is complete so that
+		// the worker thread and its permit are free in the meantime
+		return until.handle((result, ex) -> result).thenCompose((completed) -> {
+			if (!this.cancelled) {
+				this.pending.add(pending.requeue(this.sequence.getAndIncrement()));
+			}
+			return run(this.executor);
+		});
+	}
+
+	private void failed(T item, RuntimeException ex) {
+		if (this.continueOnError) {
+			synchronized (this.failures) {
+				this.failures.add(new Failure<>(item, ex));
+			}
+			return;
+		}
+		if (this.cancelled) {
+			// Failures caused by cancellation are expected
+			return;
+		}
+		cancel();
+		throw ex;
+	}
+
+	/**
+	 * An item waiting to be processed.
+	 *
+	 * @param <T> the item type
+	 */
+	private static final class Pending<T> {
+
+		private final T item;
+
+		private final long size;
+
+		private final long sequence;
+
+		private final int attempt;
+
+		Pending(T item, long size, long sequence, int attempt) {
+			this.item = item;
+			this.size = size;
+			this.sequence = sequence;
+			this.attempt = attempt;
+		}
+
+		Pending<T> retry(long sequence) {
+			return new Pending<>(this.item, this.size, sequence, this.attempt + 1);
+		}
+
+		Pending<T> requeue(long sequence) {
+			return new Pending<>(this.item, this.size, sequence, this.attempt);
+		}
+
+	}
+
+	/**
+	 * Policy used to decide if a failed item should be retried.
+	 *
+	 * @param <T> the item type
+	 */
+	interface RetryPolicy<T> {
+
+		/**
+		 * Return the delay before the given failed item is retried.
+		 * @param item the item that failed
+		 * @param ex the failure
+		 * @param attempt the number of attempts made so far
+		 * @return the retry delay or {@code null} if the item should not be retried
+		 */
+		Duration getRetryDelay(T item, RuntimeException ex, int attempt);
+
+		/**
+		 * Called with the final outcome of an item that has been retried.
+		 * @param item the item
+		 * @param retries the number of retries made
+		 * @param failure the final failure or {@code null} if the item succeeded
+		 */
+		default void completed(T item, int retries, RuntimeException failure) {
+		}
+
+		/**
+		 * Return a policy that never retries.
+		 * @param <T> the item type
+		 * @return a policy that never retries
+		 */
+		static <T> RetryPolicy<T> none() {
+			return (item, ex, attempt) -> null;
+		}
+
+	}
+
+	/**
+	 * Exception thrown by an action to defer its item until other work has completed.
+	 * The item is queued again once the given future completes, without counting as a
+	 * retry.
+	 */
+	static final class DeferredException extends RuntimeException {
+
+		private final CompletableFuture<?> until;
+
+		DeferredException(String message, CompletableFuture<?> until) {
+			super(message, null, false, false);
+			this.until = until;
+		}
+
+		CompletableFuture<?> getUntil() {
+			return this.until;
+		}
+
+	}
+
+	/**
+	 * An item that failed to be processed.
+	 *
+	 * @param <T> the item type
+	 */
+	private static final class Failure<T> {
+
+		private final T item;
+
+		private final RuntimeException exception;
+
+		Failure(T item, RuntimeException exception) {
+			this.item = item;
+			this.exception = exception;
+		}
+
+	}
+
+}
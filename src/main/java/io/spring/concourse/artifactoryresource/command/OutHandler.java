@@ -20,7 +20,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -32,8 +34,6 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -42,10 +42,14 @@ import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryRepository
 import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryServer;
 import io.spring.concourse.artifactoryresource.artifactory.BuildNumber;
 import io.spring.concourse.artifactoryresource.artifactory.DeployOption;
+import io.spring.concourse.artifactoryresource.artifactory.RetryableDeployException;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildModule;
+import io.spring.concourse.artifactoryresource.artifactory.payload.Checksums;
 import io.spring.concourse.artifactoryresource.artifactory.payload.ContinuousIntegrationAgent;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableArtifact;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableFileArtifact;
+import io.spring.concourse.artifactoryresource.artifactory.payload.PropertiesInterner;
+import io.spring.concourse.artifactoryresource.command.LargestFirstScheduler.RetryPolicy;
 import io.spring.concourse.artifactoryresource.command.payload.OutRequest;
 import io.spring.concourse.artifactoryresource.command.payload.OutRequest.ArtifactSet;
 import io.spring.concourse.artifactoryresource.command.payload.OutRequest.Params;
@@ -88,9 +92,15 @@ public class OutHandler {
 	private static final Set<String> METADATA_FILES = Collections
 		.unmodifiableSet(new HashSet<>(Arrays.asList("maven-metadata.xml", "maven-metadata-local.xml")));
 
-	private static final DeployOption[] NO_DEPLOY_OPTIONS = {};
+	private static final DeployOption[] DEFAULT_DEPLOY_OPTIONS = { DeployOption.DEFER_RETRIES };
 
-	private static final DeployOption[] DISABLE_CHECKSUM_UPLOADS = { DeployOption.DISABLE_CHECKSUM_UPLOADS };
+	private static final DeployOption[] DISABLE_CHECKSUM_UPLOADS = { DeployOption.DISABLE_CHECKSUM_UPLOADS,
+			DeployOption.DEFER_RETRIES };
+
+	private static final DeployOption[] FORCE_CHECKSUM_UPLOADS = { DeployOption.FORCE_CHECKSUM_UPLOADS,
+			DeployOption.DEFER_RETRIES };
+
+	private static final int MAX_DEPLOY_ATTEMPTS = 3;
 
 	private static final Logger logger = LoggerFactory.getLogger(OutHandler.class);
 
@@ -113,29 +123,50 @@ public class OutHandler {
 	}
 
 	public OutResponse handle(OutRequest request, Directory directory) {
+		return handle(request, directory, null);
+	}
+
+	/**
+	 * Handle the request, saving the performance summary to the given file. The
+	 * {@code out} directory is discarded by Concourse so the summary is only saved when
+	 * the caller provides a location that it will read.
+	 * @param request the request
+	 * @param directory the directory containing the artifacts to deploy
+	 * @param performanceSummaryFile the file used to save the performance summary or
+	 * {@code null}
+	 * @return the response
+	 */
+	OutResponse handle(OutRequest request, Directory directory, File performanceSummaryFile) {
 		Source source = request.getSource();
 		Params params = request.getParams();
 		DebugLogging.setEnabled(params.isDebug());
 		Assert.state(!directory.isEmpty(), "No artifacts found in empty directory");
+		PerformanceSummary summary = new PerformanceSummary();
 		BuildNumber buildNumber = BuildNumber.of(source.getBuildNumberPrefix(), getOrGenerateBuildNumber(params));
 		Instant started = Instant.now();
 		ArtifactoryServer artifactoryServer = getArtifactoryServer(source);
-		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = getBatchedArtifacts(buildNumber, started, source,
-				params, directory);
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = summary.phase("scan",
+				() -> getBatchedArtifacts(buildNumber, started, source, params, directory));
 		if (StringUtils.hasText(params.getSigningKey())) {
 			Map<String, String> properties = new LinkedHashMap<>();
 			addBuildProperties(buildNumber, started, source, properties);
-			batchedArtifacts = signArtifacts(batchedArtifacts, params.getSigningKey(), params.getSigningPassphrase(),
-					Collections.unmodifiableMap(properties));
+			MultiValueMap<Category, DeployableArtifact> unsigned = batchedArtifacts;
+			batchedArtifacts = summary.phase("sign", () -> signArtifacts(unsigned, params.getSigningKey(),
+					params.getSigningPassphrase(), Collections.unmodifiableMap(properties)));
 		}
 		int size = batchedArtifacts.values().stream().mapToInt(List::size).sum();
 		Assert.state(size > 0, "No artifacts found to deploy");
 		console.log("Deploying {} artifacts to {} as build {} using {} thread(s)", size, source.getUri(), buildNumber,
 				params.getThreads());
-		deployArtifacts(artifactoryServer, params, batchedArtifacts);
-		addBuildRun(artifactoryServer, source, params, buildNumber, started, batchedArtifacts);
+		deployArtifacts(artifactoryServer, params, batchedArtifacts, summary);
+		MultiValueMap<Category, DeployableArtifact> deployedArtifacts = batchedArtifacts;
+		summary.phase("build-info",
+				() -> addBuildRun(artifactoryServer, source, params, buildNumber, started, deployedArtifacts));
+		if (performanceSummaryFile != null) {
+			summary.save(performanceSummaryFile);
+		}
 		logger.debug("Done");
-		return new OutResponse(new Version(buildNumber.toString(), started));
+		return new OutResponse(new Version(buildNumber.toString(), started), summary.getMetadata());
 	}
 
 	private ArtifactoryServer getArtifactoryServer(Source source) {
@@ -143,7 +174,8 @@ public class OutHandler {
 		if (source.getProxy() != null) {
 			logger.debug("Artifactory server configured to use proxy: {}", source.getProxy());
 		}
-		return this.artifactory.server(source.getUri(), source.getUsername(), source.getPassword(), source.getProxy());
+		return this.artifactory.server(source.getUri(), source.getUsername(), source.getPassword(), source.getProxy(),
+				null, null, source.getTransferLimits());
 	}
 
 	private String getOrGenerateBuildNumber(Params params) {
@@ -162,14 +194,18 @@ public class OutHandler {
 		FileSet fileSet = this.directoryScanner.scan(root, params.getInclude(), params.getExclude())
 			.filter(getChecksumFilter())
 			.filter(getMetadataFilter(params));
+		List<ArtifactSetMatcher> artifactSetMatchers = getArtifactSetMatchers(params);
+		Map<String, String> buildProperties = new LinkedHashMap<>();
+		addBuildProperties(buildNumber, started, source, buildProperties);
+		PropertiesInterner propertiesInterner = new PropertiesInterner();
 		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
 		Set<String> paths = new HashSet<>();
 		fileSet.batchedByCategory().forEach((category, files) -> {
 			files.forEach((file) -> {
 				String path = DeployableFileArtifact.calculatePath(root.getFile(), file);
 				logger.debug("Including file {} with path {}", file, path);
-				Map<String, String> properties = getDeployableArtifactProperties(path, buildNumber, started, source,
-						params);
+				Map<String, String> properties = propertiesInterner
+					.intern(getDeployableArtifactProperties(path, artifactSetMatchers, buildProperties));
 				if (params.isStripSnapshotTimestamps()) {
 					path = stripSnapshotTimestamp(path);
 				}
@@ -178,30 +214,34 @@ public class OutHandler {
 				}
 			});
 		});
+		logger.debug("Using {} distinct property sets", propertiesInterner.size());
 		return batchedArtifacts;
 	}
 
-	private Map<String, String> getDeployableArtifactProperties(String path, BuildNumber buildNumber, Instant started,
-			Source source, Params params) {
-		Map<String, String> properties = new LinkedHashMap<>();
-		addArtifactSetProperties(path, params, properties);
-		addBuildProperties(buildNumber, started, source, properties);
-		return properties;
-	}
-
-	private void addArtifactSetProperties(String path, Params params, Map<String, String> properties) {
+	private List<ArtifactSetMatcher> getArtifactSetMatchers(Params params) {
+		List<ArtifactSetMatcher> matchers = new ArrayList<>(params.getArtifactSet().size());
 		for (ArtifactSet artifactSet : params.getArtifactSet()) {
-			if (getFilter(artifactSet).isMatch(path)) {
-				logger.debug("Artifact set matched, adding properties {}", artifactSet.getProperties());
-				properties.putAll(artifactSet.getProperties());
-			}
+			logger.debug("Creating artifact set filter including {} and excluding {}", artifactSet.getInclude(),
+					artifactSet.getExclude());
+			matchers.add(new ArtifactSetMatcher(artifactSet));
 		}
+		return matchers;
 	}
 
-	private PathFilter getFilter(ArtifactSet artifactSet) {
-		logger.debug("Creating artifact set filter including {} and excluding {}", artifactSet.getInclude(),
-				artifactSet.getExclude());
-		return new PathFilter(artifactSet.getInclude(), artifactSet.getExclude());
+	private Map<String, String> getDeployableArtifactProperties(String path,
+			List<ArtifactSetMatcher> artifactSetMatchers, Map<String, String> buildProperties) {
+		if (artifactSetMatchers.isEmpty()) {
+			return buildProperties;
+		}
+		Map<String, String> properties = new LinkedHashMap<>();
+		for (ArtifactSetMatcher artifactSetMatcher : artifactSetMatchers) {
+			if (artifactSetMatcher.isMatch(path)) {
+				logger.debug("Artifact set matched, adding properties {}", artifactSetMatcher.getProperties());
+				properties.putAll(artifactSetMatcher.getProperties());
+			}
+		}
+		properties.putAll(buildProperties);
+		return properties;
 	}
 
 	private void addBuildProperties(BuildNumber buildNumber, Instant started, Source source,
@@ -235,49 +275,79 @@ public class OutHandler {
 	}
 
 	private void deployArtifacts(ArtifactoryServer artifactoryServer, Params params,
-			MultiValueMap<Category, DeployableArtifact> batchedArtifacts) {
+			MultiValueMap<Category, DeployableArtifact> batchedArtifacts, PerformanceSummary summary) {
 		logger.debug("Deploying artifacts to {}", params.getRepo());
 		ArtifactoryRepository artifactoryRepository = artifactoryServer.repository(params.getRepo());
-		DeployOption[] options = params.isDisableChecksumUploads() ? DISABLE_CHECKSUM_UPLOADS : NO_DEPLOY_OPTIONS;
-		ExecutorService executor = Executors.newFixedThreadPool(params.getThreads());
-		Function<DeployableArtifact, CompletableFuture<?>> deployer = (deployableArtifact) -> getArtifactDeployer(
-				artifactoryRepository, options, deployableArtifact);
+		DeployOption[] options = params.isDisableChecksumUploads() ? DISABLE_CHECKSUM_UPLOADS : DEFAULT_DEPLOY_OPTIONS;
+		UploadDeduplicator deduplicator = (!params.isDisableChecksumUploads()) ? new UploadDeduplicator() : null;
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.get(params.getThreads(), params.getAdaptiveConcurrency(),
+				params.getMaxInFlightBytes());
+		ExecutorService executor = TransferExecutors.create(limiter.getMaxConcurrency(), params.isVirtualThreads());
+		summary.setValue("threads", TransferExecutors.getThreadMode(limiter.getMaxConcurrency(),
+				params.isVirtualThreads()));
+		LargestFirstScheduler<DeployableArtifact> scheduler = new LargestFirstScheduler<>(executor, limiter,
+				DeployableArtifact::getSize,
+				(deployableArtifact) -> deployArtifact(artifactoryRepository, deployableArtifact, options, deduplicator,
+						summary),
+				(deployableArtifact) -> {
+				}, params.isContinueOnError(), new DeployRetryPolicy(summary));
 		try {
-			batchedArtifacts.forEach((category, artifacts) -> deploy(category, artifacts, deployer));
+			batchedArtifacts.forEach((category, artifacts) -> summary.phase(getPhaseName(category),
+					() -> deploy(category, artifacts, scheduler)));
+			scheduler.throwIfFailed("deploy", DeployableArtifact::getPath);
 		}
 		finally {
 			executor.shutdown();
+			limiter.report(summary);
 		}
 	}
 
+	private String getPhaseName(Category category) {
+		return "deploy " + category.name().toLowerCase().replace('_', '-');
+	}
+
 	private void deploy(Category category, List<DeployableArtifact> artifacts,
-			Function<DeployableArtifact, CompletableFuture<?>> deployer) {
+			LargestFirstScheduler<DeployableArtifact> scheduler) {
 		logger.debug("Deploying {} artifacts", category);
-		deploy(artifacts.stream().map(deployer).toArray(CompletableFuture[]::new));
+		deploy(scheduler.submitAll(artifacts), scheduler);
 	}
 
-	private void deploy(CompletableFuture<?>[] batch) {
+	private void deploy(CompletableFuture<?> batch, LargestFirstScheduler<DeployableArtifact> scheduler) {
 		try {
-			CompletableFuture.allOf(batch).get();
+			batch.get();
 		}
 		catch (ExecutionException ex) {
 			throw new RuntimeException(ex);
 		}
 		catch (InterruptedException ex) {
+			scheduler.cancel();
 			Thread.currentThread().interrupt();
 		}
 	}
 
-	private CompletableFuture<?> getArtifactDeployer(ArtifactoryRepository artifactoryRepository,
-			DeployOption[] options, DeployableArtifact deployableArtifact) {
-		return CompletableFuture.runAsync(() -> deployArtifact(artifactoryRepository, deployableArtifact, options));
-	}
-
 	private void deployArtifact(ArtifactoryRepository artifactoryRepository, DeployableArtifact deployableArtifact,
-			DeployOption[] options) {
+			DeployOption[] options, UploadDeduplicator deduplicator, PerformanceSummary summary) {
+		long hashStart = System.nanoTime();
+		Checksums checksums = deployableArtifact.getChecksums();
+		summary.recordHash(System.nanoTime() - hashStart);
 		console.log("Deploying {} {} ({}/{})", deployableArtifact.getPath(), deployableArtifact.getProperties(),
-				deployableArtifact.getChecksums().getSha1(), deployableArtifact.getChecksums().getMd5());
-		artifactoryRepository.deploy(deployableArtifact, options);
+				checksums.getSha1(), checksums.getMd5());
+		long deployStart = System.nanoTime();
+		Runnable contentDeployer = () -> artifactoryRepository.deploy(deployableArtifact, options);
+		if (deduplicator == null || deployableArtifact.getSize() == 0) {
+			contentDeployer.run();
+			summary.recordTransfer(deployableArtifact.getSize(), System.nanoTime() - deployStart);
+			return;
+		}
+		// Identical content in progress defers the artifact rather than waiting so that the
+		// permit does not block other transfers or skew the adaptive latency baseline
+		boolean deduplicated = deduplicator.deploy(checksums.getSha1(), contentDeployer,
+				() -> artifactoryRepository.deploy(deployableArtifact, FORCE_CHECKSUM_UPLOADS));
+		if (deduplicated) {
+			logger.debug("Deployed {} using checksums of identical content", deployableArtifact.getPath());
+			summary.increment("deduplicated uploads");
+		}
+		summary.recordTransfer((!deduplicated) ? deployableArtifact.getSize() : 0, System.nanoTime() - deployStart);
 	}
 
 	private Predicate<File> getMetadataFilter(Params params) {
@@ -341,4 +411,76 @@ public class OutHandler {
 		return properties;
 	}
 
+	/**
+	 * {@link RetryPolicy} that defers retries of artifacts that fail to deploy with a
+	 * transient error and reports the outcome of each retried artifact.
+	 */
+	private static final class DeployRetryPolicy implements RetryPolicy<DeployableArtifact> {
+
+		private final PerformanceSummary summary;
+
+		DeployRetryPolicy(PerformanceSummary summary) {
+			this.summary = summary;
+		}
+
+		@Override
+		public Duration getRetryDelay(DeployableArtifact artifact, RuntimeException ex, int attempt) {
+			RetryableDeployException retryable = getRetryableCause(ex);
+			if (retryable == null || attempt >= MAX_DEPLOY_ATTEMPTS) {
+				return null;
+			}
+			Duration retryDelay = retryable.getRetryDelay();
+			console.log("{} for {}. Retrying in {}ms (attempt {} of {}).", retryable.getMessage(),
+					artifact.getPath(), retryDelay.toMillis(), attempt + 1, MAX_DEPLOY_ATTEMPTS);
+			this.summary.increment("deploy retries");
+			return retryDelay;
+		}
+
+		@Override
+		public void completed(DeployableArtifact artifact, int retries, RuntimeException failure) {
+			if (failure != null) {
+				console.log("Unable to deploy {} after {} retries", artifact.getPath(), retries);
+				this.summary.increment("retried deploys failed");
+				return;
+			}
+			console.log("Deployed {} after {} retries", artifact.getPath(), retries);
+			this.summary.increment("retried deploys succeeded");
+		}
+
+		private RetryableDeployException getRetryableCause(Throwable ex) {
+			while (ex != null) {
+				if (ex instanceof RetryableDeployException retryable) {
+					return retryable;
+				}
+				ex = ex.getCause();
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * An {@link ArtifactSet} with a compiled {@link PathFilter}.
+	 */
+	private static final class ArtifactSetMatcher {
+
+		private final PathFilter filter;
+
+		private final Map<String, String> properties;
+
+		ArtifactSetMatcher(ArtifactSet artifactSet) {
+			this.filter = new PathFilter(artifactSet.getInclude(), artifactSet.getExclude());
+			this.properties = artifactSet.getProperties();
+		}
+
+		boolean isMatch(String path) {
+			return this.filter.isMatch(path);
+		}
+
+		Map<String, String> getProperties() {
+			return this.properties;
+		}
+
+	}
+
 }
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.spring.concourse.artifactoryresource.command.payload.Metadata;
+
+/**
+ * Collects timings and transfer statistics for a single {@code in} or {@code out} run
+ * so that they can be reported as Concourse metadata.
+ *
+ * @author agent
+ */
+class PerformanceSummary {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	private static final double[] PERCENTILES = { 50, 95, 99 };
+
+	private final long started = System.nanoTime();
+
+	private final Map<String, Long> phases = new LinkedHashMap<>();
+
+	private final Map<String, Long> counters = new LinkedHashMap<>();
+
+	private final Map<String, Object> values = new LinkedHashMap<>();
+
+	private final LongAdder transfers = new LongAdder();
+
+	private final LongAdder bytes = new LongAdder();
+
+	private final LongAdder transferNanos = new LongAdder();
+
+	private final LongAdder hashNanos = new LongAdder();
+
+	private final Histogram latencies = new Histogram();
+
+	/**
+	 * Run the given action as a named phase, recording how long it takes.
+	 * @param name the phase name
+	 * @param action the action to run
+	 */
+	void phase(String name, Runnable action) {
+		phase(name, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Run the given action as a named phase, recording how long it takes.
+	 * @param <T> the result type
+	 * @param name the phase name
+	 * @param action the action to run
+	 * @return the result of the action
+	 */
+	<T> T phase(String name, Supplier<T> action) {
+		long start = System.nanoTime();
+		try {
+			return action.get();
+		}
+		finally {
+			recordPhase(name, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Record the time taken by a named phase. Phases recorded more than once accumulate.
+	 * @param name the phase name
+	 * @param nanos the time taken in nanoseconds
+	 */
+	void recordPhase(String name, long nanos) {
+		synchronized (this.phases) {
+			this.phases.merge(name, nanos, Long::sum);
+		}
+	}
+
+	/**
+	 * Record a completed artifact transfer.
+	 * @param bytes the number of bytes transferred
+	 * @param nanos the time taken in nanoseconds
+	 */
+	void recordTransfer(long bytes, long nanos) {
+		this.transfers.increment();
+		this.bytes.add(Math.max(bytes, 0));
+		this.transferNanos.add(nanos);
+		this.latencies.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+	}
+
+	/**
+	 * Record time spent calculating checksums.
+	 * @param nanos the time taken in nanoseconds
+	 */
+	void recordHash(long nanos) {
+		this.hashNanos.add(nanos);
+	}
+
+	/**
+	 * Increment a named counter.
+	 * @param name the counter name
+	 */
+	void increment(String name) {
+		add(name, 1);
+	}
+
+	/**
+	 * Add to a named counter.
+	 * @param name the counter name
+	 * @param delta the amount to add
+	 */
+	void add(String name, long delta) {
+		synchronized (this.counters) {
+			this.counters.merge(name, delta, Long::sum);
+		}
+	}
+
+	/**
+	 * Set a named value to include in the summary.
+	 * @param name the value name
+	 * @param value the value
+	 */
+	void setValue(String name, Object value) {
+		synchronized (this.values) {
+			this.values.put(name, value);
+		}
+	}
+
+	/**
+	 * Return the summary as Concourse metadata.
+	 * @return the metadata
+	 */
+	List<Metadata> getMetadata() {
+		List<Metadata> metadata = new ArrayList<>();
+		long elapsed = System.nanoTime() - this.started;
+		metadata.add(new Metadata("total time", formatNanos(elapsed)));
+		forEachPhase((name, nanos) -> metadata.add(new Metadata(name + " time", formatNanos(nanos))));
+		long transfers = this.transfers.sum();
+		if (transfers > 0) {
+			long bytes = this.bytes.sum();
+			metadata.add(new Metadata("transfers", Long.toString(transfers)));
+			metadata.add(new Metadata("bytes", formatBytes(bytes)));
+			metadata.add(new Metadata("throughput", formatBytes(bytesPerSecond(bytes, elapsed)) + "/s"));
+			metadata.add(new Metadata("latency", formatLatencies()));
+		}
+		if (this.hashNanos.sum() > 0) {
+			metadata.add(new Metadata("hash time", formatNanos(this.hashNanos.sum())));
+		}
+		forEachCounter((name, value) -> metadata.add(new Metadata(name, Long.toString(value))));
+		synchronized (this.values) {
+			this.values.forEach((name, value) -> metadata.add(new Metadata(name, String.valueOf(value))));
+		}
+		return metadata;
+	}
+
+	/**
+	 * Save the summary as JSON to the given file.
+	 * @param file the destination file
+	 */
+	void save(File file) {
+		Map<String, Object> json = new LinkedHashMap<>();
+		long elapsed = System.nanoTime() - this.started;
+		json.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(elapsed));
+		Map<String, Long> phases = new LinkedHashMap<>();
+		forEachPhase((name, nanos) -> phases.put(name, TimeUnit.NANOSECONDS.toMillis(nanos)));
+		json.put("phaseMillis", phases);
+		json.put("hashMillis", TimeUnit.NANOSECONDS.toMillis(this.hashNanos.sum()));
+		json.put("transfers", this.transfers.sum());
+		json.put("bytes", this.bytes.sum());
+		json.put("throughputBytesPerSecond", bytesPerSecond(this.bytes.sum(), elapsed));
+		json.put("transferMillis", TimeUnit.NANOSECONDS.toMillis(this.transferNanos.sum()));
+		Map<String, Double> latency = new LinkedHashMap<>();
+		for (double percentile : PERCENTILES) {
+			latency.put("p" + (int) percentile, this.latencies.getValueAtPercentile(percentile) / 1000.0);
+		}
+		json.put("latencyMillis", latency);
+		Map<String, Long> counters = new LinkedHashMap<>();
+		forEachCounter(counters::put);
+		json.put("counters", counters);
+		synchronized (this.values) {
+			json.put("values", new LinkedHashMap<>(this.values));
+		}
+		try {
+			objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, json);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to save performance summary to '" + file + "'", ex);
+		}
+	}
+
+	private void forEachPhase(NamedValueConsumer consumer) {
+		synchronized (this.phases) {
+			this.phases.forEach(consumer::accept);
+		}
+	}
+
+	private void forEachCounter(NamedValueConsumer consumer) {
+		synchronized (this.counters) {
+			this.counters.forEach(consumer::accept);
+		}
+	}
+
+	private String formatLatencies() {
+		StringBuilder result = new StringBuilder();
+		for (double percentile : PERCENTILES) {
+			result.append((!result.isEmpty()) ? ", " : "");
+			result.append("p").append((int) percentile).append(" ");
+			result.append(formatNanos(TimeUnit.MICROSECONDS.toNanos(this.latencies.getValueAtPercentile(percentile))));
+		}
+		return result.toString();
+	}
+
+	private static long bytesPerSecond(long bytes, long nanos) {
+		return (nanos > 0) ? (long) (bytes / (nanos / 1_000_000_000.0)) : 0;
+	}
+
+	static String formatNanos(long nanos) {
+		if (nanos < 1_000_000_000L) {
+			return "%.1fms".formatted(nanos / 1_000_000.0);
+		}
+		return "%.2fs".formatted(nanos / 1_000_000_000.0);
+	}
+
+	static String formatBytes(long bytes) {
+		String[] units = { "B", "KB", "MB", "GB", "TB" };
+		double value = bytes;
+		int unit = 0;
+		while (value >= 1024 && unit < units.length - 1) {
+			value /= 1024;
+			unit++;
+		}
+		return (unit != 0) ? "%.1f %s".formatted(value, units[unit]) : bytes + " B";
+	}
+
+	/**
+	 * Callback used to iterate named values.
+	 */
+	@FunctionalInterface
+	private interface NamedValueConsumer {
+
+		void accept(String name, long value);
+
+	}
+
+	/**
+	 * Lock-free log-linear histogram in the style of HdrHistogram. Values are grouped by
+	 * power of two with 32 linear sub-buckets each, giving roughly 3% precision with a
+	 * fixed memory footprint.
+	 */
+	static class Histogram {
+
+		private static final int SUB_BUCKET_BITS = 5;
+
+		private static final int SUB_BUCKET_MASK = (1 << SUB_BUCKET_BITS) - 1;
+
+		private final AtomicLongArray counts = new AtomicLongArray(64 << SUB_BUCKET_BITS);
+
+		private final LongAdder total = new LongAdder();
+
+		void record(long value) {
+			this.counts.incrementAndGet(indexOf(Math.max(value, 0)));
+			this.total.increment();
+		}
+
+		long getValueAtPercentile(double percentile) {
+			long total = this.total.sum();
+			if (total == 0) {
+				return 0;
+			}
+			long target = Math.max(1, (long) Math.ceil((percentile / 100.0) * total));
+			long cumulative = 0;
+			for (int i = 0; i < this.counts.length(); i++) {
+				cumulative += this.counts.get(i);
+				if (cumulative >= target) {
+					return valueOf(i);
+				}
+			}
+			return valueOf(this.counts.length() - 1);
+		}
+
+		static int indexOf(long value) {
+			if (value <= SUB_BUCKET_MASK) {
+				return (int) value;
+			}
+			int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+			int subBucket = (int) (value >>> shift) & SUB_BUCKET_MASK;
+			return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+		}
+
+		static long valueOf(int index) {
+			int shift = (index >>> SUB_BUCKET_BITS) - 1;
+			if (shift < 0) {
+				return index;
+			}
+			return ((long) ((1 << SUB_BUCKET_BITS) | (index & SUB_BUCKET_MASK))) << shift;
+		}
+
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.util.Assert;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Generates a synthetic Maven repository tree that can be used to measure deploy and
+ * download throughput. Each module contains a POM, a main jar and a jar per classifier
+ * with sizes following a log-uniform distribution between the configured bounds.
+ *
+ * @author agent
+ */
+class SyntheticMavenRepository {
+
+	private static final String GROUP_PATH = "com/example/";
+
+	private static final String VERSION = "1.0.0-SNAPSHOT";
+
+	private static final String TIMESTAMP_VERSION = "1.0.0-20240101.123456-1";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final int modules;
+
+	private final int minFileSize;
+
+	private final int maxFileSize;
+
+	private final List<String> classifiers;
+
+	private final long seed;
+
+	SyntheticMavenRepository(int modules, int minFileSize, int maxFileSize, List<String> classifiers, long seed) {
+		Assert.isTrue(modules > 0, "Modules must be positive");
+		Assert.isTrue(minFileSize > 0, "Min file size must be positive");
+		Assert.isTrue(maxFileSize >= minFileSize, "Max file size must not be less than min file size");
+		this.modules = modules;
+		this.minFileSize = minFileSize;
+		this.maxFileSize = maxFileSize;
+		this.classifiers = (classifiers != null) ? Collections.unmodifiableList(new ArrayList<>(classifiers))
+				: Collections.emptyList();
+		this.seed = seed;
+	}
+
+	/**
+	 * Generate the repository under the given root directory.
+	 * @param root the root directory
+	 * @return details of the generated contents
+	 * @throws IOException on IO error
+	 */
+	Contents generate(File root) throws IOException {
+		Random random = new Random(this.seed);
+		Contents contents = new Contents();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		for (int module = 0; module < this.modules; module++) {
+			String artifactId = "module-" + module;
+			File folder = new File(root, GROUP_PATH + artifactId + "/" + VERSION);
+			Assert.state(folder.isDirectory() || folder.mkdirs(), () -> "Unable to create folder " + folder);
+			String prefix = artifactId + "-" + TIMESTAMP_VERSION;
+			contents.add(writePom(new File(folder, prefix + ".pom"), artifactId));
+			contents.add(writeRandom(new File(folder, prefix + ".jar"), nextFileSize(random), random, buffer));
+			for (String classifier : this.classifiers) {
+				File file = new File(folder, prefix + "-" + classifier + ".jar");
+				contents.add(writeRandom(file, nextFileSize(random), random, buffer));
+			}
+		}
+		return contents;
+	}
+
+	private long writePom(File file, String artifactId) throws IOException {
+		String pom = """
+				<?xml version="1.0" encoding="UTF-8"?>
+				<project xmlns="http://maven.apache.org/POM/4.0.0">
+					<modelVersion>4.0.0</modelVersion>
+					<groupId>com.example</groupId>
+					<artifactId>%s</artifactId>
+					<version>%s</version>
+				</project>
+				""".formatted(artifactId, VERSION);
+		byte[] bytes = pom.getBytes(StandardCharsets.UTF_8);
+		FileCopyUtils.copy(bytes, file);
+		return bytes.length;
+	}
+
+	private long writeRandom(File file, int size, Random random, byte[] buffer) throws IOException {
+		try (OutputStream outputStream = new FileOutputStream(file)) {
+			int remaining = size;
+			while (remaining > 0) {
+				int length = Math.min(remaining, buffer.length);
+				random.nextBytes(buffer);
+				outputStream.write(buffer, 0, length);
+				remaining -= length;
+			}
+		}
+		return size;
+	}
+
+	private int nextFileSize(Random random) {
+		if (this.minFileSize == this.maxFileSize) {
+			return this.minFileSize;
+		}
+		double logMin = Math.log(this.minFileSize);
+		double logMax = Math.log(this.maxFileSize);
+		long size = Math.round(Math.exp(logMin + random.nextDouble() * (logMax - logMin)));
+		return (int) Math.max(this.minFileSize, Math.min(this.maxFileSize, size));
+	}
+
+	/**
+	 * Details of generated repository contents.
+	 */
+	static class Contents {
+
+		private long files;
+
+		private long bytes;
+
+		private void add(long size) {
+			this.files++;
+			this.bytes += size;
+		}
+
+		long getFiles() {
+			return this.files;
+		}
+
+		long getBytes() {
+			return this.bytes;
+		}
+
+	}
+
+}
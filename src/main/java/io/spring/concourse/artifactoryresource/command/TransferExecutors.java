@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.spring.concourse.artifactoryresource.system.ConsoleLogger;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Factory used to create the {@link ExecutorService} that runs artifact transfers. When
+ * requested and supported by the runtime each transfer runs on its own virtual thread,
+ * otherwise a fixed pool of platform threads is used. Virtual threads are created
+ * reflectively so that the resource can still run on Java 17. Earlier releases where
+ * virtual threads were a preview feature are treated as unsupported.
+ *
+ * @author agent
+ * @see ConcurrencyLimiter
+ */
+final class TransferExecutors {
+
+	private static final ConsoleLogger console = new ConsoleLogger();
+
+	private static final int VIRTUAL_THREADS_FEATURE_VERSION = 21;
+
+	private static final Method newVirtualThreadPerTaskExecutor = findNewVirtualThreadPerTaskExecutor();
+
+	private TransferExecutors() {
+	}
+
+	/**
+	 * Create a new {@link ExecutorService} for transfers. Virtual thread executors do not
+	 * limit concurrency, callers are expected to use a {@link ConcurrencyLimiter}.
+	 * @param threads the number of platform threads to use
+	 * @param virtualThreads if virtual threads should be used when supported
+	 * @return a new executor service
+	 */
+	static ExecutorService create(int threads, boolean virtualThreads) {
+		if (virtualThreads) {
+			if (isVirtualThreadsSupported()) {
+				return (ExecutorService) ReflectionUtils.invokeMethod(newVirtualThreadPerTaskExecutor, null);
+			}
+			console.log("Virtual threads are not supported by this runtime, using {} platform thread(s)", threads);
+		}
+		return Executors.newFixedThreadPool(threads);
+	}
+
+	/**
+	 * Return a description of the threads that {@link #create(int, boolean)} will use.
+	 * @param threads the number of platform threads to use
+	 * @param virtualThreads if virtual threads should be used when supported
+	 * @return a description of the thread mode
+	 */
+	static String getThreadMode(int threads, boolean virtualThreads) {
+		return (virtualThreads && isVirtualThreadsSupported()) ? "virtual" : "platform " + threads;
+	}
+
+	/**
+	 * Return if the runtime supports virtual threads.
+	 * @return if virtual threads are supported
+	 */
+	static boolean isVirtualThreadsSupported() {
+		return newVirtualThreadPerTaskExecutor != null;
+	}
+
+	private static Method findNewVirtualThreadPerTaskExecutor() {
+		if (Runtime.version().feature() < VIRTUAL_THREADS_FEATURE_VERSION) {
+			return null;
+		}
+		return ReflectionUtils.findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+	}
+
+}
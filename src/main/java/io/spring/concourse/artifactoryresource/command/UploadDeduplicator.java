@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.spring.concourse.artifactoryresource.command.LargestFirstScheduler.DeferredException;
+
+/**
+ * Tracks content uploaded during a single {@code out} run so that artifacts with
+ * identical content are only uploaded once. The first artifact seen with a given SHA-1 is
+ * uploaded in full, later artifacts with the same SHA-1 are deferred until that upload
+ * finishes and are then deployed using checksums. If the upload fails then one of the
+ * deferred artifacts takes over and uploads the content while the others are deferred
+ * again.
+ * <p>
+ * Callers never wait for another upload. Instead a {@link DeferredException} is thrown so
+ * that the {@link LargestFirstScheduler} can release the worker thread and any transfer
+ * permit until the upload is complete.
+ *
+ * @author agent
+ */
+class UploadDeduplicator {
+
+	private final Map<String, CompletableFuture<Void>> uploads = new ConcurrentHashMap<>();
+
+	/**
+	 * Deploy content with the given SHA-1.
+	 * @param sha1 the SHA-1 of the content
+	 * @param contentDeployer action used to deploy by uploading the content
+	 * @param checksumDeployer action used to deploy using only checksums
+	 * @return {@code true} if the content was deduplicated and deployed using checksums
+	 * @throws DeferredException if an upload of identical content is in progress
+	 */
+	boolean deploy(String sha1, Runnable contentDeployer, Runnable checksumDeployer) {
+		while (true) {
+			CompletableFuture<Void> upload = new CompletableFuture<>();
+			CompletableFuture<Void> existing = this.uploads.putIfAbsent(sha1, upload);
+			if (existing == null) {
+				upload(sha1, upload, contentDeployer);
+				return false;
+			}
+			if (!existing.isDone()) {
+				throw new DeferredException("Upload of identical content in progress", existing);
+			}
+			if (!existing.isCompletedExceptionally()) {
+				checksumDeployer.run();
+				return true;
+			}
+		}
+	}
+
+	private void upload(String sha1, CompletableFuture<Void> upload, Runnable contentDeployer) {
+		try {
+			contentDeployer.run();
+			upload.complete(null);
+		}
+		catch (RuntimeException ex) {
+			// Removed before completing so that a deferred artifact can take over the upload
+			this.uploads.remove(sha1, upload);
+			upload.completeExceptionally(ex);
+			throw ex;
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command.payload;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.Assert;
+
+/**
+ * Adaptive concurrency settings that can be used with the {@code in} and {@code out}
+ * commands. When present, the {@code threads} parameter is used as the starting
+ * concurrency which is then adjusted between the {@code min} and {@code max} values
+ * according to how the server responds.
+ *
+ * @author agent
+ */
+public class AdaptiveConcurrency {
+
+	private static final int DEFAULT_MIN = 1;
+
+	private static final int DEFAULT_MAX = 16;
+
+	private final int min;
+
+	private final int max;
+
+	@JsonCreator
+	public AdaptiveConcurrency(@JsonProperty("min") Integer min, @JsonProperty("max") Integer max) {
+		this.min = (min != null) ? min : DEFAULT_MIN;
+		this.max = (max != null) ? max : Math.max(DEFAULT_MAX, this.min);
+		Assert.isTrue(this.min >= 1, "Min must be at least 1");
+		Assert.isTrue(this.max >= this.min, "Max must not be less than min");
+	}
+
+	public int getMin() {
+		return this.min;
+	}
+
+	public int getMax() {
+		return this.max;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("min", this.min).append("max", this.max).toString();
+	}
+
+}
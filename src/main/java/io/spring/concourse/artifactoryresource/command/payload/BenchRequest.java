@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command.payload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.Assert;
+
+/**
+ * Request to the {@code bench} command.
+ *
+ * @author agent
+ */
+public class BenchRequest {
+
+	private final Source source;
+
+	private final Params params;
+
+	@JsonCreator
+	public BenchRequest(@JsonProperty("source") Source source, @JsonProperty("params") Params params) {
+		this.source = source;
+		this.params = (params != null) ? params : new Params();
+	}
+
+	/**
+	 * Return the source to benchmark or {@code null} if a local stand-in server should
+	 * be used.
+	 * @return the source or {@code null}
+	 */
+	public Source getSource() {
+		return this.source;
+	}
+
+	public Params getParams() {
+		return this.params;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("source", this.source).append("params", this.params).toString();
+	}
+
+	/**
+	 * Parameters for the {@link BenchRequest}.
+	 */
+	public static class Params {
+
+		private static final List<String> DEFAULT_CLASSIFIERS = List.of("sources", "javadoc");
+
+		private final String repo;
+
+		private final int modules;
+
+		private final int minFileSize;
+
+		private final int maxFileSize;
+
+		private final List<String> classifiers;
+
+		private final int threads;
+
+		private final long standInLatency;
+
+		private final long standInBandwidth;
+
+		private final int standInCapacity;
+
+		private final AdaptiveConcurrency adaptiveConcurrency;
+
+		private final boolean virtualThreads;
+
+		public Params() {
+			this(null, null, null, null, null, null, null, null, null, null, null);
+		}
+
+		@JsonCreator
+		public Params(@JsonProperty("repo") String repo, @JsonProperty("modules") Integer modules,
+				@JsonProperty("min_file_size") Integer minFileSize, @JsonProperty("max_file_size") Integer maxFileSize,
+				@JsonProperty("classifiers") List<String> classifiers, @JsonProperty("threads") Integer threads,
+				@JsonProperty("stand_in_latency") Long standInLatency,
+				@JsonProperty("stand_in_bandwidth") Long standInBandwidth,
+				@JsonProperty("stand_in_capacity") Integer standInCapacity,
+				@JsonProperty("adaptive_concurrency") AdaptiveConcurrency adaptiveConcurrency,
+				@JsonProperty("virtual_threads") Boolean virtualThreads) {
+			this.repo = (repo != null) ? repo : "bench-local";
+			this.modules = (modules != null) ? modules : 10;
+			this.minFileSize = (minFileSize != null) ? minFileSize : 1024;
+			this.maxFileSize = (maxFileSize != null) ? maxFileSize : Math.max(this.minFileSize, 1024 * 1024);
+			Assert.isTrue(this.modules > 0, "Modules must be positive");
+			Assert.isTrue(this.minFileSize > 0, "Min file size must be positive");
+			Assert.isTrue(this.maxFileSize >= this.minFileSize, "Max file size must not be less than min file size");
+			this.classifiers = (classifiers != null) ? Collections.unmodifiableList(new ArrayList<>(classifiers))
+					: DEFAULT_CLASSIFIERS;
+			this.threads = Integer.max(1, (threads != null) ? threads : 1);
+			this.standInLatency = Long.max(0, (standInLatency != null) ? standInLatency : 0);
+			this.standInBandwidth = Long.max(0, (standInBandwidth != null) ? standInBandwidth : 0);
+			this.standInCapacity = Integer.max(0, (standInCapacity != null) ? standInCapacity : 0);
+			this.adaptiveConcurrency = adaptiveConcurrency;
+			this.virtualThreads = (virtualThreads != null) ? virtualThreads : false;
+		}
+
+		public String getRepo() {
+			return this.repo;
+		}
+
+		public int getModules() {
+			return this.modules;
+		}
+
+		public int getMinFileSize() {
+			return this.minFileSize;
+		}
+
+		public int getMaxFileSize() {
+			return this.maxFileSize;
+		}
+
+		public List<String> getClassifiers() {
+			return this.classifiers;
+		}
+
+		public int getThreads() {
+			return this.threads;
+		}
+
+		/**
+		 * Return the latency in milliseconds added to each stand-in request.
+		 * @return the stand-in latency
+		 */
+		public long getStandInLatency() {
+			return this.standInLatency;
+		}
+
+		/**
+		 * Return the stand-in bandwidth limit in bytes per second or {@code 0} if
+		 * unlimited.
+		 * @return the stand-in bandwidth
+		 */
+		public long getStandInBandwidth() {
+			return this.standInBandwidth;
+		}
+
+		/**
+		 * Return the maximum number of concurrent requests the stand-in accepts before
+		 * responding with {@code 503} or {@code 0} if unlimited.
+		 * @return the stand-in capacity
+		 */
+		public int getStandInCapacity() {
+			return this.standInCapacity;
+		}
+
+		/**
+		 * Return the adaptive concurrency settings passed to {@code in} and {@code out}
+		 * or {@code null} if a fixed number of threads should be used.
+		 * @return the adaptive concurrency settings or {@code null}
+		 */
+		public AdaptiveConcurrency getAdaptiveConcurrency() {
+			return this.adaptiveConcurrency;
+		}
+
+		/**
+		 * Return if {@code in} and {@code out} should run transfers on virtual threads.
+		 * @return if virtual threads should be used
+		 */
+		public boolean isVirtualThreads() {
+			return this.virtualThreads;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("repo", this.repo)
+				.append("modules", this.modules)
+				.append("minFileSize", this.minFileSize)
+				.append("maxFileSize", this.maxFileSize)
+				.append("classifiers", this.classifiers)
+				.append("threads", this.threads)
+				.append("standInLatency", this.standInLatency)
+				.append("standInBandwidth", this.standInBandwidth)
+				.append("standInCapacity", this.standInCapacity)
+				.append("adaptiveConcurrency", this.adaptiveConcurrency)
+				.append("virtualThreads", this.virtualThreads)
+				.toString();
+		}
+
+	}
+
+}
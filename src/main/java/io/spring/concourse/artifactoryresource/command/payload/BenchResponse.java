@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command.payload;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * Response from the {@code bench} command.
+ *
+ * @author agent
+ */
+public class BenchResponse {
+
+	private final String uri;
+
+	private final long files;
+
+	private final long bytes;
+
+	private final Map<String, Object> out;
+
+	private final Map<String, Object> in;
+
+	private final Map<String, Long> requests;
+
+	public BenchResponse(String uri, long files, long bytes, Map<String, Object> out, Map<String, Object> in,
+			Map<String, Long> requests) {
+		this.uri = uri;
+		this.files = files;
+		this.bytes = bytes;
+		this.out = unmodifiableCopy(out);
+		this.in = unmodifiableCopy(in);
+		this.requests = unmodifiableCopy(requests);
+	}
+
+	public String getUri() {
+		return this.uri;
+	}
+
+	public long getFiles() {
+		return this.files;
+	}
+
+	public long getBytes() {
+		return this.bytes;
+	}
+
+	/**
+	 * Return the performance summary of the {@code out} run.
+	 * @return the out summary
+	 */
+	public Map<String, Object> getOut() {
+		return this.out;
+	}
+
+	/**
+	 * Return the performance summary of the {@code in} run.
+	 * @return the in summary
+	 */
+	public Map<String, Object> getIn() {
+		return this.in;
+	}
+
+	/**
+	 * Return request counts by HTTP method. Only available when a stand-in server is
+	 * used.
+	 * @return the request counts
+	 */
+	public Map<String, Long> getRequests() {
+		return this.requests;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("uri", this.uri)
+			.append("files", this.files)
+			.append("bytes", this.bytes)
+			.append("out", this.out)
+			.append("in", this.in)
+			.append("requests", this.requests)
+			.toString();
+	}
+
+	private static <V> Map<String, V> unmodifiableCopy(Map<String, V> map) {
+		return (map != null) ? Collections.unmodifiableMap(new LinkedHashMap<>(map)) : Collections.emptyMap();
+	}
+
+}
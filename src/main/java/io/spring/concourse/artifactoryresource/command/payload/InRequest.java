@@ -16,6 +16,10 @@
 
 package io.spring.concourse.artifactoryresource.command.payload;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -71,6 +75,8 @@ public class InRequest {
 	 */
 	public static class Params {
 
+		private static final long DEFAULT_CACHE_SIZE_LIMIT = 10L * 1024 * 1024 * 1024;
+
 		private final boolean debug;
 
 		private final boolean generateMavenMetadata;
@@ -83,8 +89,26 @@ public class InRequest {
 
 		private final int threads;
 
+		private final boolean savePerformanceSummary;
+
+		private final AdaptiveConcurrency adaptiveConcurrency;
+
+		private final boolean virtualThreads;
+
+		private final long maxInFlightBytes;
+
+		private final String cacheDirectory;
+
+		private final long cacheSizeLimit;
+
+		private final List<String> include;
+
+		private final List<String> exclude;
+
+		private final boolean continueOnError;
+
 		public Params() {
-			this(null, null, null, null, null, null);
+			this(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
 		}
 
 		@JsonCreator
@@ -93,13 +117,32 @@ public class InRequest {
 				@JsonProperty("save_build_info") Boolean saveBuildInfo,
 				@JsonProperty("download_artifacts") Boolean downloadArtifacts,
 				@JsonProperty("download_checksums") Boolean downloadChecksums,
-				@JsonProperty("threads") Integer threads) {
+				@JsonProperty("threads") Integer threads,
+				@JsonProperty("save_performance_summary") Boolean savePerformanceSummary,
+				@JsonProperty("adaptive_concurrency") AdaptiveConcurrency adaptiveConcurrency,
+				@JsonProperty("virtual_threads") Boolean virtualThreads,
+				@JsonProperty("max_in_flight_bytes") Long maxInFlightBytes,
+				@JsonProperty("cache_directory") String cacheDirectory,
+				@JsonProperty("cache_size_limit") Long cacheSizeLimit, @JsonProperty("include") List<String> include,
+				@JsonProperty("exclude") List<String> exclude,
+				@JsonProperty("continue_on_error") Boolean continueOnError) {
 			this.debug = (debug != null) ? debug : false;
 			this.generateMavenMetadata = (generateMavenMetadata != null) ? generateMavenMetadata : true;
 			this.saveBuildInfo = (saveBuildInfo != null) ? saveBuildInfo : false;
 			this.downloadArtifacts = (downloadArtifacts != null) ? downloadArtifacts : true;
 			this.downloadChecksums = (downloadChecksums != null) ? downloadChecksums : true;
 			this.threads = Integer.max(1, (threads != null) ? threads : 1);
+			this.savePerformanceSummary = (savePerformanceSummary != null) ? savePerformanceSummary : false;
+			this.adaptiveConcurrency = adaptiveConcurrency;
+			this.virtualThreads = (virtualThreads != null) ? virtualThreads : false;
+			this.maxInFlightBytes = Long.max(0, (maxInFlightBytes != null) ? maxInFlightBytes : 0);
+			this.cacheDirectory = cacheDirectory;
+			this.cacheSizeLimit = Long.max(0, (cacheSizeLimit != null) ? cacheSizeLimit : DEFAULT_CACHE_SIZE_LIMIT);
+			this.include = (include != null) ? Collections.unmodifiableList(new ArrayList<>(include))
+					: Collections.emptyList();
+			this.exclude = (exclude != null) ? Collections.unmodifiableList(new ArrayList<>(exclude))
+					: Collections.emptyList();
+			this.continueOnError = (continueOnError != null) ? continueOnError : false;
 		}
 
 		public boolean isDebug() {
@@ -126,6 +169,81 @@ public class InRequest {
 			return this.threads;
 		}
 
+		public boolean isSavePerformanceSummary() {
+			return this.savePerformanceSummary;
+		}
+
+		/**
+		 * Return the adaptive concurrency settings or {@code null} if a fixed number of
+		 * threads should be used.
+		 * @return the adaptive concurrency settings or {@code null}
+		 */
+		public AdaptiveConcurrency getAdaptiveConcurrency() {
+			return this.adaptiveConcurrency;
+		}
+
+		/**
+		 * Return if each transfer should run on a virtual thread when the runtime
+		 * supports them.
+		 * @return if virtual threads should be used
+		 */
+		public boolean isVirtualThreads() {
+			return this.virtualThreads;
+		}
+
+		/**
+		 * Return the maximum number of bytes that may be in flight across all concurrent
+		 * transfers or {@code 0} if unlimited.
+		 * @return the maximum number of bytes in flight
+		 */
+		public long getMaxInFlightBytes() {
+			return this.maxInFlightBytes;
+		}
+
+		/**
+		 * Return the directory used to cache downloaded artifacts between runs or
+		 * {@code null} if no cache should be used.
+		 * @return the cache directory or {@code null}
+		 */
+		public String getCacheDirectory() {
+			return this.cacheDirectory;
+		}
+
+		/**
+		 * Return the maximum total size of the artifacts held in the cache directory.
+		 * @return the cache size limit in bytes
+		 */
+		public long getCacheSizeLimit() {
+			return this.cacheSizeLimit;
+		}
+
+		/**
+		 * Return the patterns of the artifacts to download. An empty list downloads all
+		 * artifacts.
+		 * @return the include patterns
+		 */
+		public List<String> getInclude() {
+			return this.include;
+		}
+
+		/**
+		 * Return the patterns of the artifacts that should not be downloaded.
+		 * @return the exclude patterns
+		 */
+		public List<String> getExclude() {
+			return this.exclude;
+		}
+
+		/**
+		 * Return if all artifacts should be attempted when some fail, with failures
+		 * reported together at the end, rather than cancelling remaining transfers as soon
+		 * as the first one fails.
+		 * @return if remaining transfers should continue after an error
+		 */
+		public boolean isContinueOnError() {
+			return this.continueOnError;
+		}
+
 		@Override
 		public String toString() {
 			return new ToStringCreator(this).append("generateMavenMetadata", this.generateMavenMetadata)
@@ -133,6 +251,15 @@ public class InRequest {
 				.append("downloadArtifacts", this.downloadArtifacts)
 				.append("downloadChecksums", this.downloadChecksums)
 				.append("threads", this.threads)
+				.append("savePerformanceSummary", this.savePerformanceSummary)
+				.append("adaptiveConcurrency", this.adaptiveConcurrency)
+				.append("virtualThreads", this.virtualThreads)
+				.append("maxInFlightBytes", this.maxInFlightBytes)
+				.append("cacheDirectory", this.cacheDirectory)
+				.append("cacheSizeLimit", this.cacheSizeLimit)
+				.append("include", this.include)
+				.append("exclude", this.exclude)
+				.append("continueOnError", this.continueOnError)
 				.toString();
 		}
 
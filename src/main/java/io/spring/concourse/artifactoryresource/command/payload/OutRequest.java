@@ -97,6 +97,14 @@ public class OutRequest {
 
 		private final String signingPassphrase;
 
+		private final AdaptiveConcurrency adaptiveConcurrency;
+
+		private final boolean virtualThreads;
+
+		private final long maxInFlightBytes;
+
+		private final boolean continueOnError;
+
 		@JsonCreator
 		public Params(@JsonProperty("debug") Boolean debug, @JsonProperty("repo") String repo,
 				@JsonProperty("build_number") String buildNumber, @JsonProperty("folder") String folder,
@@ -107,7 +115,11 @@ public class OutRequest {
 				@JsonProperty("disable_checksum_uploads") Boolean disableChecksumUploads,
 				@JsonProperty("artifact_set") List<ArtifactSet> artifactSet, @JsonProperty("threads") Integer threads,
 				@JsonProperty("signing_key") String signingKey,
-				@JsonProperty("signing_passphrase") String signingPassphrase) {
+				@JsonProperty("signing_passphrase") String signingPassphrase,
+				@JsonProperty("adaptive_concurrency") AdaptiveConcurrency adaptiveConcurrency,
+				@JsonProperty("virtual_threads") Boolean virtualThreads,
+				@JsonProperty("max_in_flight_bytes") Long maxInFlightBytes,
+				@JsonProperty("continue_on_error") Boolean continueOnError) {
 			Assert.hasText(repo, "Repo must not be empty");
 			Assert.hasText(folder, "Folder must not be empty");
 			this.debug = (debug != null) ? debug : false;
@@ -128,6 +140,10 @@ public class OutRequest {
 			this.threads = Integer.max(1, (threads != null) ? threads : 1);
 			this.signingKey = signingKey;
 			this.signingPassphrase = signingPassphrase;
+			this.adaptiveConcurrency = adaptiveConcurrency;
+			this.virtualThreads = (virtualThreads != null) ? virtualThreads : false;
+			this.maxInFlightBytes = Long.max(0, (maxInFlightBytes != null) ? maxInFlightBytes : 0);
+			this.continueOnError = (continueOnError != null) ? continueOnError : false;
 		}
 
 		public boolean isDebug() {
@@ -193,6 +209,43 @@ public class OutRequest {
 			return this.signingPassphrase;
 		}
 
+		/**
+		 * Return the adaptive concurrency settings or {@code null} if a fixed number of
+		 * threads should be used.
+		 * @return the adaptive concurrency settings or {@code null}
+		 */
+		public AdaptiveConcurrency getAdaptiveConcurrency() {
+			return this.adaptiveConcurrency;
+		}
+
+		/**
+		 * Return if each transfer should run on a virtual thread when the runtime
+		 * supports them.
+		 * @return if virtual threads should be used
+		 */
+		public boolean isVirtualThreads() {
+			return this.virtualThreads;
+		}
+
+		/**
+		 * Return the maximum number of bytes that may be in flight across all concurrent
+		 * transfers or {@code 0} if unlimited.
+		 * @return the maximum number of bytes in flight
+		 */
+		public long getMaxInFlightBytes() {
+			return this.maxInFlightBytes;
+		}
+
+		/**
+		 * Return if all artifacts should be attempted when some fail, with failures
+		 * reported together at the end, rather than cancelling remaining transfers as soon
+		 * as the first one fails.
+		 * @return if remaining transfers should continue after an error
+		 */
+		public boolean isContinueOnError() {
+			return this.continueOnError;
+		}
+
 		@Override
 		public String toString() {
 			return new ToStringCreator(this).append("buildNumber", this.buildNumber)
@@ -206,6 +259,10 @@ public class OutRequest {
 				.append("threads", this.threads)
 				.append("signingKey", (StringUtils.hasText(this.signingKey)) ? "<set>" : "<not set>")
 				.append("signingPassphrase", (StringUtils.hasText(this.signingPassphrase)) ? "<set>" : "<not set>")
+				.append("adaptiveConcurrency", this.adaptiveConcurrency)
+				.append("virtualThreads", this.virtualThreads)
+				.append("maxInFlightBytes", this.maxInFlightBytes)
+				.append("continueOnError", this.continueOnError)
 				.toString();
 		}
 
@@ -23,6 +23,7 @@ import java.net.Proxy.Type;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.spring.concourse.artifactoryresource.artifactory.TransferLimits;
 
 import org.springframework.core.style.ToStringCreator;
 import org.springframework.util.Assert;
@@ -54,8 +55,12 @@ public class Source {
 	@JsonIgnore
 	private final Proxy proxy;
 
+	private final boolean flightRecording;
+
+	private final TransferLimits transferLimits;
+
 	public Source(String uri, String username, String password, String buildName, String project) {
-		this(uri, username, password, buildName, project, null, null, null, null);
+		this(uri, username, password, buildName, project, null, null, null, null, null, null);
 	}
 
 	@JsonCreator
@@ -63,7 +68,8 @@ public class Source {
 			@JsonProperty("password") String password, @JsonProperty("build_name") String buildName,
 			@JsonProperty("project") String project, @JsonProperty("build_number_prefix") String buildNumberPrefix,
 			@JsonProperty("check_limit") Integer checkLimit, @JsonProperty("proxy_host") String proxyHost,
-			@JsonProperty("proxy_port") Integer proxyPort) {
+			@JsonProperty("proxy_port") Integer proxyPort, @JsonProperty("flight_recording") Boolean flightRecording,
+			@JsonProperty("transfer_limits") TransferLimits transferLimits) {
 		Assert.hasText(uri, "URI must not be empty");
 		Assert.hasText(buildName, "Build Name must not be empty");
 		Assert.isTrue(buildNumberPrefix == null || !buildNumberPrefix.contains("*"),
@@ -76,6 +82,8 @@ public class Source {
 		this.buildNumberPrefix = buildNumberPrefix;
 		this.checkLimit = checkLimit;
 		this.proxy = (StringUtils.hasText(proxyHost)) ? createProxy(proxyHost, proxyPort) : null;
+		this.flightRecording = (flightRecording != null) ? flightRecording : false;
+		this.transferLimits = (transferLimits != null) ? transferLimits : TransferLimits.NONE;
 	}
 
 	private Proxy createProxy(String host, Integer port) {
@@ -115,15 +123,27 @@ public class Source {
 		return this.proxy;
 	}
 
+	public boolean isFlightRecording() {
+		return this.flightRecording;
+	}
+
+	public TransferLimits getTransferLimits() {
+		return this.transferLimits;
+	}
+
 	@Override
 	public String toString() {
 		ToStringCreator creator = new ToStringCreator(this).append("uri", this.uri)
 			.append("buildName", this.buildName)
 			.append("buildNumberPrefix", this.buildNumberPrefix)
-			.append("checkLimit", this.checkLimit);
+			.append("checkLimit", this.checkLimit)
+			.append("flightRecording", this.flightRecording);
 		if (this.proxy != null) {
 			creator.append("proxy", this.proxy);
 		}
+		if (this.transferLimits.isLimited()) {
+			creator.append("transferLimits", this.transferLimits);
+		}
 		return creator.toString();
 	}
 
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.http;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * {@link ClientHttpRequest} that aborts the exchange when the calling thread is
+ * interrupted. Blocking socket operations do not respond to interruption so request and
+ * response content is checked as each chunk is transferred. Once interrupted the
+ * connection is disconnected rather than drained so that it is released promptly.
+ *
+ * @author agent
+ */
+final class InterruptibleClientHttpRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+	private final ClientHttpRequest delegate;
+
+	private final HttpURLConnection connection;
+
+	private boolean aborted;
+
+	InterruptibleClientHttpRequest(ClientHttpRequest delegate, HttpURLConnection connection) {
+		this.delegate = delegate;
+		this.connection = connection;
+	}
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.delegate.getMethod();
+	}
+
+	@Override
+	public URI getURI() {
+		return this.delegate.getURI();
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.delegate.getHeaders();
+	}
+
+	@Override
+	public OutputStream getBody() throws IOException {
+		return new InterruptibleOutputStream(this.delegate.getBody());
+	}
+
+	@Override
+	public void setBody(Body body) {
+		if (this.delegate instanceof StreamingHttpOutputMessage streamingDelegate) {
+			streamingDelegate.setBody((outputStream) -> body.writeTo(new InterruptibleOutputStream(outputStream)));
+			return;
+		}
+		try {
+			body.writeTo(getBody());
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public ClientHttpResponse execute() throws IOException {
+		abortIfInterrupted();
+		return new InterruptibleClientHttpResponse(this.delegate.execute());
+	}
+
+	private void abortIfInterrupted() throws InterruptedIOException {
+		if (Thread.currentThread().isInterrupted()) {
+			this.aborted = true;
+			if (this.connection != null) {
+				this.connection.disconnect();
+			}
+			throw new InterruptedIOException("Interrupted during exchange with " + getURI());
+		}
+	}
+
+	/**
+	 * {@link ClientHttpResponse} that aborts reading content when interrupted.
+	 */
+	private class InterruptibleClientHttpResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+
+		InterruptibleClientHttpResponse(ClientHttpResponse delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public HttpStatusCode getStatusCode() throws IOException {
+			return this.delegate.getStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return this.delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.delegate.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			return new InterruptibleInputStream(this.delegate.getBody());
+		}
+
+		@Override
+		public void close() {
+			if (!InterruptibleClientHttpRequest.this.aborted) {
+				this.delegate.close();
+			}
+		}
+
+	}
+
+	/**
+	 * {@link OutputStream} that checks for interruption before writing each chunk.
+	 */
+	private class InterruptibleOutputStream extends FilterOutputStream {
+
+		InterruptibleOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			abortIfInterrupted();
+			this.out.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			abortIfInterrupted();
+			this.out.write(b, off, len);
+		}
+
+	}
+
+	/**
+	 * {@link InputStream} that checks for interruption before reading each chunk.
+	 */
+	private class InterruptibleInputStream extends FilterInputStream {
+
+		InterruptibleInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			abortIfInterrupted();
+			return this.in.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			abortIfInterrupted();
+			return this.in.read(b, off, len);
+		}
+
+	}
+
+}
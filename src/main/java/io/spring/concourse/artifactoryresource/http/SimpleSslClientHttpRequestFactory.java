@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2021 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,42 +18,69 @@ package io.spring.concourse.artifactoryresource.http;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.net.URI;
 import java.security.GeneralSecurityException;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
 
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
 /**
- * {@link SimpleClientHttpRequestFactory} with custom {@link SSLContext} support.
+ * {@link SimpleClientHttpRequestFactory} with custom {@link SSLContext} support. Requests
+ * are aborted if the calling thread is interrupted.
  *
  * @author Phillip Webb
  */
 public class SimpleSslClientHttpRequestFactory extends SimpleClientHttpRequestFactory {
 
-	private final SSLContext sslContext;
+	private final SSLSocketFactory socketFactory;
+
+	private final ThreadLocal<HttpURLConnection> preparedConnection = new ThreadLocal<>();
 
 	public SimpleSslClientHttpRequestFactory(SslContextFactory sslContextFactory) {
+		this(getSslContext(sslContextFactory));
+	}
+
+	public SimpleSslClientHttpRequestFactory(SSLContext sslContext) {
+		this.socketFactory = (sslContext != null) ? sslContext.getSocketFactory() : null;
+	}
+
+	private static SSLContext getSslContext(SslContextFactory sslContextFactory) {
 		try {
-			this.sslContext = (sslContextFactory != null) ? sslContextFactory.getSslContext() : null;
+			return (sslContextFactory != null) ? sslContextFactory.getSslContext() : null;
 		}
 		catch (GeneralSecurityException ex) {
 			throw new IllegalStateException(ex);
 		}
 	}
 
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		try {
+			ClientHttpRequest request = super.createRequest(uri, httpMethod);
+			return new InterruptibleClientHttpRequest(request, this.preparedConnection.get());
+		}
+		finally {
+			this.preparedConnection.remove();
+		}
+	}
+
 	@Override
 	protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
 		super.prepareConnection(connection, httpMethod);
+		this.preparedConnection.set(connection);
 		if (connection instanceof HttpsURLConnection) {
 			prepareHttpsConnection((HttpsURLConnection) connection, httpMethod);
 		}
 	}
 
 	private void prepareHttpsConnection(HttpsURLConnection connection, String httpMethod) {
-		if (this.sslContext != null) {
-			connection.setSSLSocketFactory(this.sslContext.getSocketFactory());
+		if (this.socketFactory != null) {
+			connection.setSSLSocketFactory(this.socketFactory);
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2023 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
@@ -31,11 +32,12 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import io.spring.concourse.artifactoryresource.jfr.ChecksumEvent;
+
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
 import org.springframework.util.FileCopyUtils;
-import org.springframework.util.StreamUtils;
 
 /**
  * Support for checksums used by the artifactory resource.
@@ -125,7 +127,7 @@ public enum Checksum {
 	public static Map<Checksum, String> calculateAll(Resource content) {
 		try {
 			Assert.notNull(content, "Content must not be null");
-			return calculateAll(content.getInputStream());
+			return calculateAll(content.getFilename(), content.getInputStream());
 		}
 		catch (IOException ex) {
 			throw new IllegalStateException(ex);
@@ -139,11 +141,16 @@ public enum Checksum {
 	 */
 	public static Map<Checksum, String> calculateAll(String content) {
 		Assert.notNull(content, "Content must not be null");
-		return calculateAll(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+		return calculateAll(null, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
 	}
 
-	private static Map<Checksum, String> calculateAll(InputStream content) {
+	private static Map<Checksum, String> calculateAll(String path, InputStream content) {
 		Assert.notNull(content, "Content must not be null");
+		ChecksumEvent event = new ChecksumEvent(path);
+		return event.record(() -> calculateAll(event, content));
+	}
+
+	private static Map<Checksum, String> calculateAll(ChecksumEvent event, InputStream content) {
 		try {
 			try {
 				Map<Checksum, DigestInputStream> streams = new LinkedHashMap<>();
@@ -152,7 +159,7 @@ public enum Checksum {
 					streams.put(checksum, digestStream);
 					content = digestStream;
 				}
-				StreamUtils.drain(content);
+				event.setBytes(content.transferTo(OutputStream.nullOutputStream()));
 				return getDigests(streams);
 			}
 			finally {
@@ -17,16 +17,13 @@
 package io.spring.concourse.artifactoryresource.io;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
-import java.util.function.BiPredicate;
+
+import io.spring.concourse.artifactoryresource.jfr.DirectoryScanEvent;
 
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 
 /**
  * Utility to scan a {@link Directory} for contents.
@@ -37,6 +34,22 @@ import org.springframework.util.StringUtils;
 @Component
 public class DirectoryScanner {
 
+	private static final int DEFAULT_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+	private final ParallelDirectoryWalker walker;
+
+	public DirectoryScanner() {
+		this(DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * Create a new {@link DirectoryScanner} instance.
+	 * @param parallelism the maximum number of directories to list in parallel
+	 */
+	public DirectoryScanner(int parallelism) {
+		this.walker = new ParallelDirectoryWalker(parallelism);
+	}
+
 	/**
 	 * Scan the given directory for files, accounting for the include and exclude
 	 * patterns.
@@ -50,35 +63,29 @@ public class DirectoryScanner {
 
 	/**
 	 * Scan the given directory for files, accounting for the include and exclude
-	 * patterns.
+	 * patterns. Subdirectories are listed in parallel and directories that cannot contain
+	 * matching files are not traversed.
 	 * @param directory the source directory
 	 * @param include the include patterns
 	 * @param exclude the exclude patterns
 	 * @return the scanned list of files
 	 */
 	public FileSet scan(Directory directory, List<String> include, List<String> exclude) {
+		DirectoryScanEvent event = new DirectoryScanEvent(directory.toString());
+		return event.record(() -> {
+			List<File> files = find(directory, include, exclude);
+			event.setFiles(files.size());
+			return FileSet.of(files);
+		});
+	}
+
+	private List<File> find(Directory directory, List<String> include, List<String> exclude) {
 		try {
-			Path path = directory.getFile().toPath();
-			return FileSet.of(Files.find(path, Integer.MAX_VALUE, getFilter(directory, include, exclude))
-				.map(Path::toFile)
-				.toArray(File[]::new));
+			return this.walker.walk(directory.getFile().toPath(), new PathFilter(include, exclude));
 		}
-		catch (IOException ex) {
-			throw new IllegalStateException(ex);
+		catch (UncheckedIOException ex) {
+			throw new IllegalStateException(ex.getCause());
 		}
 	}
 
-	private BiPredicate<Path, BasicFileAttributes> getFilter(Directory root, List<String> include,
-			List<String> exclude) {
-		PathFilter filter = new PathFilter(include, exclude);
-		String rootPath = StringUtils.cleanPath(root.getFile().getPath());
-		return (path, fileAttributes) -> {
-			if (!path.toFile().isFile()) {
-				return false;
-			}
-			String relativePath = StringUtils.cleanPath(path.toString()).substring(rootPath.length() + 1);
-			return filter.isMatch(relativePath);
-		};
-	}
-
 }
@@ -20,14 +20,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
@@ -52,12 +49,14 @@ import org.springframework.util.StringUtils;
  */
 public final class FileSet implements Iterable<File> {
 
-	private final Map<File, String> roots;
+	private final List<Entry> entries;
 
 	private final List<File> files;
 
-	private FileSet(Map<File, String> roots, List<File> files) {
-		this.roots = roots;
+	private FileSet(List<Entry> entries) {
+		this.entries = entries;
+		List<File> files = new ArrayList<>(entries.size());
+		entries.forEach((entry) -> files.add(entry.file));
 		this.files = Collections.unmodifiableList(files);
 	}
 
@@ -68,7 +67,7 @@ public final class FileSet implements Iterable<File> {
 	 * @return a new filtered {@link FileSet} instance
 	 */
 	public FileSet filter(Predicate<File> predicate) {
-		return new FileSet(this.roots, this.files.stream().filter(predicate).collect(Collectors.toList()));
+		return new FileSet(this.entries.stream().filter((entry) -> predicate.test(entry.file)).toList());
 	}
 
 	/**
@@ -79,7 +78,7 @@ public final class FileSet implements Iterable<File> {
 	public MultiValueMap<Category, File> batchedByCategory() {
 		MultiValueMap<Category, File> batched = new LinkedMultiValueMap<>();
 		Arrays.stream(Category.values()).forEach((category) -> batched.put(category, new ArrayList<>()));
-		this.files.forEach((file) -> batched.add(getCategory(this.roots, file), file));
+		this.entries.forEach((entry) -> batched.add(entry.category, entry.file));
 		batched.entrySet().removeIf((entry) -> entry.getValue().isEmpty());
 		return batched;
 	}
@@ -96,83 +95,99 @@ public final class FileSet implements Iterable<File> {
 
 	public static FileSet of(List<File> files) {
 		Assert.notNull(files, "Files must not be null");
-		MultiValueMap<File, File> filesByParent = getFilesByParent(files);
-		Map<File, String> roots = getRoots(filesByParent);
-		Comparator<File> comparator = Comparator.comparing(File::getParent);
-		comparator = comparator.thenComparing((file) -> getCategory(roots, file));
-		comparator = comparator.thenComparing(FileSet::getFileExtension);
-		comparator = comparator.thenComparing(FileSet::getNameWithoutExtension);
-		List<File> sorted = new ArrayList<>(files);
-		sorted.sort(comparator);
-		return new FileSet(roots, sorted);
+		List<Entry> entries = new ArrayList<>(files.size());
+		Map<String, String> roots = new HashMap<>();
+		for (File file : files) {
+			Entry entry = new Entry(file);
+			entries.add(entry);
+			if (entry.isRootCandidate()) {
+				roots.merge(entry.parent, entry.stem, FileSet::getShortest);
+			}
+		}
+		entries.forEach((entry) -> entry.categorize(roots.get(entry.parent)));
+		Collections.sort(entries);
+		return new FileSet(entries);
 	}
 
-	private static MultiValueMap<File, File> getFilesByParent(List<File> files) {
-		MultiValueMap<File, File> filesByParent = new LinkedMultiValueMap<>();
-		files.forEach((file) -> filesByParent.add(file.getParentFile(), file));
-		return filesByParent;
+	private static String getShortest(String name1, String name2) {
+		int len1 = (StringUtils.hasLength(name1)) ? name1.length() : Integer.MAX_VALUE;
+		int len2 = (StringUtils.hasLength(name2)) ? name2.length() : Integer.MAX_VALUE;
+		return (len1 < len2) ? name1 : name2;
 	}
 
-	private static Map<File, String> getRoots(MultiValueMap<File, File> filesByParent) {
-		Map<File, String> roots = new LinkedHashMap<>();
-		filesByParent.forEach((parent, files) -> findRoot(files).ifPresent((root) -> roots.put(parent, root)));
-		return roots;
-	}
+	/**
+	 * Descriptor for a single file in the set. Names, extensions and the category are
+	 * calculated once so that sorting and batching do not repeat the work.
+	 */
+	private static final class Entry implements Comparable<Entry> {
 
-	private static Optional<String> findRoot(List<File> files) {
-		return files.stream()
-			.filter(FileSet::isRootCandidate)
-			.map(FileSet::getNameWithoutExtension)
-			.reduce(FileSet::getShortest);
-	}
+		private final File file;
 
-	private static boolean isRootCandidate(File file) {
-		if (isMavenMetaData(file) || file.isHidden() || file.getName().startsWith(".") || file.isDirectory()
-				|| isChecksumFile(file)) {
-			return false;
+		private final String parent;
+
+		private final String name;
+
+		private final String extension;
+
+		private final String stem;
+
+		private Category category;
+
+		Entry(File file) {
+			this.file = file;
+			String parent = file.getParent();
+			this.parent = (parent != null) ? parent : "";
+			this.name = file.getName();
+			int lastDot = this.name.lastIndexOf('.');
+			this.extension = (lastDot != -1) ? this.name.substring(lastDot + 1) : "";
+			this.stem = (lastDot != -1) ? this.name.substring(0, lastDot) : this.name;
 		}
-		return true;
-	}
 
-	private static boolean isChecksumFile(File file) {
-		String name = file.getName().toLowerCase();
-		return name.endsWith(".md5") || name.endsWith("sha1");
-	}
+		boolean isRootCandidate() {
+			return !isMavenMetaData() && !this.name.startsWith(".") && !isChecksumFile();
+		}
 
-	private static String getShortest(String name1, String name2) {
-		int len1 = (StringUtils.hasLength(name1)) ? name1.length() : Integer.MAX_VALUE;
-		int len2 = (StringUtils.hasLength(name2)) ? name2.length() : Integer.MAX_VALUE;
-		return (len1 < len2) ? name1 : name2;
-	}
+		private boolean isChecksumFile() {
+			return endsWithIgnoreCase(".md5") || endsWithIgnoreCase("sha1");
+		}
+
+		private boolean isMavenMetaData() {
+			return startsWithIgnoreCase("maven-metadata.xml") || startsWithIgnoreCase("maven-metadata-local.xml");
+		}
 
-	private static Category getCategory(Map<File, String> roots, File file) {
-		if (file.getName().endsWith(".pom")) {
-			return Category.POM;
+		private boolean startsWithIgnoreCase(String prefix) {
+			return this.name.regionMatches(true, 0, prefix, 0, prefix.length());
 		}
-		if (file.getName().endsWith(".asc")) {
-			return Category.SIGNATURE;
+
+		private boolean endsWithIgnoreCase(String suffix) {
+			return this.name.regionMatches(true, this.name.length() - suffix.length(), suffix, 0, suffix.length());
 		}
-		if (isMavenMetaData(file)) {
-			return Category.MAVEN_METADATA;
+
+		void categorize(String root) {
+			this.category = getCategory(root);
 		}
-		String root = roots.get(file.getParentFile());
-		return getNameWithoutExtension(file).equals(root) ? Category.PRIMARY : Category.ADDITIONAL;
-	}
 
-	private static boolean isMavenMetaData(File file) {
-		return file.getName().toLowerCase().startsWith("maven-metadata.xml")
-				|| file.getName().toLowerCase().startsWith("maven-metadata-local.xml");
-	}
+		private Category getCategory(String root) {
+			if (this.name.endsWith(".pom")) {
+				return Category.POM;
+			}
+			if (this.name.endsWith(".asc")) {
+				return Category.SIGNATURE;
+			}
+			if (isMavenMetaData()) {
+				return Category.MAVEN_METADATA;
+			}
+			return this.stem.equals(root) ? Category.PRIMARY : Category.ADDITIONAL;
+		}
 
-	private static String getFileExtension(File file) {
-		String extension = StringUtils.getFilenameExtension(file.getName());
-		return (extension != null) ? extension : "";
-	}
+		@Override
+		public int compareTo(Entry other) {
+			int result = this.parent.compareTo(other.parent);
+			result = (result != 0) ? result : this.category.compareTo(other.category);
+			result = (result != 0) ? result : this.extension.compareTo(other.extension);
+			return (result != 0) ? result : this.stem.compareTo(other.stem);
+		}
 
-	private static String getNameWithoutExtension(File file) {
-		String name = file.getName();
-		String extension = StringUtils.getFilenameExtension(name);
-		return (extension != null) ? name.substring(0, name.length() - extension.length() - 1) : name;
 	}
 
 	/**
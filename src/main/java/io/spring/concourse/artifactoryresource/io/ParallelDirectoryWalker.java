@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.springframework.util.Assert;
+
+/**
+ * Walks a directory tree using a {@link ForkJoinPool} so that subdirectories are listed
+ * in parallel. Directories that cannot contain matches for the {@link PathFilter} are
+ * not listed.
+ *
+ * @author agent
+ */
+class ParallelDirectoryWalker {
+
+	private final int parallelism;
+
+	ParallelDirectoryWalker(int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Walk the given root directory and return all matching files. The order of the
+	 * returned files is not defined.
+	 * @param root the root directory
+	 * @param filter the filter to apply to paths relative to the root
+	 * @return the matching files
+	 * @throws UncheckedIOException on IO error
+	 */
+	List<File> walk(Path root, PathFilter filter) {
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		try {
+			return pool.invoke(new WalkTask(root, "", filter));
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * {@link RecursiveTask} to walk a single directory, forking a new task for each
+	 * subdirectory.
+	 */
+	private static final class WalkTask extends RecursiveTask<List<File>> {
+
+		private final Path directory;
+
+		private final String relativePath;
+
+		private final PathFilter filter;
+
+		WalkTask(Path directory, String relativePath, PathFilter filter) {
+			this.directory = directory;
+			this.relativePath = relativePath;
+			this.filter = filter;
+		}
+
+		@Override
+		protected List<File> compute() {
+			List<File> files = new ArrayList<>();
+			List<WalkTask> subdirectories = new ArrayList<>();
+			try (DirectoryStream<Path> entries = Files.newDirectoryStream(this.directory)) {
+				for (Path entry : entries) {
+					BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class,
+							LinkOption.NOFOLLOW_LINKS);
+					String relativePath = getRelativePath(entry);
+					if (attributes.isDirectory()) {
+						if (this.filter.isMatchCandidate(relativePath)) {
+							WalkTask task = new WalkTask(entry, relativePath, this.filter);
+							task.fork();
+							subdirectories.add(task);
+						}
+					}
+					else if (isFile(entry, attributes) && this.filter.isMatch(relativePath)) {
+						files.add(entry.toFile());
+					}
+				}
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			for (WalkTask subdirectory : subdirectories) {
+				files.addAll(subdirectory.join());
+			}
+			return files;
+		}
+
+		private String getRelativePath(Path entry) {
+			String name = entry.getFileName().toString();
+			return (!this.relativePath.isEmpty()) ? this.relativePath + "/" + name : name;
+		}
+
+		private boolean isFile(Path path, BasicFileAttributes attributes) {
+			if (attributes.isSymbolicLink()) {
+				return Files.isRegularFile(path);
+			}
+			return attributes.isRegularFile();
+		}
+
+	}
+
+}
@@ -23,7 +23,9 @@ import org.springframework.util.Assert;
 import org.springframework.util.PathMatcher;
 
 /**
- * Filter that matches paths based on {@code include}/{@code exclude} patterns.
+ * Filter that matches paths based on {@code include}/{@code exclude} patterns. Patterns
+ * are compiled once when the filter is created and can also be used to determine if a
+ * directory could contain any matching paths.
  *
  * @author Phillip Webb
  * @author Madhura Bhave
@@ -32,37 +34,152 @@ public class PathFilter {
 
 	private static final PathMatcher pathMatcher = new AntPathMatcher();
 
-	private final List<String> include;
+	private final Patterns include;
 
-	private final List<String> exclude;
+	private final Patterns exclude;
 
 	public PathFilter(List<String> include, List<String> exclude) {
 		Assert.notNull(include, "Include must not be null");
 		Assert.notNull(exclude, "Exclude must not be null");
-		this.include = include;
-		this.exclude = exclude;
+		this.include = new Patterns(include);
+		this.exclude = new Patterns(exclude);
 	}
 
 	public boolean isMatch(String path) {
-		return ((this.include.isEmpty() || hasMatch(pathMatcher, path, this.include))
-				&& !hasMatch(pathMatcher, path, this.exclude));
+		return ((this.include.isEmpty() || this.include.matches(path)) && !this.exclude.matches(path));
 	}
 
-	private boolean hasMatch(PathMatcher pathMatcher, String path, List<String> patterns) {
-		for (String pattern : patterns) {
-			pattern = cleanPattern(path, pattern);
-			if (pathMatcher.match(pattern, path)) {
-				return true;
+	/**
+	 * Return if the directory with the given path could contain paths that match this
+	 * filter. Returns {@code false} when no include pattern can match below the directory
+	 * or when an exclude pattern matches everything below it.
+	 * @param path the directory path
+	 * @return if the directory could contain matching paths
+	 */
+	public boolean isMatchCandidate(String path) {
+		return ((this.include.isEmpty() || this.include.matchesStart(path)) && !this.exclude.matchesAllUnder(path));
+	}
+
+	/**
+	 * Compiled patterns with variants for paths with and without a leading slash.
+	 */
+	private static final class Patterns {
+
+		private final Pattern[] relative;
+
+		private final Pattern[] rooted;
+
+		Patterns(List<String> patterns) {
+			this.relative = new Pattern[patterns.size()];
+			this.rooted = new Pattern[patterns.size()];
+			for (int i = 0; i < patterns.size(); i++) {
+				String pattern = patterns.get(i);
+				this.relative[i] = new Pattern(pattern.startsWith("/") ? pattern.substring(1) : pattern);
+				this.rooted[i] = new Pattern(!pattern.startsWith("/") ? "/" + pattern : pattern);
 			}
 		}
-		return false;
+
+		boolean isEmpty() {
+			return this.relative.length == 0;
+		}
+
+		boolean matches(String path) {
+			for (Pattern pattern : get(path)) {
+				if (pattern.matches(path)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean matchesStart(String path) {
+			for (Pattern pattern : get(path)) {
+				if (pattern.matchesStart(path)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean matchesAllUnder(String path) {
+			for (Pattern pattern : get(path)) {
+				if (pattern.matchesAllUnder(path)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private Pattern[] get(String path) {
+			return (path.startsWith("/")) ? this.rooted : this.relative;
+		}
+
 	}
 
-	private String cleanPattern(String path, String pattern) {
-		if (path.startsWith("/")) {
-			return !pattern.startsWith("/") ? "/" + pattern : pattern;
+	/**
+	 * A single compiled pattern. Literal patterns and simple {@code **}{@code /*.ext}
+	 * patterns are matched directly, all others delegate to the {@link AntPathMatcher}.
+	 */
+	private static final class Pattern {
+
+		private static final String ANY_FILE_PREFIX = "**/*";
+
+		private static final String ANY_PATH_SUFFIX = "/**";
+
+		private final String pattern;
+
+		private final boolean literal;
+
+		private final String fileSuffix;
+
+		private final String treePattern;
+
+		Pattern(String pattern) {
+			this.pattern = pattern;
+			this.literal = !pathMatcher.isPattern(pattern);
+			this.fileSuffix = getFileSuffix(pattern);
+			this.treePattern = getTreePattern(pattern);
+		}
+
+		private static String getFileSuffix(String pattern) {
+			int index = pattern.indexOf(ANY_FILE_PREFIX);
+			if (index != 0 && !(index == 1 && pattern.charAt(0) == '/')) {
+				return null;
+			}
+			String suffix = pattern.substring(index + ANY_FILE_PREFIX.length());
+			return (!suffix.contains("/") && !pathMatcher.isPattern(suffix)) ? suffix : null;
+		}
+
+		private static String getTreePattern(String pattern) {
+			if (pattern.equals("**") || pattern.equals("/**")) {
+				return pattern;
+			}
+			return (pattern.endsWith(ANY_PATH_SUFFIX))
+					? pattern.substring(0, pattern.length() - ANY_PATH_SUFFIX.length()) : null;
 		}
-		return pattern.startsWith("/") ? pattern.substring(1) : pattern;
+
+		boolean matches(String path) {
+			if (this.literal) {
+				return this.pattern.equals(path);
+			}
+			if (this.fileSuffix != null) {
+				return path.endsWith(this.fileSuffix);
+			}
+			return pathMatcher.match(this.pattern, path);
+		}
+
+		boolean matchesStart(String path) {
+			if (this.literal) {
+				return this.pattern.startsWith(path) && this.pattern.length() > path.length()
+						&& this.pattern.charAt(path.length()) == '/';
+			}
+			return this.fileSuffix != null || pathMatcher.matchStart(this.pattern, path);
+		}
+
+		boolean matchesAllUnder(String path) {
+			return this.treePattern != null && pathMatcher.match(this.treePattern, path);
+		}
+
 	}
 
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+
+import io.spring.concourse.artifactoryresource.system.ConsoleLogger;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * An optional JDK Flight Recorder recording that captures a run of the resource
+ * together with the {@link ResourceEvent resource events}.
+ *
+ * @author agent
+ */
+public final class FlightRecording {
+
+	/**
+	 * The name of the file that recordings are saved to.
+	 */
+	public static final String FILE_NAME = "artifactory-resource.jfr";
+
+	private static final ConsoleLogger console = new ConsoleLogger();
+
+	private static final FlightRecording NONE = new FlightRecording(null);
+
+	private final Recording recording;
+
+	private FlightRecording(Recording recording) {
+		this.recording = recording;
+	}
+
+	/**
+	 * Stop the recording and save it to the given directory. Does nothing if recording
+	 * was not started.
+	 * @param directory the destination directory
+	 */
+	public void stop(File directory) {
+		if (this.recording == null) {
+			return;
+		}
+		File destination = new File(directory, FILE_NAME);
+		try (Recording recording = this.recording) {
+			recording.stop();
+			recording.dump(destination.toPath());
+			console.log("Saved flight recording to {}", destination);
+		}
+		catch (IOException ex) {
+			console.log("Unable to save flight recording to {} ({})", destination, ex.getMessage());
+		}
+	}
+
+	/**
+	 * Start a new recording if {@code enabled} is {@code true}.
+	 * @param enabled if a recording should be started
+	 * @return the {@link FlightRecording} (never {@code null})
+	 */
+	public static FlightRecording start(boolean enabled) {
+		if (!enabled) {
+			return NONE;
+		}
+		try {
+			Recording recording = new Recording(Configuration.getConfiguration("profile"));
+			recording.setName("artifactory-resource");
+			recording.start();
+			return new FlightRecording(recording);
+		}
+		catch (IOException | ParseException | RuntimeException ex) {
+			console.log("Unable to start flight recording ({})", ex.getMessage());
+			return NONE;
+		}
+	}
+
+}
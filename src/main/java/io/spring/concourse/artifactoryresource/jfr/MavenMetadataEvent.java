@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link ResourceEvent} recorded when Maven metadata is generated.
+ *
+ * @author agent
+ */
+@Name("io.spring.concourse.artifactoryresource.MavenMetadata")
+@Label("Maven Metadata")
+@Description("Generation of Maven metadata files")
+public final class MavenMetadataEvent extends ResourceEvent {
+
+	@Label("POM Files")
+	private int files;
+
+	public MavenMetadataEvent(String path) {
+		super(path);
+	}
+
+	/**
+	 * Set the number of POM files processed.
+	 * @param files the number of POM files
+	 */
+	public void setFiles(int files) {
+		this.files = files;
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class for JDK Flight Recorder events emitted by the resource. Each event
+ * carries the path being worked on, the number of bytes processed and the outcome.
+ *
+ * @author agent
+ */
+@Category("Artifactory Resource")
+public abstract class ResourceEvent extends Event {
+
+	// Fields are protected since JFR only records non-private fields of super classes
+
+	@Label("Path")
+	protected String path;
+
+	@Label("Bytes")
+	@DataAmount
+	protected long bytes;
+
+	@Label("Outcome")
+	protected String outcome;
+
+	ResourceEvent(String path) {
+		this.path = path;
+	}
+
+	/**
+	 * Set the number of bytes processed.
+	 * @param bytes the number of bytes
+	 */
+	public void setBytes(long bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Set the outcome of the event. If no outcome is set then either {@code success} or
+	 * the simple name of the thrown exception will be used.
+	 * @param outcome the outcome
+	 */
+	public void setOutcome(String outcome) {
+		this.outcome = outcome;
+	}
+
+	/**
+	 * Record the given action, timing it and committing the event once it completes.
+	 * @param <T> the result type
+	 * @param <E> the exception type
+	 * @param action the action to record
+	 * @return the result of the action
+	 * @throws E if the action fails
+	 */
+	public <T, E extends Exception> T record(Action<T, E> action) throws E {
+		begin();
+		try {
+			T result = action.run();
+			complete("success");
+			return result;
+		}
+		catch (Exception ex) {
+			complete(ex.getClass().getSimpleName());
+			throw ex;
+		}
+	}
+
+	private void complete(String outcome) {
+		end();
+		if (shouldCommit()) {
+			this.outcome = (this.outcome != null) ? this.outcome : outcome;
+			commit();
+		}
+	}
+
+	/**
+	 * An action that can be recorded.
+	 *
+	 * @param <T> the result type
+	 * @param <E> the exception type
+	 */
+	@FunctionalInterface
+	public interface Action<T, E extends Exception> {
+
+		/**
+		 * Run the action.
+		 * @return the action result
+		 * @throws E if the action fails
+		 */
+		T run() throws E;
+
+	}
+
+}
@@ -25,8 +25,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import io.spring.concourse.artifactoryresource.artifactory.BuildModulesGenerator;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildArtifact;
@@ -58,8 +56,6 @@ public class MavenBuildModulesGenerator implements BuildModulesGenerator {
 	private static final Set<String> IGNORED = Collections
 		.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("md5", "sha")));
 
-	private static Pattern PATH_PATTERN = Pattern.compile("\\/(.*)\\/(.*)\\/(.*)\\/(.*)");
-
 	@Override
 	public List<BuildModule> getBuildModules(List<DeployableArtifact> deployableArtifacts) {
 		List<BuildModule> buildModules = new ArrayList<>();
@@ -72,9 +68,9 @@ public class MavenBuildModulesGenerator implements BuildModulesGenerator {
 		MultiValueMap<String, BuildArtifact> buildArtifacts = new LinkedMultiValueMap<>();
 		deployableArtifacts.forEach((deployableArtifact) -> {
 			try {
-				String id = getArtifactId(deployableArtifact);
-				getBuildArtifact(deployableArtifact)
-					.ifPresent((buildArtifact) -> buildArtifacts.add(id, buildArtifact));
+				MavenPath mavenPath = getMavenPath(deployableArtifact);
+				getBuildArtifact(deployableArtifact, mavenPath.getName())
+					.ifPresent((buildArtifact) -> buildArtifacts.add(mavenPath.getModuleId(), buildArtifact));
 			}
 			catch (Exception ex) {
 				// Ignore and don't add as a module
@@ -83,17 +79,7 @@ public class MavenBuildModulesGenerator implements BuildModulesGenerator {
 		return buildArtifacts;
 	}
 
-	private String getArtifactId(DeployableArtifact deployableArtifact) {
-		Matcher pathMatcher = getPathMatcher(deployableArtifact);
-		String groupId = pathMatcher.group(1).replace('/', '.');
-		String artifactId = pathMatcher.group(2);
-		String version = pathMatcher.group(3);
-		return groupId + ":" + artifactId + ":" + version;
-	}
-
-	private Optional<BuildArtifact> getBuildArtifact(DeployableArtifact deployableArtifact) {
-		Matcher pathMatcher = getPathMatcher(deployableArtifact);
-		String filename = pathMatcher.group(4);
+	private Optional<BuildArtifact> getBuildArtifact(DeployableArtifact deployableArtifact, String filename) {
 		String type = getType(filename);
 		if (type == null) {
 			return Optional.empty();
@@ -115,11 +101,10 @@ public class MavenBuildModulesGenerator implements BuildModulesGenerator {
 		return extension;
 	}
 
-	private Matcher getPathMatcher(DeployableArtifact deployableArtifact) {
+	private MavenPath getMavenPath(DeployableArtifact deployableArtifact) {
 		String path = deployableArtifact.getPath();
-		Matcher matcher = PATH_PATTERN.matcher(path);
-		Assert.state(matcher.matches(), "Invalid path " + path);
-		return matcher;
+		Assert.state(path.startsWith("/"), () -> "Invalid path " + path);
+		return MavenPath.parse(path);
 	}
 
 }
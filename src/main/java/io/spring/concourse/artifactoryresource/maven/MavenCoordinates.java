@@ -17,11 +17,8 @@
 package io.spring.concourse.artifactoryresource.maven;
 
 import java.util.Comparator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.springframework.util.Assert;
-import org.springframework.util.StringUtils;
 
 /**
  * Maven coordinates (group/artifact/version etc).
@@ -32,11 +29,7 @@ public final class MavenCoordinates implements Comparable<MavenCoordinates> {
 
 	private static final String SNAPSHOT = "SNAPSHOT";
 
-	private static final String SNAPSHOT_SUFFIX = "-" + SNAPSHOT;
-
-	private static final Pattern FOLDER_PATTERN = Pattern.compile("(.*)\\/(.*)\\/(.*)\\/(.*)");
-
-	private static final Pattern VERSION_FILE_PATTERN = Pattern.compile("^([0-9]{8}.[0-9]{6})-([0-9]+)(.*)$");
+	private static final int TIMESTAMP_LENGTH = "yyyyMMdd.HHmmss".length();
 
 	private final String groupId;
 
@@ -110,51 +103,84 @@ public final class MavenCoordinates implements Comparable<MavenCoordinates> {
 
 	public static MavenCoordinates fromPath(String path) {
 		try {
-			if (path.startsWith("/")) {
-				path = path.substring(1);
-			}
-			Matcher folderMatcher = FOLDER_PATTERN.matcher(path);
-			Assert.state(folderMatcher.matches(), "Path does not match folder pattern");
-			String groupId = folderMatcher.group(1).replace('/', '.');
-			String artifactId = folderMatcher.group(2);
-			String version = folderMatcher.group(3);
-			String rootVersion = (version.endsWith(SNAPSHOT_SUFFIX)
-					? version.substring(0, version.length() - SNAPSHOT_SUFFIX.length()) : version);
-			String name = folderMatcher.group(4);
-			Assert.state(name.startsWith(artifactId),
-					"Name '" + name + "' does not start with artifact ID '" + artifactId + "'");
-			String snapshotVersionAndClassifier = name.substring(artifactId.length() + 1);
-			String extension = StringUtils.getFilenameExtension(snapshotVersionAndClassifier);
-			snapshotVersionAndClassifier = snapshotVersionAndClassifier.substring(0,
-					snapshotVersionAndClassifier.length() - extension.length() - 1);
-			String classifier = snapshotVersionAndClassifier;
-			if (classifier.startsWith(rootVersion)) {
-				classifier = classifier.substring(rootVersion.length());
-				classifier = stripDash(classifier);
+			MavenPath mavenPath = MavenPath.parse(path);
+			String artifactId = mavenPath.getArtifactId();
+			int nameStart = mavenPath.getNameStart();
+			Assert.state(path.startsWith(artifactId, nameStart), () -> "Name '" + mavenPath.getName()
+					+ "' does not start with artifact ID '" + artifactId + "'");
+			int start = nameStart + artifactId.length() + 1;
+			int end = path.lastIndexOf('.');
+			Assert.state(end >= start, "Name has no extension");
+			int classifierStart = start;
+			if (regionStartsWith(path, classifierStart, end, mavenPath.getRootVersion())) {
+				classifierStart = skipDash(path, classifierStart + mavenPath.getRootVersion().length(), end);
 			}
-			Matcher versionMatcher = VERSION_FILE_PATTERN.matcher(classifier);
-			if (versionMatcher.matches()) {
-				classifier = versionMatcher.group(3);
-				classifier = stripDash(classifier);
+			int timestampEnd = findTimestampEnd(path, classifierStart, end);
+			if (timestampEnd != -1) {
+				classifierStart = skipDash(path, timestampEnd, end);
 			}
-			if (classifier.startsWith(SNAPSHOT)) {
-				classifier = classifier.substring(SNAPSHOT.length());
-				classifier = stripDash(classifier);
+			if (regionStartsWith(path, classifierStart, end, SNAPSHOT)) {
+				classifierStart = skipDash(path, classifierStart + SNAPSHOT.length(), end);
 			}
-			String snapshotVersion = (classifier.isEmpty() ? snapshotVersionAndClassifier : snapshotVersionAndClassifier
-				.substring(0, snapshotVersionAndClassifier.length() - classifier.length() - 1));
-			return new MavenCoordinates(groupId, artifactId, version, classifier, extension, snapshotVersion);
+			String classifier = path.substring(classifierStart, end);
+			String extension = path.substring(end + 1);
+			String snapshotVersion = path.substring(start, (classifier.isEmpty()) ? end : classifierStart - 1);
+			return new MavenCoordinates(mavenPath.getGroupId(), artifactId, mavenPath.getVersion(), classifier,
+					extension, snapshotVersion);
 		}
 		catch (Exception ex) {
-			throw new IllegalStateException("Unable to parse maven coordinates from path '" + path + "'", ex);
+			throw new IllegalStateException(
+					"Unable to parse maven coordinates from path '" + stripLeadingSlash(path) + "'", ex);
 		}
 	}
 
-	private static String stripDash(String classifier) {
-		if (classifier.startsWith("-")) {
-			return classifier.substring(1);
+	private static boolean regionStartsWith(String path, int start, int end, String prefix) {
+		return prefix.length() <= end - start && path.startsWith(prefix, start);
+	}
+
+	private static int skipDash(String path, int index, int end) {
+		return (index < end && path.charAt(index) == '-') ? index + 1 : index;
+	}
+
+	/**
+	 * Find the end of a {@code yyyyMMdd.HHmmss-buildNumber} timestamp at the given
+	 * index.
+	 * @param path the source path
+	 * @param start the start index
+	 * @param end the end index
+	 * @return the index after the build number or {@code -1}
+	 */
+	private static int findTimestampEnd(String path, int start, int end) {
+		if (end - start < TIMESTAMP_LENGTH + 2 || !isDigits(path, start, start + 8)
+				|| !isDigits(path, start + 9, start + TIMESTAMP_LENGTH)
+				|| path.charAt(start + TIMESTAMP_LENGTH) != '-') {
+			return -1;
+		}
+		int index = start + TIMESTAMP_LENGTH + 1;
+		if (!isDigit(path.charAt(index))) {
+			return -1;
+		}
+		while (index < end && isDigit(path.charAt(index))) {
+			index++;
 		}
-		return classifier;
+		return index;
+	}
+
+	private static boolean isDigits(String path, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (!isDigit(path.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	private static String stripLeadingSlash(String path) {
+		return (path.startsWith("/")) ? path.substring(1) : path;
 	}
 
 }
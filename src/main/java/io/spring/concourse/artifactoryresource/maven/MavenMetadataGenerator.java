@@ -31,6 +31,7 @@ import io.spring.concourse.artifactoryresource.io.Checksum;
 import io.spring.concourse.artifactoryresource.io.Directory;
 import io.spring.concourse.artifactoryresource.io.DirectoryScanner;
 import io.spring.concourse.artifactoryresource.io.FileSet;
+import io.spring.concourse.artifactoryresource.jfr.MavenMetadataEvent;
 import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
 import org.apache.maven.artifact.repository.metadata.Versioning;
@@ -62,8 +63,39 @@ public class MavenMetadataGenerator {
 	}
 
 	public void generate(Directory root, boolean generateChecksums) {
-		FileSet pomFiles = this.scanner.scan(root, POM_PATTERN);
-		pomFiles.forEach((pomFile) -> generate(root, pomFile, generateChecksums));
+		MavenMetadataEvent event = new MavenMetadataEvent(root.toString());
+		event.record(() -> {
+			FileSet pomFiles = this.scanner.scan(root, POM_PATTERN);
+			int files = 0;
+			for (File pomFile : pomFiles) {
+				generate(root, pomFile, generateChecksums);
+				files++;
+			}
+			event.setFiles(files);
+			return null;
+		});
+	}
+
+	/**
+	 * Generate Maven metadata for the POM files in a single folder. Allows metadata to be
+	 * generated as soon as the files in a folder are available rather than scanning the
+	 * complete tree once all files are available.
+	 * @param root the root directory
+	 * @param folder the folder to generate metadata for
+	 * @param generateChecksums if checksums should be generated
+	 */
+	public void generate(Directory root, File folder, boolean generateChecksums) {
+		MavenMetadataEvent event = new MavenMetadataEvent(folder.toString());
+		event.record(() -> {
+			File[] pomFiles = folder.listFiles((file) -> file.isFile() && file.getName().endsWith(".pom"));
+			int files = 0;
+			for (File pomFile : (pomFiles != null) ? pomFiles : new File[0]) {
+				generate(root, pomFile, generateChecksums);
+				files++;
+			}
+			event.setFiles(files);
+			return null;
+		});
 	}
 
 	private void generate(Directory root, File pomFile, boolean generateChecksums) {
@@ -71,9 +103,9 @@ public class MavenMetadataGenerator {
 		String extension = StringUtils.getFilenameExtension(pomFile.getName());
 		String prefix = name.substring(0, name.length() - extension.length() - 1);
 		File[] files = pomFile.getParentFile().listFiles((f) -> include(f, prefix));
+		String rootPath = StringUtils.cleanPath(root.getFile().getPath());
 		MultiValueMap<File, MavenCoordinates> fileCoordinates = new LinkedMultiValueMap<>();
 		for (File file : files) {
-			String rootPath = StringUtils.cleanPath(root.getFile().getPath());
 			String relativePath = StringUtils.cleanPath(file.getPath()).substring(rootPath.length() + 1);
 			fileCoordinates.add(file.getParentFile(), MavenCoordinates.fromPath(relativePath));
 		}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.maven;
+
+import org.springframework.util.Assert;
+
+/**
+ * A Maven repository path of the form {@code group/artifact/version/name}, parsed in a
+ * single pass into offsets of the original path. Folder elements are memoised so that
+ * consecutive paths from the same version folder can be parsed without rescanning or
+ * allocating new strings.
+ *
+ * @author agent
+ */
+final class MavenPath {
+
+	private static volatile Folder lastFolder;
+
+	private final String path;
+
+	private final Folder folder;
+
+	private final int nameStart;
+
+	private MavenPath(String path, Folder folder, int nameStart) {
+		this.path = path;
+		this.folder = folder;
+		this.nameStart = nameStart;
+	}
+
+	String getPath() {
+		return this.path;
+	}
+
+	String getGroupId() {
+		return this.folder.groupId;
+	}
+
+	String getArtifactId() {
+		return this.folder.artifactId;
+	}
+
+	String getVersion() {
+		return this.folder.version;
+	}
+
+	/**
+	 * Return the version with any {@code -SNAPSHOT} suffix removed.
+	 * @return the root version
+	 */
+	String getRootVersion() {
+		return this.folder.rootVersion;
+	}
+
+	/**
+	 * Return the module ID in the form {@code groupId:artifactId:version}.
+	 * @return the module ID
+	 */
+	String getModuleId() {
+		return this.folder.moduleId;
+	}
+
+	/**
+	 * Return the offset of the file name within {@link #getPath() the path}.
+	 * @return the offset of the name
+	 */
+	int getNameStart() {
+		return this.nameStart;
+	}
+
+	String getName() {
+		return this.path.substring(this.nameStart);
+	}
+
+	/**
+	 * Parse the given path. A single leading {@code /} is ignored.
+	 * @param path the path to parse
+	 * @return the parsed path
+	 * @throws IllegalStateException if the path does not contain group, artifact and
+	 * version folders
+	 */
+	static MavenPath parse(String path) {
+		int start = (path.startsWith("/")) ? 1 : 0;
+		Folder folder = lastFolder;
+		if (folder != null && folder.contains(path, start)) {
+			return new MavenPath(path, folder, start + folder.prefix.length());
+		}
+		int nameSlash = path.lastIndexOf('/');
+		int versionSlash = path.lastIndexOf('/', nameSlash - 1);
+		int artifactSlash = path.lastIndexOf('/', versionSlash - 1);
+		Assert.state(artifactSlash >= start, "Path does not match folder pattern");
+		folder = new Folder(path, start, artifactSlash, versionSlash, nameSlash);
+		lastFolder = folder;
+		return new MavenPath(path, folder, nameSlash + 1);
+	}
+
+	/**
+	 * The group, artifact and version folder of a path.
+	 */
+	private static final class Folder {
+
+		private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+		private final String prefix;
+
+		private final String groupId;
+
+		private final String artifactId;
+
+		private final String version;
+
+		private final String rootVersion;
+
+		private final String moduleId;
+
+		Folder(String path, int start, int artifactSlash, int versionSlash, int nameSlash) {
+			this.prefix = path.substring(start, nameSlash + 1);
+			this.groupId = path.substring(start, artifactSlash).replace('/', '.');
+			this.artifactId = path.substring(artifactSlash + 1, versionSlash);
+			this.version = path.substring(versionSlash + 1, nameSlash);
+			this.rootVersion = (this.version.endsWith(SNAPSHOT_SUFFIX))
+					? this.version.substring(0, this.version.length() - SNAPSHOT_SUFFIX.length()) : this.version;
+			this.moduleId = this.groupId + ":" + this.artifactId + ":" + this.version;
+		}
+
+		boolean contains(String path, int start) {
+			int nameStart = start + this.prefix.length();
+			return path.length() >= nameStart && path.startsWith(this.prefix, start)
+					&& path.indexOf('/', nameStart) == -1;
+		}
+
+	}
+
+}
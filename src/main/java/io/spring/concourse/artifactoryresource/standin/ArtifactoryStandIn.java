@@ -0,0 +1,689 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.standin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.spring.concourse.artifactoryresource.io.Checksum;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * A lightweight in-process HTTP stand-in for an Artifactory server. Supports the subset
+ * of the Artifactory REST API used by the resource, namely deploys (including matrix
+ * params and checksum deploys), downloads, build info publishing and retrieval, AQL
+ * searches and admin detection. Request bodies may be gzip encoded and search results are
+ * gzip encoded when the client accepts it. Latency, bandwidth limits, capacity limits
+ * and failures can be injected using {@link StandInSettings}.
+ *
+ * @author agent
+ */
+public class ArtifactoryStandIn implements Closeable {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	private static final Pattern AQL_PATTERN = Pattern
+		.compile("^(items|builds)\\.find\\((\\{.*?\\})\\)((?:\\.\\w+\\([^)]*\\))*)$", Pattern.DOTALL);
+
+	private static final Pattern AQL_MODIFIER_PATTERN = Pattern.compile("\\.(\\w+)\\(([^)]*)\\)");
+
+	private static final PathMatcher pathMatcher = new AntPathMatcher();
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final StandInSettings settings;
+
+	private final Map<String, Item> items = new ConcurrentHashMap<>();
+
+	private final Map<String, byte[]> contentBySha1 = new ConcurrentHashMap<>();
+
+	private final Map<String, Map<String, Build>> builds = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+	private final LongAdder injectedFailures = new LongAdder();
+
+	private final LongAdder rejectedRequests = new LongAdder();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicInteger peakInFlight = new AtomicInteger();
+
+	private final Random random = new Random(0);
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	/**
+	 * Create a new {@link ArtifactoryStandIn} instance with default settings.
+	 */
+	public ArtifactoryStandIn() {
+		this(StandInSettings.DEFAULT);
+	}
+
+	/**
+	 * Create a new {@link ArtifactoryStandIn} instance.
+	 * @param settings the settings to use
+	 */
+	public ArtifactoryStandIn(StandInSettings settings) {
+		Assert.notNull(settings, "Settings must not be null");
+		this.settings = settings;
+	}
+
+	/**
+	 * Start the stand-in on an ephemeral port.
+	 * @throws IOException on IO error
+	 */
+	public void start() throws IOException {
+		start(0);
+	}
+
+	/**
+	 * Start the stand-in on the given port.
+	 * @param port the port to listen on or {@code 0} to use an ephemeral port
+	 * @throws IOException on IO error
+	 */
+	public synchronized void start(int port) throws IOException {
+		Assert.state(this.server == null, "Stand-in already started");
+		this.executor = Executors.newCachedThreadPool((runnable) -> {
+			Thread thread = new Thread(runnable, "artifactory-stand-in");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.server.setExecutor(this.executor);
+		this.server.createContext("/", this::handle);
+		this.server.start();
+	}
+
+	/**
+	 * Stop the stand-in.
+	 */
+	public synchronized void stop() {
+		if (this.server != null) {
+			this.server.stop(0);
+			this.executor.shutdownNow();
+			this.server = null;
+			this.executor = null;
+		}
+	}
+
+	@Override
+	public void close() {
+		stop();
+	}
+
+	/**
+	 * Return the URI of the running stand-in.
+	 * @return the URI
+	 */
+	public synchronized URI getUri() {
+		Assert.state(this.server != null, "Stand-in has not been started");
+		InetSocketAddress address = this.server.getAddress();
+		return URI.create("http://" + address.getHostString() + ":" + address.getPort() + "/");
+	}
+
+	/**
+	 * Return the settings in use.
+	 * @return the settings
+	 */
+	public StandInSettings getSettings() {
+		return this.settings;
+	}
+
+	/**
+	 * Return the number of requests received, keyed by HTTP method.
+	 * @return the request counts
+	 */
+	public Map<String, Long> getRequestCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		this.requests.forEach((method, count) -> counts.put(method, count.sum()));
+		return Collections.unmodifiableMap(counts);
+	}
+
+	/**
+	 * Return the number of failures that have been injected.
+	 * @return the number of injected failures
+	 */
+	public long getInjectedFailures() {
+		return this.injectedFailures.sum();
+	}
+
+	/**
+	 * Return the number of requests rejected because the stand-in was over capacity.
+	 * @return the number of rejected requests
+	 */
+	public long getRejectedRequests() {
+		return this.rejectedRequests.sum();
+	}
+
+	/**
+	 * Return the highest number of requests that were accepted and handled
+	 * concurrently.
+	 * @return the peak number of concurrent requests
+	 */
+	public int getPeakConcurrentRequests() {
+		return this.peakInFlight.get();
+	}
+
+	/**
+	 * Return the paths of all deployed items in the form {@code repo/path}.
+	 * @return the deployed item paths
+	 */
+	public List<String> getDeployedPaths() {
+		return this.items.keySet().stream().sorted().toList();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		int inFlight = this.inFlight.incrementAndGet();
+		try {
+			String method = exchange.getRequestMethod();
+			this.requests.computeIfAbsent(method, (key) -> new LongAdder()).increment();
+			sleep(this.settings.getLatency().toNanos());
+			byte[] body = read(exchange.getRequestBody());
+			int capacity = this.settings.getCapacity();
+			if (capacity > 0 && inFlight > capacity) {
+				this.rejectedRequests.increment();
+				sendError(exchange, 503, "Over capacity");
+				return;
+			}
+			this.peakInFlight.accumulateAndGet(inFlight, Math::max);
+			if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+				body = new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes();
+			}
+			if (shouldInjectFailure()) {
+				this.injectedFailures.increment();
+				sendError(exchange, this.settings.getFailureStatus(), "Injected failure");
+				return;
+			}
+			route(exchange, method, body);
+		}
+		catch (RuntimeException ex) {
+			sendError(exchange, 500, ex.getMessage());
+		}
+		finally {
+			this.inFlight.decrementAndGet();
+			exchange.close();
+		}
+	}
+
+	private void route(HttpExchange exchange, String method, byte[] body) throws IOException {
+		String path = exchange.getRequestURI().getRawPath();
+		if (path.startsWith("/api/system/service_id")) {
+			handleServiceId(exchange);
+		}
+		else if (path.equals("/api/search/aql") && "POST".equals(method)) {
+			handleSearch(exchange, new String(body, StandardCharsets.UTF_8));
+		}
+		else if (path.equals("/api/build") && "PUT".equals(method)) {
+			handleAddBuild(exchange, body);
+		}
+		else if (path.startsWith("/api/build/") && "GET".equals(method)) {
+			handleGetBuild(exchange, path.substring("/api/build/".length()));
+		}
+		else if ("PUT".equals(method)) {
+			handleDeploy(exchange, path, body);
+		}
+		else if ("GET".equals(method) || "HEAD".equals(method)) {
+			handleDownload(exchange, decode(path.substring(1)), "HEAD".equals(method));
+		}
+		else {
+			sendError(exchange, 405, "Method not allowed");
+		}
+	}
+
+	private void handleServiceId(HttpExchange exchange) throws IOException {
+		if (!this.settings.isAdmin()) {
+			sendError(exchange, 403, "Forbidden");
+			return;
+		}
+		send(exchange, 200, "text/plain", "jfrt@stand-in".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void handleDeploy(HttpExchange exchange, String rawPath, byte[] body) throws IOException {
+		String[] segments = rawPath.split(";");
+		String path = decode(StringUtils.trimLeadingCharacter(segments[0], '/'));
+		Map<String, String> properties = new LinkedHashMap<>();
+		for (int i = 1; i < segments.length; i++) {
+			String[] pair = segments[i].split("=", 2);
+			properties.put(decode(pair[0]), (pair.length > 1) ? decode(pair[1]) : "");
+		}
+		String expectedSha1 = exchange.getRequestHeaders().getFirst("X-Checksum-Sha1");
+		byte[] content = body;
+		if (Boolean.parseBoolean(exchange.getRequestHeaders().getFirst("X-Checksum-Deploy"))) {
+			content = (expectedSha1 != null) ? this.contentBySha1.get(expectedSha1) : null;
+			if (content == null) {
+				sendError(exchange, 404, "Checksum deploy failed, no content with SHA-1 " + expectedSha1);
+				return;
+			}
+		}
+		Map<Checksum, String> checksums = Checksum.calculateAll(new ByteArrayResource(content));
+		String sha1 = checksums.get(Checksum.SHA1);
+		if (expectedSha1 != null && !expectedSha1.equals(sha1)) {
+			sendError(exchange, 409, "Checksum mismatch, expected " + expectedSha1 + " but was " + sha1);
+			return;
+		}
+		this.contentBySha1.putIfAbsent(sha1, content);
+		this.items.put(path, new Item(path, content, checksums, properties));
+		ObjectNode response = objectMapper.createObjectNode();
+		response.put("path", "/" + path);
+		response.put("size", Integer.toString(content.length));
+		send(exchange, 201, "application/json", objectMapper.writeValueAsBytes(response));
+	}
+
+	private void handleDownload(HttpExchange exchange, String path, boolean head) throws IOException {
+		byte[] content = getContent(path);
+		if (content == null) {
+			sendError(exchange, 404, "Not found");
+			return;
+		}
+		exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+		exchange.sendResponseHeaders(200, (head) ? -1 : content.length);
+		if (!head) {
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				write(content, outputStream);
+			}
+		}
+	}
+
+	private byte[] getContent(String path) {
+		Item item = this.items.get(path);
+		if (item != null) {
+			return item.content;
+		}
+		for (Checksum checksum : Checksum.values()) {
+			String extension = checksum.getFileExtension();
+			if (path.endsWith(extension)) {
+				item = this.items.get(path.substring(0, path.length() - extension.length()));
+				if (item != null) {
+					return item.checksums.get(checksum).getBytes(StandardCharsets.UTF_8);
+				}
+			}
+		}
+		return null;
+	}
+
+	private void handleAddBuild(HttpExchange exchange, byte[] body) throws IOException {
+		JsonNode buildInfo = objectMapper.readTree(body);
+		String name = buildInfo.path("name").asText();
+		String number = buildInfo.path("number").asText();
+		String started = buildInfo.path("started").asText();
+		Assert.isTrue(StringUtils.hasText(name) && StringUtils.hasText(number), "Build name and number required");
+		this.builds.computeIfAbsent(name, (key) -> Collections.synchronizedMap(new LinkedHashMap<>()))
+			.put(number, new Build(number, started, buildInfo));
+		send(exchange, 204, null, null);
+	}
+
+	private void handleGetBuild(HttpExchange exchange, String rawPath) throws IOException {
+		String[] segments = rawPath.split("/");
+		Map<String, Build> builds = this.builds.getOrDefault(decode(segments[0]), Collections.emptyMap());
+		ObjectNode response = objectMapper.createObjectNode();
+		response.put("uri", getUri() + "api/build/" + rawPath);
+		if (segments.length == 1) {
+			ArrayNode buildsNumbers = response.putArray("buildsNumbers");
+			synchronized (builds) {
+				builds.values().forEach((build) -> buildsNumbers.addObject()
+					.put("uri", "/" + build.number)
+					.put("started", build.started));
+			}
+		}
+		else {
+			Build build = builds.get(decode(segments[1]));
+			if (build == null) {
+				sendError(exchange, 404, "No build was found for build number: " + decode(segments[1]));
+				return;
+			}
+			response.set("buildInfo", build.buildInfo);
+		}
+		send(exchange, 200, "application/json", objectMapper.writeValueAsBytes(response));
+	}
+
+	private void handleSearch(HttpExchange exchange, String query) throws IOException {
+		Matcher matcher = AQL_PATTERN.matcher(query.trim());
+		if (!matcher.matches()) {
+			sendError(exchange, 400, "Unsupported AQL query: " + query);
+			return;
+		}
+		JsonNode criteria = objectMapper.readTree(matcher.group(2));
+		List<ObjectNode> results = ("items".equals(matcher.group(1))) ? findItems(criteria) : findBuilds(criteria);
+		JsonNode include = null;
+		int offset = 0;
+		int limit = Integer.MAX_VALUE;
+		Matcher modifiers = AQL_MODIFIER_PATTERN.matcher(matcher.group(3));
+		while (modifiers.find()) {
+			String modifier = modifiers.group(1);
+			String argument = modifiers.group(2).trim();
+			if ("include".equals(modifier)) {
+				include = objectMapper.readTree("[" + argument + "]");
+			}
+			else if ("sort".equals(modifier)) {
+				results.sort(getComparator(objectMapper.readTree(argument)));
+			}
+			else if ("offset".equals(modifier)) {
+				offset = Integer.parseInt(argument);
+			}
+			else if ("limit".equals(modifier)) {
+				limit = Integer.parseInt(argument);
+			}
+			else {
+				sendError(exchange, 400, "Unsupported AQL modifier: " + modifier);
+				return;
+			}
+		}
+		results = results.subList(Math.min(offset, results.size()),
+				(int) Math.min((long) offset + limit, results.size()));
+		ObjectNode response = objectMapper.createObjectNode();
+		ArrayNode resultsArray = response.putArray("results");
+		for (ObjectNode result : results) {
+			resultsArray.add((include != null) ? project(result, include) : result);
+		}
+		response.putObject("range")
+			.put("start_pos", offset)
+			.put("end_pos", offset + results.size())
+			.put("total", results.size());
+		byte[] content = objectMapper.writeValueAsBytes(response);
+		String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+			exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			content = gzip(content);
+		}
+		send(exchange, 200, "application/json", content);
+	}
+
+	private Comparator<ObjectNode> getComparator(JsonNode sort) {
+		Comparator<ObjectNode> comparator = (left, right) -> 0;
+		for (JsonNode field : sort.path("$asc")) {
+			comparator = comparator.thenComparing((result) -> result.path(field.asText()).asText());
+		}
+		for (JsonNode field : sort.path("$desc")) {
+			comparator = comparator.thenComparing((result) -> result.path(field.asText()).asText(),
+					Comparator.reverseOrder());
+		}
+		return comparator;
+	}
+
+	private ObjectNode project(ObjectNode result, JsonNode include) {
+		ObjectNode projected = objectMapper.createObjectNode();
+		for (JsonNode field : include) {
+			JsonNode value = result.get(field.asText());
+			if (value != null) {
+				projected.set(field.asText(), value);
+			}
+		}
+		return projected;
+	}
+
+	private byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+			gzipOutputStream.write(content);
+		}
+		return outputStream.toByteArray();
+	}
+
+	private List<ObjectNode> findItems(JsonNode criteria) {
+		List<ObjectNode> results = new ArrayList<>();
+		this.items.values().stream().filter((item) -> item.matches(criteria)).forEach((item) -> {
+			int lastSlash = item.path.lastIndexOf('/');
+			int firstSlash = item.path.indexOf('/');
+			results.add(objectMapper.createObjectNode()
+				.put("repo", item.path.substring(0, firstSlash))
+				.put("path", (lastSlash > firstSlash) ? item.path.substring(firstSlash + 1, lastSlash) : ".")
+				.put("name", item.path.substring(lastSlash + 1))
+				.put("type", "file")
+				.put("size", item.content.length)
+				.put("actual_sha1", item.checksums.get(Checksum.SHA1))
+				.put("created", item.created.toString())
+				.put("modified", item.created.toString())
+				.put("updated", item.created.toString()));
+		});
+		return results;
+	}
+
+	private List<ObjectNode> findBuilds(JsonNode criteria) {
+		List<ObjectNode> results = new ArrayList<>();
+		Map<String, Build> builds = this.builds.getOrDefault(criteria.path("name").asText(), Collections.emptyMap());
+		synchronized (builds) {
+			builds.values()
+				.stream()
+				.filter((build) -> build.matches(criteria))
+				.forEach((build) -> results.add(objectMapper.createObjectNode()
+					.put("build.number", build.number)
+					.put("build.started", build.started)));
+		}
+		return results;
+	}
+
+	private boolean shouldInjectFailure() {
+		double failureRate = this.settings.getFailureRate();
+		if (failureRate <= 0) {
+			return false;
+		}
+		synchronized (this.random) {
+			return this.random.nextDouble() < failureRate;
+		}
+	}
+
+	private byte[] read(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		long start = System.nanoTime();
+		long total = 0;
+		int read;
+		while ((read = inputStream.read(buffer)) != -1) {
+			outputStream.write(buffer, 0, read);
+			total += read;
+			throttle(start, total);
+		}
+		return outputStream.toByteArray();
+	}
+
+	private void write(byte[] content, OutputStream outputStream) throws IOException {
+		long start = System.nanoTime();
+		for (int offset = 0; offset < content.length; offset += BUFFER_SIZE) {
+			int length = Math.min(BUFFER_SIZE, content.length - offset);
+			outputStream.write(content, offset, length);
+			throttle(start, offset + length);
+		}
+	}
+
+	private void throttle(long start, long bytes) {
+		long bandwidth = this.settings.getBandwidth();
+		if (bandwidth > 0) {
+			long expected = (long) (bytes * (TimeUnit.SECONDS.toNanos(1) / (double) bandwidth));
+			sleep(expected - (System.nanoTime() - start));
+		}
+	}
+
+	private void sleep(long nanos) {
+		if (nanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(nanos);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		ObjectNode response = objectMapper.createObjectNode();
+		response.putArray("errors").addObject().put("status", status).put("message", message);
+		send(exchange, status, "application/json", objectMapper.writeValueAsBytes(response));
+	}
+
+	private void send(HttpExchange exchange, int status, String contentType, byte[] content) throws IOException {
+		if (contentType != null) {
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+		}
+		boolean hasContent = content != null && !"HEAD".equals(exchange.getRequestMethod());
+		exchange.sendResponseHeaders(status, (hasContent) ? content.length : -1);
+		if (hasContent) {
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				write(content, outputStream);
+			}
+		}
+	}
+
+	private static String decode(String value) {
+		return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * A deployed item.
+	 */
+	private static final class Item {
+
+		private final String path;
+
+		private final byte[] content;
+
+		private final Map<Checksum, String> checksums;
+
+		private final Map<String, String> properties;
+
+		private final Instant created = Instant.now();
+
+		Item(String path, byte[] content, Map<Checksum, String> checksums, Map<String, String> properties) {
+			this.path = path;
+			this.content = content;
+			this.checksums = checksums;
+			this.properties = properties;
+		}
+
+		boolean matches(JsonNode criteria) {
+			Iterator<Map.Entry<String, JsonNode>> fields = criteria.fields();
+			while (fields.hasNext()) {
+				Map.Entry<String, JsonNode> entry = fields.next();
+				if (!matches(entry.getKey(), entry.getValue())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean matches(String field, JsonNode criteria) {
+			if ("$and".equals(field)) {
+				for (JsonNode element : criteria) {
+					if (!matches(element)) {
+						return false;
+					}
+				}
+				return true;
+			}
+			if ("$or".equals(field)) {
+				for (JsonNode element : criteria) {
+					if (matches(element)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			if ("name".equals(field)) {
+				String name = this.path.substring(this.path.lastIndexOf('/') + 1);
+				if (criteria.has("$match")) {
+					return pathMatcher.match(criteria.get("$match").asText(), name);
+				}
+				if (criteria.has("$nmatch")) {
+					return !pathMatcher.match(criteria.get("$nmatch").asText(), name);
+				}
+				return criteria.asText().equals(name);
+			}
+			String actual = (field.startsWith("@")) ? this.properties.get(field.substring(1)) : null;
+			return criteria.asText().equals(actual);
+		}
+
+	}
+
+	/**
+	 * A published build.
+	 */
+	private static final class Build {
+
+		private final String number;
+
+		private final String started;
+
+		private final JsonNode buildInfo;
+
+		Build(String number, String started, JsonNode buildInfo) {
+			this.number = number;
+			this.started = started;
+			this.buildInfo = buildInfo;
+		}
+
+		boolean matches(JsonNode criteria) {
+			JsonNode number = criteria.path("number");
+			if (number.has("$match")) {
+				String pattern = number.get("$match").asText();
+				if (!this.number.startsWith(StringUtils.trimTrailingCharacter(pattern, '*'))) {
+					return false;
+				}
+			}
+			JsonNode started = criteria.path("started");
+			if (started.has("$gte")) {
+				Instant startedOnOrAfter = Instant.parse(started.get("$gte").asText());
+				if (Instant.parse(this.started).isBefore(startedOnOrAfter)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
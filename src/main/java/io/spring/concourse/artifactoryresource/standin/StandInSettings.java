@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.standin;
+
+import java.time.Duration;
+
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.Assert;
+
+/**
+ * Settings used to control how an {@link ArtifactoryStandIn} responds to requests.
+ * Instances are immutable, {@code with...} methods return a new instance.
+ *
+ * @author agent
+ */
+public final class StandInSettings {
+
+	/**
+	 * Default settings with no latency, unlimited bandwidth and capacity and no failures.
+	 */
+	public static final StandInSettings DEFAULT = new StandInSettings(Duration.ZERO, 0, 0, 503, true, 0);
+
+	private final Duration latency;
+
+	private final long bandwidth;
+
+	private final double failureRate;
+
+	private final int failureStatus;
+
+	private final boolean admin;
+
+	private final int capacity;
+
+	private StandInSettings(Duration latency, long bandwidth, double failureRate, int failureStatus, boolean admin,
+			int capacity) {
+		this.latency = latency;
+		this.bandwidth = bandwidth;
+		this.failureRate = failureRate;
+		this.failureStatus = failureStatus;
+		this.admin = admin;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Return the latency added before each request is handled.
+	 * @return the latency
+	 */
+	public Duration getLatency() {
+		return this.latency;
+	}
+
+	/**
+	 * Return the bandwidth limit applied to each request and response body in bytes
+	 * per second or {@code 0} if bandwidth is unlimited.
+	 * @return the bandwidth limit
+	 */
+	public long getBandwidth() {
+		return this.bandwidth;
+	}
+
+	/**
+	 * Return the rate (between {@code 0.0} and {@code 1.0}) of requests that should
+	 * fail.
+	 * @return the failure rate
+	 */
+	public double getFailureRate() {
+		return this.failureRate;
+	}
+
+	/**
+	 * Return the HTTP status used for injected failures.
+	 * @return the failure status
+	 */
+	public int getFailureStatus() {
+		return this.failureStatus;
+	}
+
+	/**
+	 * Return if the stand-in should behave as if the user has admin rights.
+	 * @return if the user is an admin
+	 */
+	public boolean isAdmin() {
+		return this.admin;
+	}
+
+	/**
+	 * Return the maximum number of requests that can be handled concurrently before the
+	 * stand-in responds with {@code 503 Service Unavailable} or {@code 0} if capacity is
+	 * unlimited.
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Return new settings with the given latency.
+	 * @param latency the latency added before each request is handled
+	 * @return new settings instance
+	 */
+	public StandInSettings withLatency(Duration latency) {
+		Assert.notNull(latency, "Latency must not be null");
+		Assert.isTrue(!latency.isNegative(), "Latency must not be negative");
+		return new StandInSettings(latency, this.bandwidth, this.failureRate, this.failureStatus, this.admin,
+				this.capacity);
+	}
+
+	/**
+	 * Return new settings with the given bandwidth limit.
+	 * @param bandwidth the bandwidth in bytes per second or {@code 0} for unlimited
+	 * @return new settings instance
+	 */
+	public StandInSettings withBandwidth(long bandwidth) {
+		Assert.isTrue(bandwidth >= 0, "Bandwidth must not be negative");
+		return new StandInSettings(this.latency, bandwidth, this.failureRate, this.failureStatus, this.admin,
+				this.capacity);
+	}
+
+	/**
+	 * Return new settings with the given failure injection.
+	 * @param failureRate the rate (between {@code 0.0} and {@code 1.0}) of requests that
+	 * should fail
+	 * @param failureStatus the HTTP status to use for injected failures
+	 * @return new settings instance
+	 */
+	public StandInSettings withFailures(double failureRate, int failureStatus) {
+		Assert.isTrue(failureRate >= 0 && failureRate <= 1, "Failure rate must be between 0.0 and 1.0");
+		Assert.isTrue(failureStatus >= 400 && failureStatus < 600, "Failure status must be a 4xx or 5xx code");
+		return new StandInSettings(this.latency, this.bandwidth, failureRate, failureStatus, this.admin,
+				this.capacity);
+	}
+
+	/**
+	 * Return new settings with the given admin flag.
+	 * @param admin if the stand-in should behave as if the user has admin rights
+	 * @return new settings instance
+	 */
+	public StandInSettings withAdmin(boolean admin) {
+		return new StandInSettings(this.latency, this.bandwidth, this.failureRate, this.failureStatus, admin,
+				this.capacity);
+	}
+
+	/**
+	 * Return new settings with the given capacity limit.
+	 * @param capacity the maximum number of requests that can be handled concurrently or
+	 * {@code 0} for unlimited
+	 * @return new settings instance
+	 */
+	public StandInSettings withCapacity(int capacity) {
+		Assert.isTrue(capacity >= 0, "Capacity must not be negative");
+		return new StandInSettings(this.latency, this.bandwidth, this.failureRate, this.failureStatus, this.admin,
+				capacity);
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("latency", this.latency)
+			.append("bandwidth", this.bandwidth)
+			.append("failureRate", this.failureRate)
+			.append("failureStatus", this.failureStatus)
+			.append("admin", this.admin)
+			.append("capacity", this.capacity)
+			.toString();
+	}
+
+}
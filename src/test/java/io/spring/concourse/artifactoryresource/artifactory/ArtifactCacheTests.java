@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ArtifactCache}.
+ *
+ * @author agent
+ */
+class ArtifactCacheTests {
+
+	private static final String SHA1_A = "70c881d4a26984ddce795f6f71817c9cf4480e79";
+
+	private static final String SHA1_B = "8aed1322e5450badb078e1fb60a817a1df25a2ca";
+
+	private static final String SHA1_C = "4beaad6292b7db0f9354e0d8b915ec0dbbc03a5a";
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void getWhenNotCachedReturnsFalse() {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 1024);
+		assertThat(cache.get(SHA1_A, 4, this.tempDir.resolve("out/a"))).isFalse();
+		assertThat(this.tempDir.resolve("out/a")).doesNotExist();
+		assertThat(cache.getMisses()).isOne();
+	}
+
+	@Test
+	void getWhenCachedLinksContentToDestination() throws IOException {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 1024);
+		cache.put(SHA1_A, createFile("a"));
+		assertThat(cache.get(SHA1_A, 4, this.tempDir.resolve("out/a"))).isTrue();
+		assertThat(this.tempDir.resolve("out/a")).hasContent("aaaa");
+		assertThat(cache.getHits()).isOne();
+	}
+
+	@Test
+	void getWhenSizeDiffersReturnsFalse() throws IOException {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 1024);
+		cache.put(SHA1_A, createFile("a"));
+		assertThat(cache.get(SHA1_A, 5, this.tempDir.resolve("out/a"))).isFalse();
+		assertThat(cache.getMisses()).isOne();
+	}
+
+	@Test
+	void getWhenSha1IsInvalidReturnsFalse() throws IOException {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 1024);
+		cache.put("../../escape", createFile("a"));
+		assertThat(cache.get("../../escape", 4, this.tempDir.resolve("out/a"))).isFalse();
+		assertThat(cache.get(null, 4, this.tempDir.resolve("out/a"))).isFalse();
+		assertThat(cache.getSize()).isZero();
+	}
+
+	@Test
+	void getWhenLinkedContentModifiedReturnsFalseAndDiscardsContent() throws IOException {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 1024);
+		cache.put(SHA1_A, createFile("a"));
+		Path linked = this.tempDir.resolve("out/a");
+		assertThat(cache.get(SHA1_A, 4, linked)).isTrue();
+		Files.writeString(linked, "bbbb");
+		assertThat(cache.get(SHA1_A, 4, this.tempDir.resolve("out/a2"))).isFalse();
+		assertThat(this.tempDir.resolve("out/a2")).doesNotExist();
+		assertThat(cache.getSize()).isZero();
+	}
+
+	@Test
+	void getDoesNotChangeLastModifiedTimeOfContent() throws IOException {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 1024);
+		cache.put(SHA1_A, createFile("a"));
+		Path blob = this.tempDir.resolve("cache").resolve("70").resolve(SHA1_A);
+		Files.setLastModifiedTime(blob, FileTime.fromMillis(1000));
+		assertThat(cache.get(SHA1_A, 4, this.tempDir.resolve("out/a"))).isTrue();
+		assertThat(Files.getLastModifiedTime(this.tempDir.resolve("out/a"))).isEqualTo(FileTime.fromMillis(1000));
+	}
+
+	@Test
+	void putWhenContentDoesNotMatchSha1DoesNotCache() throws IOException {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 1024);
+		cache.put(SHA1_B, createFile("a"));
+		assertThat(cache.getSize()).isZero();
+		assertThat(cache.get(SHA1_B, 4, this.tempDir.resolve("out/b"))).isFalse();
+	}
+
+	@Test
+	void putCopiesContent() throws IOException {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 1024);
+		Path source = createFile("a");
+		cache.put(SHA1_A, source);
+		Files.writeString(source, "bbbb");
+		assertThat(cache.get(SHA1_A, 4, this.tempDir.resolve("out/a"))).isTrue();
+		assertThat(this.tempDir.resolve("out/a")).hasContent("aaaa");
+	}
+
+	@Test
+	void putWhenOverSizeLimitEvictsLeastRecentlyUsed() throws IOException {
+		ArtifactCache cache = new ArtifactCache(this.tempDir.resolve("cache"), 8);
+		cache.put(SHA1_A, createFile("a"));
+		cache.put(SHA1_B, createFile("b"));
+		cache.get(SHA1_A, 4, this.tempDir.resolve("out/a"));
+		cache.put(SHA1_C, createFile("c"));
+		assertThat(cache.getSize()).isEqualTo(8);
+		assertThat(cache.getEvictions()).isOne();
+		assertThat(cache.get(SHA1_B, 4, this.tempDir.resolve("out/b"))).isFalse();
+		assertThat(cache.get(SHA1_A, 4, this.tempDir.resolve("out/a2"))).isTrue();
+		assertThat(cache.get(SHA1_C, 4, this.tempDir.resolve("out/c"))).isTrue();
+	}
+
+	@Test
+	void createReusesExistingContentInLastUsedOrder() throws IOException {
+		Path directory = this.tempDir.resolve("cache");
+		ArtifactCache cache = new ArtifactCache(directory, 1024);
+		cache.put(SHA1_A, createFile("a"));
+		cache.put(SHA1_B, createFile("b"));
+		Files.setLastModifiedTime(directory.resolve("access").resolve(SHA1_A), FileTime.fromMillis(2000));
+		Files.setLastModifiedTime(directory.resolve("access").resolve(SHA1_B), FileTime.fromMillis(1000));
+		ArtifactCache reopened = new ArtifactCache(directory, 4);
+		assertThat(reopened.getSize()).isEqualTo(4);
+		assertThat(reopened.get(SHA1_A, 4, this.tempDir.resolve("out/a"))).isTrue();
+		assertThat(directory.resolve("8a").resolve(SHA1_B)).doesNotExist();
+	}
+
+	private Path createFile(String name) throws IOException {
+		Path file = this.tempDir.resolve("files").resolve(name);
+		Files.createDirectories(file.getParent());
+		return Files.writeString(file, name.repeat(4));
+	}
+
+}
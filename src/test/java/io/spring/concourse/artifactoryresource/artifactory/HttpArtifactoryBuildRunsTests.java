@@ -16,6 +16,9 @@
 
 package io.spring.concourse.artifactoryresource.artifactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.time.Instant;
@@ -24,6 +27,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildArtifact;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildModule;
@@ -38,20 +43,29 @@ import org.skyscreamer.jsonassert.JSONAssert;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.http.client.MockClientHttpRequest;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.test.web.client.RequestMatcher;
 import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
 /**
@@ -65,6 +79,9 @@ class HttpArtifactoryBuildRunsTests {
 
 	private static final String URI = "https://repo.example.com";
 
+	private static final String EMPTY_SEARCH_RESPONSE = """
+			{"results" : [], "range" : {"start_pos" : 1, "end_pos" : 1, "total" : 0}}""";
+
 	@Autowired
 	private MockRestServiceServer server;
 
@@ -74,6 +91,9 @@ class HttpArtifactoryBuildRunsTests {
 	@Autowired
 	private Artifactory artifactory;
 
+	@Autowired
+	private RestTemplateBuilder restTemplateBuilder;
+
 	@AfterEach
 	void tearDown() {
 		this.customizer.getExpectationManagers().clear();
@@ -85,6 +105,7 @@ class HttpArtifactoryBuildRunsTests {
 		this.server.expect(requestTo("https://repo.example.com/api/build"))
 			.andExpect(method(HttpMethod.PUT))
 			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(header(HttpHeaders.CONTENT_ENCODING, "gzip"))
 			.andExpect(jsonContent(getResource("payload/build-info.json")))
 			.andRespond(withSuccess());
 		ContinuousIntegrationAgent agent = new ContinuousIntegrationAgent("Concourse", "3.0.0");
@@ -99,6 +120,54 @@ class HttpArtifactoryBuildRunsTests {
 		this.server.verify();
 	}
 
+	@Test
+	void addWhenCompressionRefusedAddsUncompressedBuildInfo() {
+		ArtifactoryBuildRuns buildRuns = buildRuns();
+		this.server.expect(requestTo("https://repo.example.com/api/build"))
+			.andExpect(method(HttpMethod.PUT))
+			.andExpect(header(HttpHeaders.CONTENT_ENCODING, "gzip"))
+			.andRespond(withStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+		this.server.expect(requestTo("https://repo.example.com/api/build"))
+			.andExpect(method(HttpMethod.PUT))
+			.andExpect(headerDoesNotExist(HttpHeaders.CONTENT_ENCODING))
+			.andExpect(jsonContent(getResource("payload/build-info.json")))
+			.andRespond(withSuccess());
+		ContinuousIntegrationAgent agent = new ContinuousIntegrationAgent("Concourse", "3.0.0");
+		BuildArtifact artifact = new BuildArtifact("jar", "a9993e364706816aba3e25717850c26c9cd0d89d",
+				"900150983cd24fb0d6963f7d28e17f72", "foo.jar");
+		List<BuildModule> modules = Collections.singletonList(
+				new BuildModule("com.example.module:my-module:1.0.0-SNAPSHOT", Collections.singletonList(artifact)));
+		Instant started = ArtifactoryDateFormat.parse("2014-09-30T12:00:19.893Z");
+		Map<String, String> properties = Collections.singletonMap("made-by", "concourse");
+		buildRuns.add(BuildNumber.of("5678"), agent, started, "https://ci.example.com", properties, modules);
+		this.server.verify();
+	}
+
+	@Test
+	void addWhenCompressedBuildInfoFailsWithServerErrorThrowsException() {
+		ArtifactoryBuildRuns buildRuns = buildRuns();
+		this.server.expect(requestTo("https://repo.example.com/api/build"))
+			.andExpect(method(HttpMethod.PUT))
+			.andExpect(header(HttpHeaders.CONTENT_ENCODING, "gzip"))
+			.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+		assertThatExceptionOfType(HttpServerErrorException.InternalServerError.class)
+			.isThrownBy(() -> buildRuns.add(BuildNumber.of("5678"), new ContinuousIntegrationAgent("Concourse", null),
+					Instant.now(), null, null, Collections.emptyList()));
+		this.server.verify();
+	}
+
+	@Test
+	void addWhenForbiddenThrowsException() {
+		ArtifactoryBuildRuns buildRuns = buildRuns();
+		this.server.expect(requestTo("https://repo.example.com/api/build"))
+			.andExpect(method(HttpMethod.PUT))
+			.andRespond(withStatus(HttpStatus.FORBIDDEN));
+		assertThatExceptionOfType(HttpClientErrorException.Forbidden.class)
+			.isThrownBy(() -> buildRuns.add(BuildNumber.of("5678"), new ContinuousIntegrationAgent("Concourse", null),
+					Instant.now(), null, null, Collections.emptyList()));
+		this.server.verify();
+	}
+
 	@Test
 	void addWithProjectAddsBuildInfo() {
 		ArtifactoryBuildRuns buildRuns = buildRuns("my-project");
@@ -298,11 +367,93 @@ class HttpArtifactoryBuildRunsTests {
 		this.server.expect(requestTo(url))
 			.andExpect(method(HttpMethod.POST))
 			.andExpect(content().contentType(MediaType.TEXT_PLAIN))
+			.andExpect(header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
 			.andExpect(bodyWithFindItemsQuery("my-build", "1234"))
+			.andExpect(bodyWithContent(".include(\"repo\", \"path\", \"name\", \"size\", \"actual_sha1\")"))
+			.andExpect(bodyWithContent(".offset(0).limit(1000)"))
 			.andRespond(withSuccess(getResource("payload/deployed-artifacts.json"), MediaType.APPLICATION_JSON));
 		List<DeployedArtifact> artifacts = buildRuns.getDeployedArtifacts(BuildNumber.of("1234"));
 		assertThat(artifacts).hasSize(1);
 		assertThat(artifacts.get(0).getModifiedBy()).isEqualTo("spring");
+		assertThat(artifacts.get(0).getActualSha1()).isEqualTo("a9993e364706816aba3e25717850c26c9cd0d89d");
+		this.server.verify();
+	}
+
+	@Test
+	void getDeployedArtifactsWhenResponseIsCompressedReturnsArtifacts() throws Exception {
+		ArtifactoryBuildRuns buildRuns = buildRuns();
+		String url = "https://repo.example.com/api/search/aql";
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+		this.server.expect(requestTo(url))
+			.andExpect(method(HttpMethod.POST))
+			.andRespond(withSuccess(gzip(getResource("payload/deployed-artifacts.json")), MediaType.APPLICATION_JSON)
+				.headers(headers));
+		List<DeployedArtifact> artifacts = buildRuns.getDeployedArtifacts(BuildNumber.of("1234"));
+		assertThat(artifacts).hasSize(1);
+		assertThat(artifacts.get(0).getName()).isEqualTo("artifactory.war");
+		this.server.verify();
+	}
+
+	@Test
+	void getDeployedArtifactsFetchesAllPages() {
+		ArtifactoryBuildRuns buildRuns = pagedBuildRuns(1);
+		String url = "https://repo.example.com/api/search/aql";
+		this.server.expect(requestTo(url))
+			.andExpect(bodyWithContent(".offset(0).limit(1)"))
+			.andRespond(withSuccess(getResource("payload/deployed-artifacts.json"), MediaType.APPLICATION_JSON));
+		this.server.expect(requestTo(url))
+			.andExpect(bodyWithContent(".offset(1).limit(1)"))
+			.andRespond(withSuccess(EMPTY_SEARCH_RESPONSE, MediaType.APPLICATION_JSON));
+		List<DeployedArtifact> artifacts = buildRuns.getDeployedArtifacts(BuildNumber.of("1234"));
+		assertThat(artifacts).hasSize(1);
+		this.server.verify();
+	}
+
+	@Test
+	void streamDeployedArtifactsFetchesPagesLazily() {
+		ArtifactoryBuildRuns buildRuns = pagedBuildRuns(1);
+		String url = "https://repo.example.com/api/search/aql";
+		this.server.expect(requestTo(url))
+			.andExpect(bodyWithContent(".offset(0).limit(1)"))
+			.andRespond(withSuccess(getResource("payload/deployed-artifacts.json"), MediaType.APPLICATION_JSON));
+		DeployedArtifact artifact = buildRuns.streamDeployedArtifacts(BuildNumber.of("1234")).findFirst().get();
+		assertThat(artifact.getName()).isEqualTo("artifactory.war");
+		this.server.verify();
+	}
+
+	@Test
+	void streamDeployedArtifactsWithNamePatternsAddsPatternsToQuery() {
+		ArtifactoryBuildRuns buildRuns = buildRuns();
+		String url = "https://repo.example.com/api/search/aql";
+		this.server.expect(requestTo(url))
+			.andExpect(bodyWithQuery("items", """
+					{"@build.name": "my-build", "@build.number": "1234",
+					"$or": [{"name": {"$match": "*.war"}}, {"name": {"$match": "*.pom"}}],
+					"$and": [{"name": {"$nmatch": "*-sources.jar"}}]}"""))
+			.andRespond(withSuccess(getResource("payload/deployed-artifacts.json"), MediaType.APPLICATION_JSON));
+		List<DeployedArtifact> artifacts = buildRuns
+			.streamDeployedArtifacts(BuildNumber.of("1234"), List.of("**/*.war", "/**/*.pom"),
+					List.of("**/*-sources.jar"))
+			.toList();
+		assertThat(artifacts).extracting(DeployedArtifact::getName).containsExactly("artifactory.war");
+		this.server.verify();
+	}
+
+	@Test
+	void streamDeployedArtifactsWithPathPatternsFiltersResults() {
+		ArtifactoryBuildRuns buildRuns = buildRuns();
+		String url = "https://repo.example.com/api/search/aql";
+		this.server.expect(requestTo(url))
+			.andExpect(bodyWithQuery("items", """
+					{"@build.name": "my-build", "@build.number": "1234",
+					"$and": [{"name": {"$nmatch": "*.pom"}}]}"""))
+			.andRespond(withSuccess(getResource("payload/deployed-artifacts.json"), MediaType.APPLICATION_JSON));
+		List<DeployedArtifact> artifacts = buildRuns
+			.streamDeployedArtifacts(BuildNumber.of("1234"), List.of("org/jfrog/**", "**/*.war"),
+					List.of("**/*.pom", "org/jfrog/artifactory/**"))
+			.toList();
+		assertThat(artifacts).isEmpty();
 		this.server.verify();
 	}
 
@@ -312,7 +463,7 @@ class HttpArtifactoryBuildRunsTests {
 	}
 
 	private RequestMatcher bodyWithQuery(String entity, String expectedCriteria) {
-		Pattern pattern = Pattern.compile(entity + "\\.find\\((.+)\\)", Pattern.DOTALL);
+		Pattern pattern = Pattern.compile(entity + "\\.find\\((\\{.+?\\})\\)(\\..+)?", Pattern.DOTALL);
 		return (request) -> {
 			String body = ((MockClientHttpRequest) request).getBodyAsString();
 			Matcher matcher = pattern.matcher(body);
@@ -332,13 +483,22 @@ class HttpArtifactoryBuildRunsTests {
 
 	private RequestMatcher jsonContent(Resource expected) {
 		return (request) -> {
-			String actualJson = ((MockClientHttpRequest) request).getBodyAsString();
+			String actualJson = getBodyAsString((MockClientHttpRequest) request);
 			String expectedJson = FileCopyUtils
 				.copyToString(new InputStreamReader(expected.getInputStream(), Charset.forName("UTF-8")));
 			assertJson(actualJson, expectedJson);
 		};
 	}
 
+	private String getBodyAsString(MockClientHttpRequest request) throws IOException {
+		if (!"gzip".equals(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+			return request.getBodyAsString();
+		}
+		try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(request.getBodyAsBytes()))) {
+			return new String(inputStream.readAllBytes(), Charset.forName("UTF-8"));
+		}
+	}
+
 	private void assertJson(String actualJson, String expectedJson) throws AssertionError {
 		try {
 			JSONAssert.assertEquals(expectedJson, actualJson, true);
@@ -348,6 +508,14 @@ class HttpArtifactoryBuildRunsTests {
 		}
 	}
 
+	private byte[] gzip(Resource resource) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+			gzipOutputStream.write(resource.getContentAsByteArray());
+		}
+		return outputStream.toByteArray();
+	}
+
 	private Resource getResource(String path) {
 		return new ClassPathResource(path, getClass());
 	}
@@ -368,6 +536,11 @@ class HttpArtifactoryBuildRunsTests {
 		return artifactoryServer(admin).buildRuns("my-build", project);
 	}
 
+	private ArtifactoryBuildRuns pagedBuildRuns(int pageSize) {
+		return new HttpArtifactoryBuildRuns(this.restTemplateBuilder.build(), URI + "/", "my-build", null, null, false,
+				pageSize);
+	}
+
 	private ArtifactoryServer artifactoryServer(boolean admin) {
 		return this.artifactory.server(URI, "admin", "password", null, null, admin);
 	}
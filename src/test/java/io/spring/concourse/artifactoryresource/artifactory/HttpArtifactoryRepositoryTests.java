@@ -18,13 +18,16 @@ package io.spring.concourse.artifactoryresource.artifactory;
 
 import java.io.File;
 import java.net.SocketException;
+import java.nio.file.Files;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableArtifact;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableByteArrayArtifact;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifact;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,6 +43,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.test.web.client.RequestMatcher;
 import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.HttpClientErrorException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -120,6 +124,16 @@ class HttpArtifactoryRepositoryTests {
 		this.server.verify();
 	}
 
+	@Test
+	void deployWhenMatrixParameterNeedsEncodingEncodesParameter() {
+		Map<String, String> properties = Collections.singletonMap("description", "a b");
+		DeployableArtifact artifact = new DeployableByteArrayArtifact("/foo/bar.jar", BYTES, properties);
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar;description=a%20b";
+		this.server.expect(requestTo(url)).andRespond(withSuccess());
+		this.artifactoryRepository.deploy(artifact);
+		this.server.verify();
+	}
+
 	@Test
 	void deployWhenChecksumMatchesDoesNotUpload() {
 		DeployableArtifact artifact = new DeployableByteArrayArtifact("/foo/bar.jar", BYTES);
@@ -162,6 +176,19 @@ class HttpArtifactoryRepositoryTests {
 		this.server.verify();
 	}
 
+	@Test
+	void deployWhenSmallFileAndForceChecksumUploadOptionUsesChecksum() {
+		DeployableArtifact artifact = new DeployableByteArrayArtifact("/foo/bar.jar", "foo".getBytes());
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		this.server.expect(requestTo(url))
+			.andExpect(method(HttpMethod.PUT))
+			.andExpect(header("X-Checksum-Deploy", "true"))
+			.andExpect(header("X-Checksum-Sha1", artifact.getChecksums().getSha1()))
+			.andRespond(withSuccess());
+		this.artifactoryRepository.deploy(artifact, DeployOption.FORCE_CHECKSUM_UPLOADS);
+		this.server.verify();
+	}
+
 	@Test
 	void deployWhenNoChecksumUploadOptionFileDoesNotUseChecksum() {
 		DeployableArtifact artifact = new DeployableByteArrayArtifact("/foo/bar.jar", BYTES);
@@ -209,6 +236,35 @@ class HttpArtifactoryRepositoryTests {
 			.withMessageStartingWith("Error deploying artifact");
 	}
 
+	@Test
+	void deployWhenFlakyAndDeferRetriesThrowsRetryableExceptionAfterSingleAttempt() {
+		DeployableArtifact artifact = new DeployableByteArrayArtifact("/foo/bar.jar", BYTES);
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		this.server.expect(requestTo(url))
+			.andExpect(header("X-Checksum-Deploy", "true"))
+			.andRespond(withStatus(HttpStatus.NOT_FOUND));
+		this.server.expect(requestTo(url)).andRespond(withStatus(HttpStatus.BAD_REQUEST));
+		assertThatExceptionOfType(RuntimeException.class)
+			.isThrownBy(() -> this.artifactoryRepository.deploy(artifact, DeployOption.DEFER_RETRIES))
+			.withMessageStartingWith("Error deploying artifact")
+			.withCauseInstanceOf(RetryableDeployException.class);
+		this.server.verify();
+	}
+
+	@Test
+	void deployWhenNotFlakyAndDeferRetriesThrowsException() {
+		DeployableArtifact artifact = new DeployableByteArrayArtifact("/foo/bar.jar", BYTES);
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		this.server.expect(requestTo(url))
+			.andExpect(header("X-Checksum-Deploy", "true"))
+			.andRespond(withStatus(HttpStatus.NOT_FOUND));
+		this.server.expect(requestTo(url)).andRespond(withStatus(HttpStatus.FORBIDDEN));
+		assertThatExceptionOfType(RuntimeException.class)
+			.isThrownBy(() -> this.artifactoryRepository.deploy(artifact, DeployOption.DEFER_RETRIES))
+			.withCauseInstanceOf(HttpClientErrorException.class);
+		this.server.verify();
+	}
+
 	private void deployWhenFlaky(boolean fail, HttpStatus flakyStatus) {
 		deployWhenFlaky(fail, withStatus(flakyStatus));
 	}
@@ -245,6 +301,38 @@ class HttpArtifactoryRepositoryTests {
 		this.server.verify();
 	}
 
+	@Test
+	void downloadWhenFileExistsReplacesFile() throws Exception {
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		expectFileDownload(url);
+		File folder = new File(this.tempDir, "foo");
+		folder.mkdirs();
+		File file = new File(folder, "bar.jar");
+		Files.writeString(file.toPath(), "partial");
+		this.artifactoryRepository.download("foo/bar.jar", this.tempDir, false);
+		assertThat(file).isEmpty();
+		assertThat(folder.list()).containsExactly("bar.jar");
+		this.server.verify();
+	}
+
+	@Test
+	void downloadWithCacheFetchesMissingArtifactAndUsesCacheForLaterDownloads() {
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		expectFileDownload(url);
+		ArtifactCache cache = new ArtifactCache(new File(this.tempDir, "cache").toPath(), 1024);
+		DeployedArtifact artifact = new DeployedArtifact("libs-snapshot-local", "bar.jar", "foo", null, 0, null, null,
+				null, null, null, "da39a3ee5e6b4b0d3255bfef95601890afd80709");
+		File first = new File(this.tempDir, "first");
+		this.artifactoryRepository.download(artifact, first, false, cache);
+		this.server.verify();
+		File second = new File(this.tempDir, "second");
+		this.artifactoryRepository.download(artifact, second, false, cache);
+		assertThat(new File(new File(first, "foo"), "bar.jar")).exists().isFile();
+		assertThat(new File(new File(second, "foo"), "bar.jar")).exists().isFile();
+		assertThat(cache.getMisses()).isOne();
+		assertThat(cache.getHits()).isOne();
+	}
+
 	@Test
 	void downloadFetchsChecksumFiles() {
 		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
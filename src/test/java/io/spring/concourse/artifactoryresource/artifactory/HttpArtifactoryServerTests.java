@@ -90,7 +90,7 @@ class HttpArtifactoryServerTests {
 	}
 
 	private HttpArtifactoryServer artifactoryServer(RestTemplate restTemplate, Boolean admin) {
-		return new HttpArtifactoryServer(restTemplate, "https://repo.example.com", null, admin);
+		return new HttpArtifactoryServer(restTemplate, "https://repo.example.com", null, admin, TransferLimits.NONE);
 	}
 
 }
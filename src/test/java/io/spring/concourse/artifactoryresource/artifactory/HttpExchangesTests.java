@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.io.File;
+import java.net.URI;
+import java.util.List;
+
+import io.spring.concourse.artifactoryresource.jfr.FlightRecording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Tests for {@link HttpExchanges}.
+ *
+ * @author agent
+ */
+class HttpExchangesTests {
+
+	private static final String EVENT_NAME = "io.spring.concourse.artifactoryresource.HttpExchange";
+
+	private static final URI TEST_URI = URI.create("https://repo.example.com/example/test.jar");
+
+	@TempDir
+	File temp;
+
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	private final MockRestServiceServer server = MockRestServiceServer.bindTo(this.restTemplate).build();
+
+	@Test
+	void getWhenSuccessfulRecordsStatusAsOutcome() throws Exception {
+		this.server.expect(requestTo(TEST_URI)).andExpect(method(HttpMethod.GET)).andRespond(withSuccess());
+		FlightRecording recording = FlightRecording.start(true);
+		HttpExchanges.get(this.restTemplate, TEST_URI, (response) -> 0);
+		recording.stop(this.temp);
+		assertThat(readOutcomes()).containsExactly("200");
+	}
+
+	@Test
+	void getWhenErrorResponseRecordsStatusAsOutcome() throws Exception {
+		this.server.expect(requestTo(TEST_URI))
+			.andExpect(method(HttpMethod.GET))
+			.andRespond(withStatus(HttpStatus.NOT_FOUND));
+		FlightRecording recording = FlightRecording.start(true);
+		assertThatExceptionOfType(HttpClientErrorException.class)
+			.isThrownBy(() -> HttpExchanges.get(this.restTemplate, TEST_URI, (response) -> 0));
+		recording.stop(this.temp);
+		assertThat(readOutcomes()).containsExactly("404");
+	}
+
+	private List<String> readOutcomes() throws Exception {
+		return RecordingFile.readAllEvents(new File(this.temp, FlightRecording.FILE_NAME).toPath())
+			.stream()
+			.filter((event) -> event.getEventType().getName().equals(EVENT_NAME))
+			.map((event) -> event.getString("outcome"))
+			.toList();
+	}
+
+}
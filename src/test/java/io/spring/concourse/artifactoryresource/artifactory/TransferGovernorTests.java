@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory;
+
+import java.time.Duration;
+
+import io.spring.concourse.artifactoryresource.artifactory.TransferGovernor.TokenBucket;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableByteArrayArtifact;
+import io.spring.concourse.artifactoryresource.standin.ArtifactoryStandIn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TransferGovernor}.
+ *
+ * @author agent
+ */
+class TransferGovernorTests {
+
+	private ArtifactoryStandIn standIn;
+
+	@BeforeEach
+	void start() throws Exception {
+		this.standIn = new ArtifactoryStandIn();
+		this.standIn.start();
+	}
+
+	@AfterEach
+	void stop() {
+		this.standIn.stop();
+	}
+
+	@Test
+	void applyWhenNotLimitedReturnsRestTemplateUnchanged() {
+		RestTemplate restTemplate = new RestTemplate();
+		ClientHttpRequestFactory requestFactory = restTemplate.getRequestFactory();
+		assertThat(TransferGovernor.apply(restTemplate, TransferLimits.NONE)).isSameAs(restTemplate);
+		assertThat(restTemplate.getRequestFactory()).isSameAs(requestFactory);
+	}
+
+	@Test
+	void applyWhenLimitedKeepsInterceptors() {
+		RestTemplate restTemplate = new RestTemplate();
+		ClientHttpRequestInterceptor interceptor = (request, body, execution) -> execution.execute(request, body);
+		restTemplate.getInterceptors().add(interceptor);
+		TransferGovernor.apply(restTemplate, new TransferLimits(1024L, null, null, null));
+		assertThat(restTemplate.getInterceptors()).containsExactly(interceptor);
+	}
+
+	@Test
+	void applyWhenUploadBandwidthLimitedThrottlesUploads() {
+		RestTemplate restTemplate = TransferGovernor.apply(new RestTemplate(),
+				new TransferLimits(32 * 1024L, null, null, null));
+		HttpArtifactoryRepository repository = new HttpArtifactoryRepository(restTemplate,
+				this.standIn.getUri().toString(), "libs-snapshot-local", Duration.ofMillis(10));
+		long start = System.nanoTime();
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-1.0.jar", new byte[64 * 1024]),
+				DeployOption.DISABLE_CHECKSUM_UPLOADS);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(800));
+		assertThat(this.standIn.getDeployedPaths()).hasSize(1);
+	}
+
+	@Test
+	void applyWhenDownloadRequestRateLimitedThrottlesRequests() {
+		RestTemplate restTemplate = TransferGovernor.apply(new RestTemplate(),
+				new TransferLimits(null, null, null, 5.0));
+		long start = System.nanoTime();
+		for (int i = 0; i < 10; i++) {
+			restTemplate.headForHeaders(this.standIn.getUri() + "api/system/service_id");
+		}
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(800));
+	}
+
+	@Test
+	void tokenBucketWhenWithinBurstDoesNotWait() throws Exception {
+		TokenBucket bucket = new TokenBucket(1000, Duration.ofSeconds(1));
+		long start = System.nanoTime();
+		bucket.acquire(1000);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+	}
+
+	@Test
+	void tokenBucketWhenOverBurstWaits() throws Exception {
+		TokenBucket bucket = new TokenBucket(1000, Duration.ZERO);
+		long start = System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			bucket.acquire(100);
+		}
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(450));
+	}
+
+}
@@ -56,6 +56,13 @@ public abstract class AbstractDeployableArtifactTests {
 		assertThat(artifact.getProperties()).isEqualTo(properties);
 	}
 
+	@Test
+	public void getPropertiesWhenPropertiesAreInternedReturnsSameInstance() throws Exception {
+		Map<String, String> properties = new PropertiesInterner().intern(Collections.singletonMap("foo", "bar"));
+		AbstractDeployableArtifact artifact = create("/foo", CONTENT, properties, null);
+		assertThat(artifact.getProperties()).isSameAs(properties);
+	}
+
 	@Test
 	public void getChecksumReturnsChecksum() throws Exception {
 		Checksums checksums = new Checksums("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa",
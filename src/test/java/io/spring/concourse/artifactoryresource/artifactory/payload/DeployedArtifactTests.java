@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory.payload;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DeployedArtifact}.
+ *
+ * @author agent
+ */
+class DeployedArtifactTests {
+
+	@Test
+	void getFullPathReturnsPathAndName() {
+		DeployedArtifact artifact = new DeployedArtifact("libs-snapshot-local", "bar.jar", "com/example/foo");
+		assertThat(artifact.getFullPath()).isEqualTo("com/example/foo/bar.jar");
+	}
+
+	@Test
+	void getFullPathWhenInRootReturnsName() {
+		DeployedArtifact artifact = new DeployedArtifact("libs-snapshot-local", "bar.jar", ".");
+		assertThat(artifact.getFullPath()).isEqualTo("bar.jar");
+	}
+
+}
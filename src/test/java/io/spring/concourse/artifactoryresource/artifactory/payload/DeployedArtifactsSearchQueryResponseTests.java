@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2023 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,6 +52,7 @@ public class DeployedArtifactsSearchQueryResponseTests {
 		assertThat(artifact.getModified()).isEqualTo(ArtifactoryDateFormat.parse("2017-06-19T17:17:34.423Z"));
 		assertThat(artifact.getModifiedBy()).isEqualTo("spring");
 		assertThat(artifact.getUpdated()).isEqualTo(ArtifactoryDateFormat.parse("2017-06-19T17:17:35.423Z"));
+		assertThat(artifact.getActualSha1()).isEqualTo("a9993e364706816aba3e25717850c26c9cd0d89d");
 		assertThat(response.getRange().getStartPos()).isEqualTo(0);
 		assertThat(response.getRange().getEndPos()).isEqualTo(1);
 		assertThat(response.getRange().getTotal()).isEqualTo(1);
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.artifactory.payload;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link PropertiesInterner}.
+ *
+ * @author agent
+ */
+class PropertiesInternerTests {
+
+	private final PropertiesInterner interner = new PropertiesInterner();
+
+	@Test
+	void internWhenEqualReturnsSameInstance() {
+		Map<String, String> first = this.interner.intern(createProperties("1"));
+		Map<String, String> second = this.interner.intern(createProperties("1"));
+		assertThat(first).isSameAs(second);
+		assertThat(this.interner.size()).isOne();
+	}
+
+	@Test
+	void internWhenDifferentReturnsDifferentInstance() {
+		Map<String, String> first = this.interner.intern(createProperties("1"));
+		Map<String, String> second = this.interner.intern(createProperties("2"));
+		assertThat(first).isNotSameAs(second);
+		assertThat(this.interner.size()).isEqualTo(2);
+	}
+
+	@Test
+	void internWhenAlreadyInternedReturnsSameInstance() {
+		Map<String, String> interned = this.interner.intern(createProperties("1"));
+		assertThat(new PropertiesInterner().intern(interned)).isSameAs(interned);
+	}
+
+	@Test
+	void internRetainsOrderAndIsImmutable() {
+		Map<String, String> properties = createProperties("1");
+		Map<String, String> interned = this.interner.intern(properties);
+		properties.put("other", "value");
+		assertThat(interned).containsExactly(entry("build.name", "test"), entry("build.number", "1"));
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> interned.put("a", "b"));
+	}
+
+	private Map<String, String> createProperties(String buildNumber) {
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("build.name", "test");
+		properties.put("build.number", buildNumber);
+		return properties;
+	}
+
+}
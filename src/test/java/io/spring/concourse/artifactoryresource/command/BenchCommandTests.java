@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.spring.concourse.artifactoryresource.command.payload.BenchRequest;
+import io.spring.concourse.artifactoryresource.command.payload.BenchResponse;
+import io.spring.concourse.artifactoryresource.command.payload.InRequest;
+import io.spring.concourse.artifactoryresource.command.payload.OutRequest;
+import io.spring.concourse.artifactoryresource.command.payload.OutResponse;
+import io.spring.concourse.artifactoryresource.command.payload.Source;
+import io.spring.concourse.artifactoryresource.command.payload.Version;
+import io.spring.concourse.artifactoryresource.io.Directory;
+import io.spring.concourse.artifactoryresource.system.SystemInput;
+import io.spring.concourse.artifactoryresource.system.SystemOutput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link BenchCommand}.
+ *
+ * @author agent
+ */
+@ExtendWith(MockitoExtension.class)
+class BenchCommandTests {
+
+	@Mock
+	private SystemInput systemInput;
+
+	@Mock
+	private SystemOutput systemOutput;
+
+	@Mock
+	private OutHandler outHandler;
+
+	@Mock
+	private InHandler inHandler;
+
+	@Captor
+	private ArgumentCaptor<OutRequest> outRequestCaptor;
+
+	@Captor
+	private ArgumentCaptor<InRequest> inRequestCaptor;
+
+	@Captor
+	private ArgumentCaptor<BenchResponse> responseCaptor;
+
+	private BenchCommand command;
+
+	@BeforeEach
+	void setup() {
+		this.command = new BenchCommand(this.systemInput, this.systemOutput, new ObjectMapper(), this.outHandler,
+				this.inHandler);
+	}
+
+	@Test
+	void runWhenNoSourceUsesStandIn() throws Exception {
+		BenchRequest.Params params = new BenchRequest.Params("libs-snapshot-local", 3, 100, 200, List.of("sources"),
+				4, null, null, null, null, null);
+		given(this.systemInput.read(BenchRequest.class)).willReturn(new BenchRequest(null, params));
+		Version version = new Version("1234", Instant.now());
+		given(this.outHandler.handle(any(), any(), any())).willAnswer((invocation) -> {
+			File folder = invocation.getArgument(1, Directory.class).getFile();
+			assertThat(new File(folder, "repository/com/example/module-2/1.0.0-SNAPSHOT")).isDirectory();
+			FileCopyUtils.copy("{ \"transfers\" : 9 }", new FileWriter(invocation.getArgument(2, File.class)));
+			return new OutResponse(version);
+		});
+		this.command.run(new DefaultApplicationArguments("bench"));
+		verify(this.outHandler).handle(this.outRequestCaptor.capture(), any(), any());
+		verify(this.inHandler).handle(this.inRequestCaptor.capture(), any());
+		verify(this.systemOutput).write(this.responseCaptor.capture());
+		OutRequest outRequest = this.outRequestCaptor.getValue();
+		Source source = outRequest.getSource();
+		assertThat(source.getUri()).startsWith("http://");
+		assertThat(outRequest.getParams().getRepo()).isEqualTo("libs-snapshot-local");
+		assertThat(outRequest.getParams().getFolder()).isEqualTo("repository");
+		assertThat(outRequest.getParams().getThreads()).isEqualTo(4);
+		InRequest inRequest = this.inRequestCaptor.getValue();
+		assertThat(inRequest.getSource()).isSameAs(source);
+		assertThat(inRequest.getVersion()).isEqualTo(version);
+		assertThat(inRequest.getParams().getThreads()).isEqualTo(4);
+		assertThat(inRequest.getParams().isSavePerformanceSummary()).isTrue();
+		BenchResponse response = this.responseCaptor.getValue();
+		assertThat(response.getUri()).isEqualTo(source.getUri());
+		assertThat(response.getFiles()).isEqualTo(9);
+		assertThat(response.getOut()).containsEntry("transfers", 9);
+		assertThat(response.getIn()).isEmpty();
+		assertThat(response.getRequests()).isEmpty();
+	}
+
+	@Test
+	void runWhenHasSourceUsesSource() throws Exception {
+		Source source = new Source("https://repo.example.com", "admin", "password", "my-build", null);
+		given(this.systemInput.read(BenchRequest.class)).willReturn(new BenchRequest(source, null));
+		given(this.outHandler.handle(any(), any(), any()))
+			.willReturn(new OutResponse(new Version("1234", Instant.now())));
+		this.command.run(new DefaultApplicationArguments("bench"));
+		verify(this.outHandler).handle(this.outRequestCaptor.capture(), any(), any());
+		verify(this.systemOutput).write(this.responseCaptor.capture());
+		assertThat(this.outRequestCaptor.getValue().getSource()).isSameAs(source);
+		assertThat(this.responseCaptor.getValue().getUri()).isEqualTo("https://repo.example.com");
+		assertThat(this.responseCaptor.getValue().getFiles()).isEqualTo(40);
+	}
+
+}
@@ -22,6 +22,7 @@ import java.util.List;
 import io.spring.concourse.artifactoryresource.artifactory.Artifactory;
 import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryBuildRuns;
 import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryServer;
+import io.spring.concourse.artifactoryresource.artifactory.TransferLimits;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildRun;
 import io.spring.concourse.artifactoryresource.command.payload.CheckRequest;
 import io.spring.concourse.artifactoryresource.command.payload.CheckResponse;
@@ -82,7 +83,8 @@ class CheckHandlerTests {
 
 	@BeforeEach
 	void setup() {
-		given(this.artifactory.server("https://ci.example.com", "admin", "password", null))
+		given(this.artifactory.server("https://ci.example.com", "admin", "password", null, null, null,
+				TransferLimits.NONE))
 			.willReturn(this.artifactoryServer);
 		given(this.artifactoryServer.buildRuns(eq("my-build"), any(), any())).willReturn(this.artifactoryBuildRuns);
 		this.handler = new CheckHandler(this.artifactory);
@@ -184,7 +186,7 @@ class CheckHandlerTests {
 		given(this.artifactoryBuildRuns.getStartedOnOrAfter(null, VERSION2.getStarted()))
 			.willReturn(List.of(CheckHandlerTests.RUN3, CheckHandlerTests.RUN2, CheckHandlerTests.RUN4));
 		Source source = new Source("https://ci.example.com", "admin", "password", "my-build", null, null, 123, null,
-				null);
+				null, null, null);
 		CheckRequest request = new CheckRequest(source, VERSION4);
 		this.handler.handle(request);
 		verify(this.artifactoryServer).buildRuns("my-build", null, 123);
@@ -195,7 +197,7 @@ class CheckHandlerTests {
 		given(this.artifactoryBuildRuns.getStartedOnOrAfter(null, VERSION2.getStarted()))
 			.willReturn(List.of(CheckHandlerTests.RUN3, CheckHandlerTests.RUN2, CheckHandlerTests.RUN4));
 		Source source = new Source("https://ci.example.com", "admin", "password", "my-build", "my-project", null, 123,
-				null, null);
+				null, null, null, null);
 		CheckRequest request = new CheckRequest(source, VERSION4);
 		this.handler.handle(request);
 		verify(this.artifactoryServer).buildRuns("my-build", "my-project", 123);
@@ -206,7 +208,7 @@ class CheckHandlerTests {
 		given(this.artifactoryBuildRuns.getStartedOnOrAfter("main-", VERSION2.getStarted()))
 			.willReturn(List.of(CheckHandlerTests.RUN3, CheckHandlerTests.RUN2, CheckHandlerTests.RUN4));
 		Source source = new Source("https://ci.example.com", "admin", "password", "my-build", null, "main-", 123, null,
-				null);
+				null, null, null);
 		CheckRequest request = new CheckRequest(source, VERSION4);
 		this.handler.handle(request);
 		verify(this.artifactoryServer).buildRuns("my-build", null, 123);
@@ -217,7 +219,7 @@ class CheckHandlerTests {
 		given(this.artifactoryBuildRuns.getStartedOnOrAfter("main-", VERSION2.getStarted()))
 			.willReturn(List.of(CheckHandlerTests.RUN3, CheckHandlerTests.RUN2, CheckHandlerTests.RUN4));
 		Source source = new Source("https://ci.example.com", "admin", "password", "my-build", "my-project", "main-",
-				123, null, null);
+				123, null, null, null, null);
 		CheckRequest request = new CheckRequest(source, VERSION4);
 		this.handler.handle(request);
 		verify(this.artifactoryServer).buildRuns("my-build", "my-project", 123);
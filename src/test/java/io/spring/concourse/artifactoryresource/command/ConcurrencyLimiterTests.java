@@ -0,0 +1,367 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.net.SocketException;
+import java.nio.file.FileAlreadyExistsException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import io.spring.concourse.artifactoryresource.artifactory.DeployOption;
+import io.spring.concourse.artifactoryresource.artifactory.HttpArtifactoryRepository;
+import io.spring.concourse.artifactoryresource.artifactory.RetryableDeployException;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableByteArrayArtifact;
+import io.spring.concourse.artifactoryresource.command.ConcurrencyLimiter.Adaptive;
+import io.spring.concourse.artifactoryresource.command.payload.AdaptiveConcurrency;
+import io.spring.concourse.artifactoryresource.command.payload.Metadata;
+import io.spring.concourse.artifactoryresource.standin.ArtifactoryStandIn;
+import io.spring.concourse.artifactoryresource.standin.StandInSettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link ConcurrencyLimiter}.
+ *
+ * @author agent
+ */
+class ConcurrencyLimiterTests {
+
+	@Test
+	void getWhenNoAdaptiveConcurrencyReturnsFixed() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.get(4, null);
+		assertThat(limiter.getMaxConcurrency()).isEqualTo(4);
+		PerformanceSummary summary = new PerformanceSummary();
+		limiter.report(summary);
+		assertThat(summary.getMetadata()).filteredOn((metadata) -> metadata.getName().equals("concurrency"))
+			.extracting(Metadata::getValue)
+			.containsExactly("fixed 4");
+	}
+
+	@Test
+	void runWhenFixedLimitsConcurrencyOnUnboundedExecutor() throws Exception {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.get(2, null);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			CompletableFuture.allOf(IntStream.range(0, 20)
+				.mapToObj((i) -> CompletableFuture.runAsync(() -> limiter.run(0, () -> {
+					peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+					sleep(5);
+					running.decrementAndGet();
+				}), executor))
+				.toArray(CompletableFuture[]::new)).get();
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(peak.get()).isBetween(1, 2);
+	}
+
+	@Test
+	void runWhenMaxInFlightBytesLimitsBytesInFlight() throws Exception {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.get(8, null, 100);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			CompletableFuture.allOf(IntStream.range(0, 10)
+				.mapToObj((i) -> CompletableFuture.runAsync(() -> limiter.run(60, () -> {
+					peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+					sleep(5);
+					running.decrementAndGet();
+				}), executor))
+				.toArray(CompletableFuture[]::new)).get();
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(peak).hasValue(1);
+	}
+
+	@Test
+	void runWhenLargerThanMaxInFlightBytesRuns() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.get(8, null, 100);
+		AtomicInteger runs = new AtomicInteger();
+		limiter.run(1000, runs::incrementAndGet);
+		assertThat(runs).hasValue(1);
+		PerformanceSummary summary = new PerformanceSummary();
+		limiter.report(summary);
+		assertThat(summary.getMetadata()).extracting(Metadata::getName)
+			.contains("concurrency", "in-flight bytes limit");
+	}
+
+	@Test
+	void runWhenMaxInFlightBytesOverIntegerRangeLimitsBytesInFlight() throws Exception {
+		long gigabyte = 1024L * 1024 * 1024;
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.get(8, null, 4 * gigabyte);
+		assertThat(peakConcurrency(limiter, 3 * gigabyte)).isOne();
+		assertThat(peakConcurrency(limiter, 2 * gigabyte)).isEqualTo(2);
+		PerformanceSummary summary = new PerformanceSummary();
+		limiter.report(summary);
+		assertThat(summary.getMetadata()).filteredOn((metadata) -> metadata.getName().equals("in-flight bytes limit"))
+			.extracting(Metadata::getValue)
+			.containsExactly(PerformanceSummary.formatBytes(4 * gigabyte));
+	}
+
+	@Test
+	void getWhenAdaptiveConcurrencyReturnsAdaptiveClampedToMinMax() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.get(1, new AdaptiveConcurrency(2, 8));
+		assertThat(limiter).isInstanceOf(Adaptive.class);
+		assertThat(limiter.getMaxConcurrency()).isEqualTo(8);
+		assertThat(((Adaptive) limiter).getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void runWhenSaturatedIncreasesLimit() {
+		Adaptive limiter = new Adaptive(1, 1, 4);
+		limiter.run(0, () -> {
+		});
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void runWhenIncreasingDoesNotExceedMax() {
+		Adaptive limiter = new Adaptive(1, 1, 1);
+		limiter.run(0, () -> {
+		});
+		assertThat(limiter.getLimit()).isOne();
+	}
+
+	@Test
+	void runWhenOverloadedDecreasesLimitAndRetries() {
+		Adaptive limiter = new Adaptive(8, 1, 8);
+		AtomicInteger attempts = new AtomicInteger();
+		limiter.run(0, () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+			}
+		});
+		assertThat(attempts).hasValue(2);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+		PerformanceSummary summary = new PerformanceSummary();
+		limiter.report(summary);
+		assertThat(summary.getMetadata()).extracting(Metadata::getName).contains("concurrency", "overload retries");
+	}
+
+	@Test
+	void runWhenOverloadedWrappedInOtherExceptionDecreasesLimit() {
+		Adaptive limiter = new Adaptive(8, 1, 8);
+		AtomicInteger attempts = new AtomicInteger();
+		limiter.run(0, () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new RuntimeException("Error deploying",
+						new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+			}
+		});
+		assertThat(limiter.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void runWhenOverloadedDoesNotDecreaseBelowMin() {
+		Adaptive limiter = new Adaptive(2, 2, 8);
+		AtomicInteger attempts = new AtomicInteger();
+		limiter.run(0, () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+			}
+		});
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void runWhenAlwaysOverloadedThrowsAfterMaxAttempts() {
+		Adaptive limiter = new Adaptive(2, 1, 2);
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatExceptionOfType(HttpServerErrorException.class).isThrownBy(() -> limiter.run(0, () -> {
+			attempts.incrementAndGet();
+			throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+		}));
+		assertThat(attempts).hasValue(Adaptive.MAX_ATTEMPTS);
+	}
+
+	@Test
+	void runWhenFailsWithoutOverloadThrowsWithoutRetry() {
+		Adaptive limiter = new Adaptive(4, 1, 8);
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatExceptionOfType(HttpClientErrorException.class).isThrownBy(() -> limiter.run(0, () -> {
+			attempts.incrementAndGet();
+			throw new HttpClientErrorException(HttpStatus.FORBIDDEN);
+		}));
+		assertThat(attempts).hasValue(1);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void runWhenSocketErrorDecreasesLimitAndRetries() {
+		Adaptive limiter = new Adaptive(8, 1, 8);
+		AtomicInteger attempts = new AtomicInteger();
+		limiter.run(0, () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new ResourceAccessException("I/O error", new SocketException("Connection reset"));
+			}
+		});
+		assertThat(attempts).hasValue(2);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void runWhenResourceAccessFailsWithoutSocketErrorThrowsWithoutRetry() {
+		Adaptive limiter = new Adaptive(4, 1, 8);
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatExceptionOfType(ResourceAccessException.class).isThrownBy(() -> limiter.run(0, () -> {
+			attempts.incrementAndGet();
+			throw new ResourceAccessException("I/O error", new FileAlreadyExistsException("foo.jar"));
+		}));
+		assertThat(attempts).hasValue(1);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void runWhenRetryableDeployFailsWithOverloadThrowsWithoutRetry() {
+		Adaptive limiter = new Adaptive(4, 1, 8);
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatExceptionOfType(RetryableDeployException.class).isThrownBy(() -> limiter.run(0, () -> {
+			attempts.incrementAndGet();
+			throw new RetryableDeployException("Deploy failed", Duration.ZERO,
+					new ResourceAccessException("I/O error", new SocketException("Connection reset")));
+		}));
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	void runAgainstOverCapacityServerConvergesAndSucceeds() throws Exception {
+		ArtifactoryStandIn standIn = new ArtifactoryStandIn(
+				StandInSettings.DEFAULT.withLatency(Duration.ofMillis(5)).withCapacity(4));
+		standIn.start();
+		try {
+			HttpArtifactoryRepository repository = new HttpArtifactoryRepository(new RestTemplate(),
+					standIn.getUri().toString(), "libs-snapshot-local", Duration.ofMillis(10));
+			Adaptive limiter = new Adaptive(16, 1, 16);
+			ExecutorService executor = Executors.newFixedThreadPool(limiter.getMaxConcurrency());
+			try {
+				CompletableFuture.allOf(IntStream.range(0, 200)
+					.mapToObj((i) -> CompletableFuture.runAsync(() -> limiter.run(4, () -> repository.deploy(
+							new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-" + i + ".jar", new byte[4]),
+							DeployOption.DISABLE_CHECKSUM_UPLOADS)), executor))
+					.toArray(CompletableFuture[]::new)).get();
+			}
+			finally {
+				executor.shutdown();
+			}
+			assertThat(standIn.getDeployedPaths()).hasSize(200);
+			assertThat(standIn.getRejectedRequests()).isPositive();
+			assertThat(limiter.getLimit()).isLessThan(16);
+		}
+		finally {
+			standIn.stop();
+		}
+	}
+
+	@Test
+	void runDownloadsAgainstOverCapacityServerConvergesAndSucceeds(@TempDir File temp) throws Exception {
+		ArtifactoryStandIn standIn = new ArtifactoryStandIn(
+				StandInSettings.DEFAULT.withLatency(Duration.ofMillis(5)).withCapacity(4));
+		standIn.start();
+		try {
+			HttpArtifactoryRepository repository = new HttpArtifactoryRepository(new RestTemplate(),
+					standIn.getUri().toString(), "libs-snapshot-local", Duration.ofMillis(10));
+			List<String> paths = IntStream.range(0, 100)
+				.mapToObj((i) -> "com/example/foo/1.0/foo-" + i + ".jar")
+				.toList();
+			paths.forEach((path) -> repository.deploy(new DeployableByteArrayArtifact("/" + path, new byte[4]),
+					DeployOption.DISABLE_CHECKSUM_UPLOADS));
+			Adaptive limiter = new Adaptive(16, 1, 16);
+			ExecutorService executor = Executors.newFixedThreadPool(limiter.getMaxConcurrency());
+			try {
+				CompletableFuture.allOf(paths.stream()
+					.map((path) -> CompletableFuture.runAsync(
+							() -> limiter.run(4, () -> repository.download(path, temp, true)), executor))
+					.toArray(CompletableFuture[]::new)).get();
+			}
+			finally {
+				executor.shutdown();
+			}
+			paths.forEach((path) -> {
+				assertThat(new File(temp, path)).hasSize(4);
+				assertThat(new File(temp, path + ".sha1")).isFile();
+			});
+			assertThat(standIn.getRejectedRequests()).isPositive();
+			assertThat(limiter.getLimit()).isLessThan(16);
+		}
+		finally {
+			standIn.stop();
+		}
+	}
+
+	private int peakConcurrency(ConcurrencyLimiter limiter, long bytes) throws Exception {
+		CountDownLatch started = new CountDownLatch(2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			CompletableFuture.allOf(IntStream.range(0, 2)
+				.mapToObj((i) -> CompletableFuture.runAsync(() -> limiter.run(bytes, () -> {
+					peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+					started.countDown();
+					await(started);
+					running.decrementAndGet();
+				}), executor))
+				.toArray(CompletableFuture[]::new)).get();
+		}
+		finally {
+			executor.shutdown();
+		}
+		return peak.get();
+	}
+
+	private void await(CountDownLatch latch) {
+		try {
+			latch.await(100, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
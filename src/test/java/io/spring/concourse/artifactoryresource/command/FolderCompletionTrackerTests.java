@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link FolderCompletionTracker}.
+ *
+ * @author agent
+ */
+class FolderCompletionTrackerTests {
+
+	private final List<String> completed = new ArrayList<>();
+
+	private final FolderCompletionTracker tracker = new FolderCompletionTracker(this.completed::add);
+
+	@Test
+	void completeWhenNotSealedDoesNotCallAction() {
+		this.tracker.add("com/example");
+		this.tracker.complete("com/example");
+		assertThat(this.completed).isEmpty();
+	}
+
+	@Test
+	void sealCallsActionForCompleteFolders() {
+		this.tracker.add("com/example");
+		this.tracker.add("org/example");
+		this.tracker.complete("com/example");
+		this.tracker.seal();
+		assertThat(this.completed).containsExactly("com/example");
+	}
+
+	@Test
+	void completeWhenSealedAndLastFileCallsAction() {
+		this.tracker.add("com/example");
+		this.tracker.add("com/example");
+		this.tracker.seal();
+		this.tracker.complete("com/example");
+		assertThat(this.completed).isEmpty();
+		this.tracker.complete("com/example");
+		assertThat(this.completed).containsExactly("com/example");
+	}
+
+	@Test
+	void addWhenSealedThrowsException() {
+		this.tracker.seal();
+		assertThatIllegalStateException().isThrownBy(() -> this.tracker.add("com/example"))
+			.withMessage("Tracker has been sealed");
+	}
+
+	@Test
+	void completeWhenNoPendingFilesThrowsException() {
+		assertThatIllegalStateException().isThrownBy(() -> this.tracker.complete("com/example"))
+			.withMessage("Folder 'com/example' has no pending files");
+	}
+
+}
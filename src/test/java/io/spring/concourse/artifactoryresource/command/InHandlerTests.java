@@ -18,6 +18,7 @@ package io.spring.concourse.artifactoryresource.command;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import io.spring.concourse.artifactoryresource.artifactory.Artifactory;
@@ -25,8 +26,10 @@ import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryBuildRuns;
 import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryRepository;
 import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryServer;
 import io.spring.concourse.artifactoryresource.artifactory.BuildNumber;
+import io.spring.concourse.artifactoryresource.artifactory.TransferLimits;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifact;
 import io.spring.concourse.artifactoryresource.command.payload.InRequest;
+import io.spring.concourse.artifactoryresource.command.payload.Metadata;
 import io.spring.concourse.artifactoryresource.command.payload.InRequest.Params;
 import io.spring.concourse.artifactoryresource.command.payload.InResponse;
 import io.spring.concourse.artifactoryresource.command.payload.Source;
@@ -47,6 +50,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 /**
  * Tests for {@link InHandler}.
@@ -85,12 +89,14 @@ class InHandlerTests {
 	@BeforeEach
 	void setup() {
 		this.deployedArtifacts = createDeployedArtifacts();
-		given(this.artifactory.server("https://ci.example.com", "admin", "password", null))
+		given(this.artifactory.server("https://ci.example.com", "admin", "password", null, null, null,
+				TransferLimits.NONE))
 			.willReturn(this.artifactoryServer);
 		given(this.artifactoryServer.buildRuns("my-build", "my-project")).willReturn(this.artifactoryBuildRuns);
 		given(this.artifactoryServer.repository("libs-snapshot-local")).willReturn(this.artifactoryRepository);
-		given(this.artifactoryBuildRuns.getDeployedArtifacts(BuildNumber.of("1234")))
-			.willReturn(this.deployedArtifacts);
+		given(this.artifactoryBuildRuns.streamDeployedArtifacts(BuildNumber.of("1234"), Collections.emptyList(),
+				Collections.emptyList()))
+			.willAnswer((invocation) -> this.deployedArtifacts.stream());
 		given(this.artifactoryBuildRuns.getRawBuildInfo(BuildNumber.of("1234"))).willReturn(BUILD_INFO_JSON);
 		this.handler = new InHandler(this.artifactory, this.mavenMetadataGenerator);
 	}
@@ -108,7 +114,7 @@ class InHandlerTests {
 		Directory directory = new Directory(this.tempDir);
 		InResponse response = this.handler.handle(request, directory);
 		for (DeployedArtifact deployedArtifact : this.deployedArtifacts) {
-			verify(this.artifactoryRepository).download(deployedArtifact, directory.getFile(), true);
+			verify(this.artifactoryRepository).download(deployedArtifact, directory.getFile(), true, null);
 		}
 		assertThat(response.getVersion()).isEqualTo(request.getVersion());
 	}
@@ -119,7 +125,7 @@ class InHandlerTests {
 		Directory directory = new Directory(this.tempDir);
 		InResponse response = this.handler.handle(request, directory);
 		for (DeployedArtifact deployedArtifact : this.deployedArtifacts) {
-			verify(this.artifactoryRepository).download(deployedArtifact, directory.getFile(), false);
+			verify(this.artifactoryRepository).download(deployedArtifact, directory.getFile(), false, null);
 		}
 		assertThat(response.getVersion()).isEqualTo(request.getVersion());
 	}
@@ -132,10 +138,28 @@ class InHandlerTests {
 		InRequest request = createRequest(false, false, true);
 		Directory directory = new Directory(this.tempDir);
 		InResponse response = this.handler.handle(request, directory);
-		verify(this.artifactoryRepository).download(deployedArtifact, directory.getFile(), false);
+		verify(this.artifactoryRepository).download(deployedArtifact, directory.getFile(), false, null);
 		assertThat(response.getVersion()).isEqualTo(request.getVersion());
 	}
 
+	@Test
+	void handleWhenHasIncludeAndExcludeDownloadsMatchingArtifacts() {
+		DeployedArtifact deployedArtifact = new DeployedArtifact("libs-snapshot-local", "foo.pom", "com/example");
+		List<String> include = List.of("**/*.pom", "**/*.jar");
+		List<String> exclude = List.of("**/bar.jar");
+		given(this.artifactoryBuildRuns.streamDeployedArtifacts(BuildNumber.of("1234"), include, exclude))
+			.willAnswer((invocation) -> List.of(deployedArtifact).stream());
+		InRequest request = new InRequest(
+				new Source("https://ci.example.com", "admin", "password", "my-build", "my-project"),
+				new Version("1234", ArtifactoryDateFormat.parse("2014-01-20T12:01:02.003Z")),
+				new Params(false, false, false, true, true, 1, false, null, null, null, null, null, include, exclude,
+						null));
+		Directory directory = new Directory(this.tempDir);
+		this.handler.handle(request, directory);
+		verify(this.artifactoryRepository).download(deployedArtifact, directory.getFile(), true, null);
+		verifyNoMoreInteractions(this.artifactoryRepository);
+	}
+
 	@Test
 	void handleWhenDownloadArtifactsFalseDoesNotDownloadArtifacts() {
 		InRequest request = createRequest(false, false, false);
@@ -151,7 +175,27 @@ class InHandlerTests {
 		InRequest request = createRequest(true, false, true);
 		Directory directory = new Directory(this.tempDir);
 		this.handler.handle(request, directory);
-		verify(this.mavenMetadataGenerator).generate(directory, true);
+		verify(this.mavenMetadataGenerator).generate(directory, new File(this.tempDir, "com/example"), true);
+	}
+
+	@Test
+	void handleWhenHasGenerateMavenMetadataParamGeneratesMetadataForEachFolderOnce() {
+		this.deployedArtifacts.add(new DeployedArtifact("libs-snapshot-local", "baz.jar", "org/example"));
+		InRequest request = createRequest(true, false, true, true, 4);
+		Directory directory = new Directory(this.tempDir);
+		this.handler.handle(request, directory);
+		verify(this.mavenMetadataGenerator).generate(directory, new File(this.tempDir, "com/example"), true);
+		verify(this.mavenMetadataGenerator).generate(directory, new File(this.tempDir, "org/example"), true);
+		verifyNoMoreInteractions(this.mavenMetadataGenerator);
+	}
+
+	@Test
+	void handleWhenSaveBuildInfoAndNotDownloadArtifactsSavesBuildInfo() {
+		InRequest request = createRequest(false, true, false);
+		Directory directory = new Directory(this.tempDir);
+		this.handler.handle(request, directory);
+		assertThat(new File(directory.getFile(), "build-info.json")).exists().hasContent(BUILD_INFO_JSON);
+		verifyNoInteractions(this.artifactoryRepository);
 	}
 
 	@Test
@@ -167,7 +211,7 @@ class InHandlerTests {
 		InRequest request = createRequest(true, false, true, false);
 		Directory directory = new Directory(this.tempDir);
 		this.handler.handle(request, directory);
-		verify(this.mavenMetadataGenerator).generate(directory, false);
+		verify(this.mavenMetadataGenerator).generate(directory, new File(this.tempDir, "com/example"), false);
 	}
 
 	@Test
@@ -179,6 +223,27 @@ class InHandlerTests {
 		assertThat(buildInfo).exists().hasContent(BUILD_INFO_JSON);
 	}
 
+	@Test
+	void handleReturnsPerformanceSummaryMetadata() {
+		InRequest request = createRequest(false, true, true);
+		Directory directory = new Directory(this.tempDir);
+		InResponse response = this.handler.handle(request, directory);
+		assertThat(response.getMetadata()).extracting(Metadata::getName)
+			.contains("total time", "list time", "download time", "build-info time", "transfers", "latency");
+	}
+
+	@Test
+	void handleWhenSavePerformanceSummarySavesPerformanceSummary() {
+		InRequest request = new InRequest(
+				new Source("https://ci.example.com", "admin", "password", "my-build", "my-project"),
+				new Version("1234", ArtifactoryDateFormat.parse("2014-01-20T12:01:02.003Z")),
+				new Params(false, false, false, true, true, 1, true, null, null, null, null, null, null, null, null));
+		Directory directory = new Directory(this.tempDir);
+		this.handler.handle(request, directory);
+		File summary = new File(directory.getFile(), "performance-summary.json");
+		assertThat(summary).exists().content().contains("\"transfers\" : 2");
+	}
+
 	private InRequest createRequest(boolean generateMavenMetadata, boolean saveBuildInfo, boolean downloadArtifacts) {
 		return createRequest(generateMavenMetadata, saveBuildInfo, downloadArtifacts, true);
 	}
@@ -193,7 +258,8 @@ class InHandlerTests {
 		InRequest request = new InRequest(
 				new Source("https://ci.example.com", "admin", "password", "my-build", "my-project"),
 				new Version("1234", ArtifactoryDateFormat.parse("2014-01-20T12:01:02.003Z")),
-				new Params(false, generateMavenMetadata, saveBuildInfo, downloadArtifacts, downloadChecksums, threads));
+				new Params(false, generateMavenMetadata, saveBuildInfo, downloadArtifacts, downloadChecksums, threads,
+						false, null, null, null, null, null, null, null, null));
 		return request;
 	}
 
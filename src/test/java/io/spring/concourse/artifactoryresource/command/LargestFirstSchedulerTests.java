@@ -0,0 +1,293 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.concourse.artifactoryresource.command.LargestFirstScheduler.DeferredException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link LargestFirstScheduler}.
+ *
+ * @author agent
+ */
+class LargestFirstSchedulerTests {
+
+	private final List<Runnable> tasks = new ArrayList<>();
+
+	private final List<String> processed = new CopyOnWriteArrayList<>();
+
+	private final List<String> attempted = new CopyOnWriteArrayList<>();
+
+	@Test
+	void submitRunsLargestPendingItemFirst() {
+		LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(this.tasks::add, String::length,
+				this.processed::add);
+		scheduler.submit("a");
+		scheduler.submit("aaaaa");
+		scheduler.submit("aaa");
+		runTasks();
+		assertThat(this.processed).containsExactly("aaaaa", "aaa", "a");
+	}
+
+	@Test
+	void submitWhenItemsHaveSameSizeRunsInSubmissionOrder() {
+		LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(this.tasks::add, String::length,
+				this.processed::add);
+		scheduler.submit("b");
+		scheduler.submit("a");
+		scheduler.submit("cc");
+		scheduler.submit("c");
+		runTasks();
+		assertThat(this.processed).containsExactly("cc", "b", "a", "c");
+	}
+
+	@Test
+	void submitWhenLargerItemArrivesLaterRunsItBeforeSmallerPendingItems() {
+		LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(this.tasks::add, String::length,
+				this.processed::add);
+		scheduler.submit("aa");
+		scheduler.submit("a");
+		this.tasks.remove(0).run();
+		scheduler.submit("aaaa");
+		runTasks();
+		assertThat(this.processed).containsExactly("aa", "aaaa", "a");
+	}
+
+	@Test
+	void submitAllRunsLargestFirstAndCompletesWhenAllItemsProcessed() {
+		LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(this.tasks::add, String::length,
+				this.processed::add);
+		CompletableFuture<Void> future = scheduler.submitAll(List.of("aa", "a", "aaa"));
+		assertThat(future).isNotDone();
+		runTasks();
+		assertThat(future).isCompleted();
+		assertThat(this.processed).containsExactly("aaa", "aa", "a");
+	}
+
+	@Test
+	void submitWhenItemFailsCancelsPendingItems() {
+		LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(this.tasks::add, String::length,
+				this::failOrProcess);
+		CompletableFuture<Void> failed = scheduler.submit("fail");
+		CompletableFuture<Void> pending = scheduler.submit("a");
+		runTasks();
+		assertThat(failed).isCompletedExceptionally();
+		assertThat(pending).isCompleted();
+		assertThat(scheduler.isCancelled()).isTrue();
+		assertThat(this.processed).isEmpty();
+	}
+
+	@Test
+	void submitAllWhenContinueOnErrorProcessesAllItemsAndReportsFailures() {
+		LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(this.tasks::add, String::length,
+				this::failOrProcess, true);
+		CompletableFuture<Void> future = scheduler.submitAll(List.of("fail", "a", "failed", "bb"));
+		runTasks();
+		assertThat(future).isCompleted();
+		assertThat(scheduler.isCancelled()).isFalse();
+		assertThat(this.processed).containsExactly("bb", "a");
+		assertThatIllegalStateException().isThrownBy(() -> scheduler.throwIfFailed("test", (item) -> "[" + item + "]"))
+			.withMessageStartingWith("Unable to test 2 artifact(s)")
+			.withMessageContaining("[failed]: java.lang.IllegalStateException: Failed failed")
+			.withMessageContaining("[fail]: java.lang.IllegalStateException: Failed fail")
+			.satisfies((ex) -> assertThat(ex.getSuppressed()).hasSize(2));
+	}
+
+	@Test
+	void throwIfFailedWhenNoFailuresDoesNothing() {
+		LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(this.tasks::add, String::length,
+				this::failOrProcess, true);
+		scheduler.submit("a");
+		runTasks();
+		scheduler.throwIfFailed("test", String::valueOf);
+		assertThat(this.processed).containsExactly("a");
+	}
+
+	@Test
+	void cancelInterruptsRunningItems() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(executor, String::length,
+					(item) -> {
+						started.countDown();
+						try {
+							Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+						}
+						catch (InterruptedException ex) {
+							this.processed.add("interrupted");
+						}
+					});
+			CompletableFuture<Void> running = scheduler.submit("a");
+			CompletableFuture<Void> pending = scheduler.submit("b");
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+			scheduler.cancel();
+			CompletableFuture.allOf(running, pending).get(10, TimeUnit.SECONDS);
+			assertThat(this.processed).containsExactly("interrupted");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void submitAllWhenItemFailsAndRetryPolicyAllowsRetryProcessesOtherItemsDuringDelay() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			List<String> outcomes = new CopyOnWriteArrayList<>();
+			LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(executor, String::length,
+					this::failFirstAttemptOrProcess, false, new LargestFirstScheduler.RetryPolicy<>() {
+
+						@Override
+						public Duration getRetryDelay(String item, RuntimeException ex, int attempt) {
+							return (attempt < 3) ? Duration.ofMillis(100) : null;
+						}
+
+						@Override
+						public void completed(String item, int retries, RuntimeException failure) {
+							outcomes.add(item + " " + retries + " " + (failure == null));
+						}
+
+					});
+			scheduler.submitAll(List.of("retry", "a")).get(10, TimeUnit.SECONDS);
+			assertThat(this.processed).containsExactly("a", "retry");
+			assertThat(outcomes).containsExactly("retry 1 true");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void submitWhenItemFailsAndRetryPolicyIsExhaustedReportsFailure() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			List<String> outcomes = new CopyOnWriteArrayList<>();
+			LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(executor, String::length,
+					this::failOrProcess, true, new LargestFirstScheduler.RetryPolicy<>() {
+
+						@Override
+						public Duration getRetryDelay(String item, RuntimeException ex, int attempt) {
+							return (attempt < 3) ? Duration.ZERO : null;
+						}
+
+						@Override
+						public void completed(String item, int retries, RuntimeException failure) {
+							outcomes.add(item + " " + retries + " " + (failure == null));
+						}
+
+					});
+			scheduler.submit("fail").get(10, TimeUnit.SECONDS);
+			assertThat(outcomes).containsExactly("fail 2 false");
+			assertThatIllegalStateException().isThrownBy(() -> scheduler.throwIfFailed("test", String::valueOf))
+				.withMessageStartingWith("Unable to test 1 artifact(s)");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void submitWhenLimitedTakesLargestItemOnlyOncePermitIsGranted() throws Exception {
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(executor,
+					ConcurrencyLimiter.get(1, null), String::length, (item) -> {
+						started.countDown();
+						await(release);
+						this.processed.add(item);
+					}, (item) -> {
+					}, false, LargestFirstScheduler.RetryPolicy.none());
+			CompletableFuture<Void> first = scheduler.submit("a");
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+			CompletableFuture<Void> rest = scheduler.submitAll(List.of("bb", "b", "bbbb", "bbb"));
+			Thread.sleep(50);
+			release.countDown();
+			CompletableFuture.allOf(first, rest).get(10, TimeUnit.SECONDS);
+			assertThat(this.processed).containsExactly("a", "bbbb", "bbb", "bb", "b");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void submitWhenItemIsDeferredRunsItAgainOnceWorkIsComplete() {
+		CompletableFuture<Void> upload = new CompletableFuture<>();
+		LargestFirstScheduler<String> scheduler = new LargestFirstScheduler<>(this.tasks::add, null, String::length,
+				(item) -> {
+					if (item.equals("deferred") && !upload.isDone()) {
+						throw new DeferredException("Deferred", upload);
+					}
+					this.processed.add(item);
+				}, (item) -> this.processed.add("processed " + item), false, LargestFirstScheduler.RetryPolicy.none());
+		CompletableFuture<Void> future = scheduler.submitAll(List.of("deferred", "a"));
+		runTasks();
+		assertThat(future).isNotDone();
+		assertThat(this.processed).containsExactly("a", "processed a");
+		upload.complete(null);
+		runTasks();
+		assertThat(future).isCompleted();
+		assertThat(this.processed).containsExactly("a", "processed a", "deferred", "processed deferred");
+	}
+
+	private void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void failFirstAttemptOrProcess(String item) {
+		if (item.startsWith("retry") && !this.attempted.contains(item)) {
+			this.attempted.add(item);
+			throw new IllegalStateException("Failed " + item);
+		}
+		this.processed.add(item);
+	}
+
+	private void failOrProcess(String item) {
+		if (item.startsWith("fail")) {
+			throw new IllegalStateException("Failed " + item);
+		}
+		this.processed.add(item);
+	}
+
+	private void runTasks() {
+		while (!this.tasks.isEmpty()) {
+			this.tasks.remove(0).run();
+		}
+	}
+
+}
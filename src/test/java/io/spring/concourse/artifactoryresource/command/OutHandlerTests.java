@@ -19,7 +19,9 @@ package io.spring.concourse.artifactoryresource.command;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.SocketException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -32,12 +34,17 @@ import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryRepository
 import io.spring.concourse.artifactoryresource.artifactory.ArtifactoryServer;
 import io.spring.concourse.artifactoryresource.artifactory.BuildNumber;
 import io.spring.concourse.artifactoryresource.artifactory.DeployOption;
+import io.spring.concourse.artifactoryresource.artifactory.RetryableDeployException;
+import io.spring.concourse.artifactoryresource.artifactory.TransferLimits;
 import io.spring.concourse.artifactoryresource.artifactory.payload.BuildModule;
 import io.spring.concourse.artifactoryresource.artifactory.payload.ContinuousIntegrationAgent;
 import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableArtifact;
+import io.spring.concourse.artifactoryresource.command.payload.AdaptiveConcurrency;
+import io.spring.concourse.artifactoryresource.command.payload.Metadata;
 import io.spring.concourse.artifactoryresource.command.payload.OutRequest;
 import io.spring.concourse.artifactoryresource.command.payload.OutRequest.ArtifactSet;
 import io.spring.concourse.artifactoryresource.command.payload.OutRequest.Params;
+import io.spring.concourse.artifactoryresource.command.payload.OutResponse;
 import io.spring.concourse.artifactoryresource.command.payload.Source;
 import io.spring.concourse.artifactoryresource.io.Directory;
 import io.spring.concourse.artifactoryresource.io.DirectoryScanner;
@@ -55,14 +62,17 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.ResourceAccessException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -119,7 +129,8 @@ class OutHandlerTests {
 
 	@BeforeEach
 	void setup() {
-		given(this.artifactory.server("https://ci.example.com", "admin", "password", null))
+		given(this.artifactory.server("https://ci.example.com", "admin", "password", null, null, null,
+				TransferLimits.NONE))
 			.willReturn(this.artifactoryServer);
 		given(this.artifactoryServer.repository("libs-snapshot-local")).willReturn(this.artifactoryRepository);
 		given(this.artifactoryServer.buildRuns(eq("my-build"), (String) any())).willReturn(this.artifactoryBuildRuns);
@@ -173,7 +184,7 @@ class OutHandlerTests {
 		Directory directory = createDirectory();
 		configureMockScanner(directory);
 		this.handler.handle(request, directory);
-		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture(), eq(new DeployOption[0]));
+		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture(), eq(DeployOption.DEFER_RETRIES));
 		DeployableArtifact deployed = this.artifactCaptor.getValue();
 		assertThat(deployed.getPath()).isEqualTo("/com/example/foo/0.0.1/foo-0.0.1.jar");
 		assertThat(deployed.getProperties()).containsEntry("build.name", "my-build")
@@ -205,7 +216,8 @@ class OutHandlerTests {
 		createEmptyFiles(files);
 		given(this.directoryScanner.scan(any(), any(), any())).willReturn(FileSet.of(files));
 		this.handler.handle(request, directory);
-		verify(this.artifactoryRepository, times(12)).deploy(this.artifactCaptor.capture(), new DeployOption[0]);
+		verify(this.artifactoryRepository, times(12)).deploy(this.artifactCaptor.capture(),
+				eq(DeployOption.DEFER_RETRIES));
 		List<DeployableArtifact> values = this.artifactCaptor.getAllValues();
 		for (int i = 0; i < 3; i++) {
 			assertThat(values.get(i).getPath()).doesNotContain("javadoc", "sources").endsWith(".jar");
@@ -230,11 +242,34 @@ class OutHandlerTests {
 		Directory directory = createDirectory();
 		configureMockScanner(directory);
 		this.handler.handle(request, directory);
-		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture());
+		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture(), eq(DeployOption.DEFER_RETRIES));
 		DeployableArtifact deployed = this.artifactCaptor.getValue();
 		assertThat(deployed.getProperties()).containsEntry("foo", "bar");
 	}
 
+	@Test
+	void handleWhenHasArtifactSetSharesIdenticalProperties() throws Exception {
+		List<ArtifactSet> artifactSet = new ArrayList<>();
+		artifactSet.add(new ArtifactSet(Collections.singletonList("**/*.jar"), null,
+				Collections.singletonMap("foo", "bar")));
+		OutRequest request = createRequest("1234", null, null, false, false, artifactSet, 1);
+		Directory directory = createDirectory();
+		List<File> files = new ArrayList<>();
+		Directory foos = createStructure(directory, "folder", "com", "example", "foo", "0.0.1");
+		files.add(new File(foos.getFile(), "foo-0.0.1.jar"));
+		files.add(new File(foos.getFile(), "foo-0.0.1-sources.jar"));
+		files.add(new File(foos.getFile(), "foo-0.0.1.pom"));
+		createEmptyFiles(files);
+		given(this.directoryScanner.scan(any(), any(), any())).willReturn(FileSet.of(files));
+		this.handler.handle(request, directory);
+		verify(this.artifactoryRepository, times(3)).deploy(this.artifactCaptor.capture(),
+				eq(DeployOption.DEFER_RETRIES));
+		List<DeployableArtifact> values = this.artifactCaptor.getAllValues();
+		assertThat(values.get(0).getProperties()).containsEntry("foo", "bar")
+			.isSameAs(values.get(2).getProperties());
+		assertThat(values.get(1).getProperties()).doesNotContainKey("foo").containsKey("build.name");
+	}
+
 	@Test
 	void handleAddsBuildRun() throws Exception {
 		OutRequest request = createRequest("1234");
@@ -357,7 +392,7 @@ class OutHandlerTests {
 		configureMockScanner(directory, Collections.emptyList(), "1.0.0.BUILD-SNAPSHOT",
 				"1.0.0.BUILD-20171005.194031-1");
 		this.handler.handle(request, directory);
-		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture());
+		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture(), eq(DeployOption.DEFER_RETRIES));
 		DeployableArtifact deployed = this.artifactCaptor.getValue();
 		assertThat(deployed.getPath()).isEqualTo("/com/example/foo/1.0.0.BUILD-SNAPSHOT/foo-1.0.0.BUILD-SNAPSHOT.jar");
 		assertThat(deployed.getProperties()).containsEntry("build.name", "my-build")
@@ -372,7 +407,7 @@ class OutHandlerTests {
 		configureMockScanner(directory, Collections.emptyList(), "1.0.0.BUILD-SNAPSHOT",
 				"1.0.0.BUILD-20171005.194031-1", "1.0.0.BUILD-20171005.194031-2");
 		this.handler.handle(request, directory);
-		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture());
+		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture(), eq(DeployOption.DEFER_RETRIES));
 		DeployableArtifact deployed = this.artifactCaptor.getValue();
 		assertThat(deployed.getPath()).isEqualTo("/com/example/foo/1.0.0.BUILD-SNAPSHOT/foo-1.0.0.BUILD-SNAPSHOT.jar");
 		assertThat(deployed.getProperties()).containsEntry("build.name", "my-build")
@@ -386,8 +421,79 @@ class OutHandlerTests {
 		Directory directory = createDirectory();
 		configureMockScanner(directory);
 		this.handler.handle(request, directory);
-		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture(), this.optionsCaptor.capture());
-		assertThat(this.optionsCaptor.getAllValues()).containsOnly(DeployOption.DISABLE_CHECKSUM_UPLOADS);
+		verify(this.artifactoryRepository).deploy(this.artifactCaptor.capture(),
+				eq(new DeployOption[] { DeployOption.DISABLE_CHECKSUM_UPLOADS, DeployOption.DEFER_RETRIES }));
+	}
+
+	@Test
+	void handleWhenHasIdenticalContentUploadsContentOnce() throws Exception {
+		OutRequest request = createRequest("1234", null, null, false, false, null, 2);
+		Directory directory = createDirectory();
+		Directory foos = createStructure(directory, "folder", "com", "example", "foo", "0.0.1");
+		List<File> files = new ArrayList<>();
+		files.add(new File(foos.getFile(), "foo-0.0.1.jar"));
+		files.add(new File(foos.getFile(), "foo-0.0.1-linux.jar"));
+		files.add(new File(foos.getFile(), "foo-0.0.1-windows.jar"));
+		for (File file : files) {
+			FileCopyUtils.copy("same".getBytes(StandardCharsets.UTF_8), file);
+		}
+		given(this.directoryScanner.scan(any(), any(), any())).willReturn(FileSet.of(files));
+		OutResponse response = this.handler.handle(request, directory);
+		verify(this.artifactoryRepository).deploy(any(), eq(DeployOption.DEFER_RETRIES));
+		verify(this.artifactoryRepository, times(2)).deploy(any(),
+				eq(new DeployOption[] { DeployOption.FORCE_CHECKSUM_UPLOADS, DeployOption.DEFER_RETRIES }));
+		assertThat(response.getMetadata()).filteredOn((metadata) -> metadata.getName().equals("deduplicated uploads"))
+			.extracting(Metadata::getValue)
+			.containsExactly("2");
+	}
+
+	@Test
+	void handleWhenHasIdenticalContentAndDisableChecksumUploadUploadsAllContent() throws Exception {
+		OutRequest request = createRequest("1234", null, null, false, true, null, 1);
+		Directory directory = createDirectory();
+		Directory foos = createStructure(directory, "folder", "com", "example", "foo", "0.0.1");
+		List<File> files = new ArrayList<>();
+		files.add(new File(foos.getFile(), "foo-0.0.1.jar"));
+		files.add(new File(foos.getFile(), "foo-0.0.1-linux.jar"));
+		for (File file : files) {
+			FileCopyUtils.copy("same".getBytes(StandardCharsets.UTF_8), file);
+		}
+		given(this.directoryScanner.scan(any(), any(), any())).willReturn(FileSet.of(files));
+		this.handler.handle(request, directory);
+		verify(this.artifactoryRepository, times(2)).deploy(any(),
+				eq(new DeployOption[] { DeployOption.DISABLE_CHECKSUM_UPLOADS, DeployOption.DEFER_RETRIES }));
+	}
+
+	@Test
+	void handleWhenDeployFailsWithRetryableExceptionRetriesLater() throws Exception {
+		OutRequest request = createRequest("1234");
+		Directory directory = createDirectory();
+		configureMockScanner(directory);
+		willThrow(new RetryableDeployException("Deploy failed", Duration.ZERO, null)).willDoNothing()
+			.given(this.artifactoryRepository)
+			.deploy(any(), eq(DeployOption.DEFER_RETRIES));
+		OutResponse response = this.handler.handle(request, directory);
+		verify(this.artifactoryRepository, times(2)).deploy(any(), eq(DeployOption.DEFER_RETRIES));
+		assertThat(response.getMetadata()).extracting(Metadata::getName, Metadata::getValue)
+			.contains(tuple("deploy retries", "1"), tuple("retried deploys succeeded", "1"));
+	}
+
+	@Test
+	void handleWhenAdaptiveAndDeployFailsWithRetryableExceptionRetriesLater() throws Exception {
+		OutRequest request = new OutRequest(new Source("https://ci.example.com", "admin", "password", "my-build", null),
+				new Params(false, "libs-snapshot-local", "1234", "folder", null, null, "mock", null, null, false, false,
+						null, 1, null, null, new AdaptiveConcurrency(1, 4), null, null, null));
+		Directory directory = createDirectory();
+		configureMockScanner(directory);
+		RuntimeException overload = new ResourceAccessException("I/O error", new SocketException("Connection reset"));
+		willThrow(new RetryableDeployException("Deploy failed", Duration.ZERO, overload)).willDoNothing()
+			.given(this.artifactoryRepository)
+			.deploy(any(), eq(DeployOption.DEFER_RETRIES));
+		OutResponse response = this.handler.handle(request, directory);
+		verify(this.artifactoryRepository, times(2)).deploy(any(), eq(DeployOption.DEFER_RETRIES));
+		assertThat(response.getMetadata()).extracting(Metadata::getName, Metadata::getValue)
+			.contains(tuple("deploy retries", "1"), tuple("retried deploys succeeded", "1"));
+		assertThat(response.getMetadata()).extracting(Metadata::getName).doesNotContain("overload retries");
 	}
 
 	@Test
@@ -402,7 +508,8 @@ class OutHandlerTests {
 		Directory directory = createDirectory();
 		configureMockScanner(directory);
 		this.handler.handle(request, directory);
-		verify(this.artifactoryRepository, times(2)).deploy(this.artifactCaptor.capture(), eq(new DeployOption[0]));
+		verify(this.artifactoryRepository, times(2)).deploy(this.artifactCaptor.capture(),
+				eq(DeployOption.DEFER_RETRIES));
 		DeployableArtifact deployedJar = this.artifactCaptor.getAllValues().get(0);
 		DeployableArtifact deployedAsc = this.artifactCaptor.getAllValues().get(1);
 		assertThat(deployedJar.getPath()).isEqualTo("/com/example/foo/0.0.1/foo-0.0.1.jar");
@@ -418,6 +525,27 @@ class OutHandlerTests {
 		assertThat(this.optionsCaptor.getAllValues()).isEmpty();
 	}
 
+	@Test
+	void handleReturnsPerformanceSummaryMetadata() throws Exception {
+		OutRequest request = createRequest("1234");
+		Directory directory = createDirectory();
+		configureMockScanner(directory);
+		OutResponse response = this.handler.handle(request, directory);
+		assertThat(response.getMetadata()).extracting(Metadata::getName)
+			.contains("total time", "scan time", "deploy primary time", "build-info time", "transfers", "latency");
+		assertThat(new File(directory.getFile(), "performance-summary.json")).doesNotExist();
+	}
+
+	@Test
+	void handleWithPerformanceSummaryFileSavesPerformanceSummary() throws Exception {
+		OutRequest request = createRequest("1234");
+		Directory directory = createDirectory();
+		configureMockScanner(directory);
+		File summary = new File(this.tempDir, "out-performance-summary.json");
+		this.handler.handle(request, directory, summary);
+		assertThat(summary).exists().content().contains("\"transfers\" : 1");
+	}
+
 	private OutRequest createRequest(String buildNumber) {
 		return createRequest(null, buildNumber, null, null);
 	}
@@ -461,7 +589,7 @@ class OutHandlerTests {
 		return new OutRequest(new Source("https://ci.example.com", "admin", "password", "my-build", project),
 				new Params(false, "libs-snapshot-local", buildNumber, "folder", include, exclude, "mock",
 						"https://ci.example.com/1234", buildProperties, stripSnapshotTimestamps, disableChecksumUploads,
-						artifactSet, threads, signingKey, signingPassphrase));
+						artifactSet, threads, signingKey, signingPassphrase, null, null, null, null));
 	}
 
 	private Directory createDirectory() {
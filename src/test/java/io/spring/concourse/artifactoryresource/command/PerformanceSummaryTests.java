@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.concourse.artifactoryresource.command.PerformanceSummary.Histogram;
+import io.spring.concourse.artifactoryresource.command.payload.Metadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PerformanceSummary}.
+ *
+ * @author agent
+ */
+class PerformanceSummaryTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void phaseReturnsResultAndRecordsTime() {
+		PerformanceSummary summary = new PerformanceSummary();
+		String result = summary.phase("test", () -> "result");
+		assertThat(result).isEqualTo("result");
+		assertThat(summary.getMetadata()).extracting(Metadata::getName).containsExactly("total time", "test time");
+	}
+
+	@Test
+	void getMetadataWhenHasTransfersIncludesTransferStatistics() {
+		PerformanceSummary summary = new PerformanceSummary();
+		summary.recordTransfer(1024, TimeUnit.MILLISECONDS.toNanos(10));
+		summary.recordTransfer(2048, TimeUnit.MILLISECONDS.toNanos(20));
+		summary.increment("retries");
+		summary.setValue("concurrency", "fixed");
+		assertThat(summary.getMetadata()).extracting(Metadata::getName)
+			.containsExactly("total time", "transfers", "bytes", "throughput", "latency", "retries", "concurrency");
+		assertThat(summary.getMetadata()).filteredOn((metadata) -> metadata.getName().equals("bytes"))
+			.extracting(Metadata::getValue)
+			.containsExactly("3.0 KB");
+	}
+
+	@Test
+	void saveWritesJson() {
+		PerformanceSummary summary = new PerformanceSummary();
+		summary.recordTransfer(100, TimeUnit.MILLISECONDS.toNanos(5));
+		File file = this.tempDir.resolve("performance-summary.json").toFile();
+		summary.save(file);
+		assertThat(file).content().contains("\"transfers\" : 1").contains("\"bytes\" : 100");
+	}
+
+	@Test
+	void formatBytes() {
+		assertThat(PerformanceSummary.formatBytes(100)).isEqualTo("100 B");
+		assertThat(PerformanceSummary.formatBytes(1536)).isEqualTo("1.5 KB");
+		assertThat(PerformanceSummary.formatBytes(3 * 1024 * 1024)).isEqualTo("3.0 MB");
+	}
+
+	@Test
+	void formatNanos() {
+		assertThat(PerformanceSummary.formatNanos(TimeUnit.MILLISECONDS.toNanos(15))).isEqualTo("15.0ms");
+		assertThat(PerformanceSummary.formatNanos(TimeUnit.MILLISECONDS.toNanos(2500))).isEqualTo("2.50s");
+	}
+
+	@Test
+	void histogramIndexAndValueRoundTrip() {
+		for (long value : new long[] { 0, 1, 31, 32, 63, 64, 1000, 123456789L }) {
+			long bucketValue = Histogram.valueOf(Histogram.indexOf(value));
+			assertThat(bucketValue).isLessThanOrEqualTo(value).isGreaterThanOrEqualTo(value - (value / 32));
+		}
+	}
+
+	@Test
+	void histogramGetValueAtPercentile() {
+		Histogram histogram = new Histogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+		assertThat(histogram.getValueAtPercentile(50)).isBetween(48L, 50L);
+		assertThat(histogram.getValueAtPercentile(99)).isBetween(96L, 99L);
+	}
+
+	@Test
+	void histogramWhenEmptyReturnsZero() {
+		assertThat(new Histogram().getValueAtPercentile(95)).isZero();
+	}
+
+}
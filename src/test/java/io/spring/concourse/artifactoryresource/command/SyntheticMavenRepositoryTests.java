@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import io.spring.concourse.artifactoryresource.command.SyntheticMavenRepository.Contents;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link SyntheticMavenRepository}.
+ *
+ * @author agent
+ */
+class SyntheticMavenRepositoryTests {
+
+	@TempDir
+	File tempDir;
+
+	@Test
+	void createWhenMaxFileSizeIsLessThanMinFileSizeThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new SyntheticMavenRepository(1, 100, 10, null, 0))
+			.withMessage("Max file size must not be less than min file size");
+	}
+
+	@Test
+	void generateCreatesMavenLayout() throws Exception {
+		Contents contents = new SyntheticMavenRepository(2, 100, 100, List.of("sources"), 0).generate(this.tempDir);
+		File folder = new File(this.tempDir, "com/example/module-1/1.0.0-SNAPSHOT");
+		assertThat(folder.list()).containsExactlyInAnyOrder("module-1-1.0.0-20240101.123456-1.pom",
+				"module-1-1.0.0-20240101.123456-1.jar", "module-1-1.0.0-20240101.123456-1-sources.jar");
+		assertThat(new File(folder, "module-1-1.0.0-20240101.123456-1.pom")).content()
+			.contains("<artifactId>module-1</artifactId>");
+		assertThat(new File(folder, "module-1-1.0.0-20240101.123456-1.jar")).hasSize(100);
+		assertThat(contents.getFiles()).isEqualTo(6);
+		assertThat(contents.getBytes()).isEqualTo(totalSize(this.tempDir));
+	}
+
+	@Test
+	void generateUsesFileSizesWithinBounds() throws Exception {
+		new SyntheticMavenRepository(20, 10, 5000, List.of("sources", "javadoc"), 0).generate(this.tempDir);
+		try (Stream<Path> paths = Files.walk(this.tempDir.toPath())) {
+			assertThat(paths.filter((path) -> path.toString().endsWith(".jar")).map((path) -> path.toFile().length()))
+				.allSatisfy((size) -> assertThat(size).isBetween(10L, 5000L));
+		}
+	}
+
+	private long totalSize(File directory) throws Exception {
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			return paths.filter(Files::isRegularFile).mapToLong((path) -> path.toFile().length()).sum();
+		}
+	}
+
+}
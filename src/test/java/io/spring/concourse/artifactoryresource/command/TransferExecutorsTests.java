@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TransferExecutors}.
+ *
+ * @author agent
+ */
+class TransferExecutorsTests {
+
+	@Test
+	void createWhenNotVirtualThreadsReturnsFixedThreadPool() {
+		ExecutorService executor = TransferExecutors.create(4, false);
+		try {
+			assertThat(executor).isInstanceOf(ThreadPoolExecutor.class);
+			assertThat(((ThreadPoolExecutor) executor).getMaximumPoolSize()).isEqualTo(4);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void createWhenVirtualThreadsUsesVirtualThreadsIfSupported() throws Exception {
+		ExecutorService executor = TransferExecutors.create(4, true);
+		try {
+			Thread thread = executor.submit(Thread::currentThread).get();
+			assertThat(isVirtual(thread)).isEqualTo(TransferExecutors.isVirtualThreadsSupported());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void getThreadMode() {
+		assertThat(TransferExecutors.getThreadMode(4, false)).isEqualTo("platform 4");
+		assertThat(TransferExecutors.getThreadMode(4, true))
+			.isEqualTo((TransferExecutors.isVirtualThreadsSupported()) ? "virtual" : "platform 4");
+	}
+
+	private boolean isVirtual(Thread thread) {
+		Method isVirtual = ReflectionUtils.findMethod(Thread.class, "isVirtual");
+		return (isVirtual != null) && Boolean.TRUE.equals(ReflectionUtils.invokeMethod(isVirtual, thread));
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.spring.concourse.artifactoryresource.command.LargestFirstScheduler.DeferredException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Tests for {@link UploadDeduplicator}.
+ *
+ * @author agent
+ */
+class UploadDeduplicatorTests {
+
+	private final UploadDeduplicator deduplicator = new UploadDeduplicator();
+
+	private final List<String> deploys = Collections.synchronizedList(new ArrayList<>());
+
+	@Test
+	void deployWhenFirstUploadsContent() {
+		assertThat(deploy("a", "/a.jar")).isFalse();
+		assertThat(this.deploys).containsExactly("content /a.jar");
+	}
+
+	@Test
+	void deployWhenSameSha1DeploysUsingChecksum() {
+		assertThat(deploy("a", "/a.jar")).isFalse();
+		assertThat(deploy("a", "/b.jar")).isTrue();
+		assertThat(this.deploys).containsExactly("content /a.jar", "checksum /b.jar");
+	}
+
+	@Test
+	void deployWhenDifferentSha1UploadsContent() {
+		assertThat(deploy("a", "/a.jar")).isFalse();
+		assertThat(deploy("b", "/b.jar")).isFalse();
+		assertThat(this.deploys).containsExactly("content /a.jar", "content /b.jar");
+	}
+
+	@Test
+	void deployWhenFirstUploadFailedUploadsContent() {
+		assertThatIllegalStateException().isThrownBy(() -> this.deduplicator.deploy("a", () -> {
+			throw new IllegalStateException("failed");
+		}, () -> this.deploys.add("checksum /a.jar")));
+		assertThat(deploy("a", "/b.jar")).isFalse();
+		assertThat(this.deploys).containsExactly("content /b.jar");
+	}
+
+	@Test
+	void deployWhenFirstUploadInProgressThrowsDeferredException() {
+		AtomicReference<DeferredException> deferred = new AtomicReference<>();
+		this.deduplicator.deploy("a", () -> {
+			deferred.set(catchThrowableOfType(() -> deploy("a", "/b.jar"), DeferredException.class));
+			this.deploys.add("content /a.jar");
+		}, () -> this.deploys.add("checksum /a.jar"));
+		assertThat(deferred.get()).isNotNull();
+		assertThat(deferred.get().getUntil()).isCompleted();
+		assertThat(deploy("a", "/b.jar")).isTrue();
+		assertThat(this.deploys).containsExactly("content /a.jar", "checksum /b.jar");
+	}
+
+	@Test
+	void deployWhenFirstUploadFailsAfterDeferringUploadsContentOnce() {
+		AtomicReference<DeferredException> deferred = new AtomicReference<>();
+		assertThatIllegalStateException().isThrownBy(() -> this.deduplicator.deploy("a", () -> {
+			deferred.set(catchThrowableOfType(() -> deploy("a", "/b.jar"), DeferredException.class));
+			throw new IllegalStateException("failed");
+		}, () -> this.deploys.add("checksum /a.jar")));
+		assertThat(deferred.get().getUntil()).isCompletedExceptionally();
+		assertThat(deploy("a", "/b.jar")).isFalse();
+		assertThat(deploy("a", "/c.jar")).isTrue();
+		assertThat(this.deploys).containsExactly("content /b.jar", "checksum /c.jar");
+	}
+
+	private boolean deploy(String sha1, String path) {
+		return this.deduplicator.deploy(sha1, () -> this.deploys.add("content " + path),
+				() -> this.deploys.add("checksum " + path));
+	}
+
+}
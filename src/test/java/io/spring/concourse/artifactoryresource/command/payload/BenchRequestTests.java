@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.command.payload;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.boot.test.json.JacksonTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link BenchRequest}.
+ *
+ * @author agent
+ */
+@JsonTest
+class BenchRequestTests {
+
+	@Autowired
+	private JacksonTester<BenchRequest> json;
+
+	@Test
+	void createWhenParamsIsNullUsesDefaults() {
+		BenchRequest request = new BenchRequest(null, null);
+		assertThat(request.getSource()).isNull();
+		assertThat(request.getParams().getRepo()).isEqualTo("bench-local");
+		assertThat(request.getParams().getModules()).isEqualTo(10);
+		assertThat(request.getParams().getMinFileSize()).isEqualTo(1024);
+		assertThat(request.getParams().getMaxFileSize()).isEqualTo(1024 * 1024);
+		assertThat(request.getParams().getClassifiers()).containsExactly("sources", "javadoc");
+		assertThat(request.getParams().getThreads()).isEqualTo(1);
+		assertThat(request.getParams().getStandInLatency()).isZero();
+		assertThat(request.getParams().getStandInBandwidth()).isZero();
+		assertThat(request.getParams().getStandInCapacity()).isZero();
+		assertThat(request.getParams().getAdaptiveConcurrency()).isNull();
+	}
+
+	@Test
+	void createWhenMaxFileSizeIsLessThanMinFileSizeThrowsException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new BenchRequest.Params(null, null, 2048, 1024, null, null, null, null, null, null, null))
+			.withMessage("Max file size must not be less than min file size");
+	}
+
+	@Test
+	void readDeserializesJson() throws Exception {
+		BenchRequest request = this.json.readObject("bench-request.json");
+		assertThat(request.getSource()).isNull();
+		assertThat(request.getParams().getRepo()).isEqualTo("libs-snapshot-local");
+		assertThat(request.getParams().getModules()).isEqualTo(50);
+		assertThat(request.getParams().getMinFileSize()).isEqualTo(512);
+		assertThat(request.getParams().getMaxFileSize()).isEqualTo(4096);
+		assertThat(request.getParams().getClassifiers()).containsExactly("sources");
+		assertThat(request.getParams().getThreads()).isEqualTo(8);
+		assertThat(request.getParams().getStandInLatency()).isEqualTo(20);
+		assertThat(request.getParams().getStandInBandwidth()).isEqualTo(1048576);
+		assertThat(request.getParams().getStandInCapacity()).isEqualTo(4);
+		assertThat(request.getParams().getAdaptiveConcurrency().getMin()).isEqualTo(2);
+		assertThat(request.getParams().getAdaptiveConcurrency().getMax()).isEqualTo(32);
+	}
+
+	@Test
+	void readWithSourceDeserializesJson() throws Exception {
+		BenchRequest request = this.json.readObject("bench-request-with-source.json");
+		assertThat(request.getSource().getUri()).isEqualTo("https://repo.example.com");
+		assertThat(request.getSource().getBuildName()).isEqualTo("my-build");
+		assertThat(request.getParams().getModules()).isEqualTo(10);
+	}
+
+}
@@ -43,7 +43,8 @@ class InRequestTests {
 
 	private Version version = new Version("1234", ArtifactoryDateFormat.parse("2014-01-20T12:01:02.003Z"));
 
-	private InRequest.Params params = new InRequest.Params(false, false, false, false, false, null);
+	private InRequest.Params params = new InRequest.Params(false, false, false, false, false, null, null, null, null,
+			null, null, null, null, null, null);
 
 	@Autowired
 	private JacksonTester<InRequest> json;
@@ -68,6 +69,11 @@ class InRequestTests {
 		assertThat(request.getParams().isDownloadArtifacts()).isTrue();
 		assertThat(request.getParams().isDownloadChecksums()).isTrue();
 		assertThat(request.getParams().getThreads()).isEqualTo(1);
+		assertThat(request.getParams().getCacheDirectory()).isNull();
+		assertThat(request.getParams().getCacheSizeLimit()).isEqualTo(10L * 1024 * 1024 * 1024);
+		assertThat(request.getParams().getInclude()).isEmpty();
+		assertThat(request.getParams().getExclude()).isEmpty();
+		assertThat(request.getParams().isContinueOnError()).isFalse();
 	}
 
 	@Test
@@ -82,6 +88,11 @@ class InRequestTests {
 		assertThat(request.getParams().isDownloadArtifacts()).isFalse();
 		assertThat(request.getParams().isDownloadChecksums()).isFalse();
 		assertThat(request.getParams().getThreads()).isEqualTo(8);
+		assertThat(request.getParams().getCacheDirectory()).isEqualTo("/var/cache/artifactory-resource");
+		assertThat(request.getParams().getCacheSizeLimit()).isEqualTo(1048576);
+		assertThat(request.getParams().getInclude()).containsExactly("**/*.jar", "**/*.pom");
+		assertThat(request.getParams().getExclude()).containsExactly("**/*-sources.jar");
+		assertThat(request.getParams().isContinueOnError()).isTrue();
 	}
 
 	@Test
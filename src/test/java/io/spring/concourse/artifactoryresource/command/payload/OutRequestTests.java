@@ -43,7 +43,7 @@ class OutRequestTests {
 	private Source source = new Source("http://localhost:8181", "username", "password", "my-build", "my-project");
 
 	private OutRequest.Params params = new OutRequest.Params(false, "libs-snapshot-local", "1234", "folder", null, null,
-			null, null, null, null, null, null, null, null, null);
+			null, null, null, null, null, null, null, null, null, null, null, null, null);
 
 	@Autowired
 	private JacksonTester<OutRequest> json;
@@ -64,7 +64,7 @@ class OutRequestTests {
 	void createParamsWhenFolderIsEmptyThrowsException() {
 		assertThatIllegalArgumentException()
 			.isThrownBy(() -> new OutRequest.Params(false, "libs-snapshot-local", "1234", "", null, null, null, null,
-					null, null, null, null, null, null, null))
+					null, null, null, null, null, null, null, null, null, null, null))
 			.withMessage("Folder must not be empty");
 	}
 
@@ -72,7 +72,7 @@ class OutRequestTests {
 	void createParamsWhenRepoIsEmptyThrowsException() {
 		assertThatIllegalArgumentException()
 			.isThrownBy(() -> new OutRequest.Params(false, "", "1234", "folder", null, null, null, null, null, null,
-					null, null, null, null, null))
+					null, null, null, null, null, null, null, null, null))
 			.withMessage("Repo must not be empty");
 	}
 
@@ -93,6 +93,7 @@ class OutRequestTests {
 		assertThat(request.getParams().isStripSnapshotTimestamps()).isEqualTo(false);
 		assertThat(request.getParams().isDisableChecksumUploads()).isEqualTo(true);
 		assertThat(request.getParams().getThreads()).isEqualTo(8);
+		assertThat(request.getParams().isContinueOnError()).isTrue();
 		assertThat(request.getParams().getSigningKey()).isNull();
 		assertThat(request.getParams().getSigningPassphrase()).isNull();
 		List<ArtifactSet> artifactSet = request.getParams().getArtifactSet();
@@ -20,6 +20,7 @@ import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.Proxy.Type;
 
+import io.spring.concourse.artifactoryresource.artifactory.TransferLimits;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -60,8 +61,9 @@ class SourceTests {
 
 	@Test
 	void createWhenBuildNameIsEmptyThrowsException() {
-		assertThatIllegalArgumentException().isThrownBy(
-				() -> new Source("https://repo.example.com", "username", "password", "", null, null, null, null, null))
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new Source("https://repo.example.com", "username", "password", "", null, null, null, null,
+					null, null, null))
 			.withMessage("Build Name must not be empty");
 	}
 
@@ -69,7 +71,7 @@ class SourceTests {
 	void createWhenHasProxyHostWithoutProxyPortThrowsException() {
 		assertThatIllegalArgumentException()
 			.isThrownBy(() -> new Source("https://repo.example.com", "username", "password", "my-build", null, null,
-					null, "proxy.example.com", null))
+					null, "proxy.example.com", null, null, null))
 			.withMessage("Proxy port must be provided");
 	}
 
@@ -82,6 +84,31 @@ class SourceTests {
 		assertThat(source.getBuildName()).isEqualTo("my-build");
 		assertThat(source.getBuildNumberPrefix()).isEqualTo("main-");
 		assertThat(source.getCheckLimit()).isEqualTo(1);
+		assertThat(source.isFlightRecording()).isFalse();
+	}
+
+	@Test
+	void readDeserializesJsonWithFlightRecording() throws Exception {
+		Source source = this.json.readObject("source-with-flight-recording.json");
+		assertThat(source.getBuildName()).isEqualTo("my-build");
+		assertThat(source.isFlightRecording()).isTrue();
+	}
+
+	@Test
+	void readDeserializesJsonWithTransferLimits() throws Exception {
+		Source source = this.json.readObject("source-with-transfer-limits.json");
+		TransferLimits transferLimits = source.getTransferLimits();
+		assertThat(transferLimits.isLimited()).isTrue();
+		assertThat(transferLimits.getUploadBandwidth()).isEqualTo(1048576);
+		assertThat(transferLimits.getDownloadBandwidth()).isEqualTo(4194304);
+		assertThat(transferLimits.getUploadRequestsPerSecond()).isEqualTo(10);
+		assertThat(transferLimits.getDownloadRequestsPerSecond()).isZero();
+	}
+
+	@Test
+	void readWhenNoTransferLimitsUsesNone() throws Exception {
+		Source source = this.json.readObject("source.json");
+		assertThat(source.getTransferLimits()).isSameAs(TransferLimits.NONE);
 	}
 
 	@Test
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link InterruptibleClientHttpRequest}.
+ *
+ * @author agent
+ */
+class InterruptibleClientHttpRequestTests {
+
+	private final SimpleSslClientHttpRequestFactory requestFactory = new SimpleSslClientHttpRequestFactory(
+			(SSLContext) null);
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	private final CountDownLatch responding = new CountDownLatch(1);
+
+	private final CountDownLatch disconnected = new CountDownLatch(1);
+
+	private HttpServer server;
+
+	private URI uri;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		this.server.createContext("/", (exchange) -> {
+			this.requests.incrementAndGet();
+			exchange.sendResponseHeaders(200, Long.MAX_VALUE / 2);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				byte[] chunk = new byte[8 * 1024];
+				while (true) {
+					outputStream.write(chunk);
+					outputStream.flush();
+					this.responding.countDown();
+				}
+			}
+			catch (IOException ex) {
+				this.disconnected.countDown();
+			}
+		});
+		this.server.start();
+		InetSocketAddress address = this.server.getAddress();
+		this.uri = URI.create("http://" + address.getHostString() + ":" + address.getPort() + "/");
+	}
+
+	@AfterEach
+	void stopServer() {
+		this.server.stop(0);
+	}
+
+	@Test
+	void createRequestReturnsInterruptibleRequest() throws Exception {
+		ClientHttpRequest request = this.requestFactory.createRequest(this.uri, HttpMethod.GET);
+		assertThat(request).isInstanceOf(InterruptibleClientHttpRequest.class);
+	}
+
+	@Test
+	void readWhenInterruptedAbortsExchange() throws Exception {
+		CompletableFuture<Thread> reader = new CompletableFuture<>();
+		CompletableFuture<Throwable> result = CompletableFuture.supplyAsync(() -> {
+			reader.complete(Thread.currentThread());
+			try (ClientHttpResponse response = this.requestFactory.createRequest(this.uri, HttpMethod.GET).execute()) {
+				response.getBody().transferTo(OutputStream.nullOutputStream());
+				return null;
+			}
+			catch (IOException ex) {
+				return ex;
+			}
+			finally {
+				Thread.interrupted();
+			}
+		});
+		assertThat(this.responding.await(10, TimeUnit.SECONDS)).isTrue();
+		reader.get().interrupt();
+		assertThat(result.get(10, TimeUnit.SECONDS)).isInstanceOf(InterruptedIOException.class);
+		assertThat(this.disconnected.await(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void executeWhenInterruptedDoesNotSendRequest() throws Exception {
+		ClientHttpRequest request = this.requestFactory.createRequest(this.uri, HttpMethod.GET);
+		Thread.currentThread().interrupt();
+		try {
+			assertThatExceptionOfType(InterruptedIOException.class).isThrownBy(request::execute);
+		}
+		finally {
+			Thread.interrupted();
+		}
+		assertThat(this.requests).hasValue(0);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2021 the original author or authors.
+ * Copyright 2017-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,18 @@
 
 package io.spring.concourse.artifactoryresource.http;
 
+import java.net.URI;
+
+import javax.net.ssl.HttpsURLConnection;
+
 import org.junit.jupiter.api.Test;
 
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,4 +48,18 @@ class SimpleSslClientHttpRequestFactoryTests {
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 	}
 
+	@Test
+	void createRequestWithSslContextSharesSocketFactory() throws Exception {
+		SimpleClientHttpRequestFactory requestFactory = new SimpleSslClientHttpRequestFactory(
+				new InsecureSslContextFactory().getSslContext());
+		ClientHttpRequest request1 = requestFactory.createRequest(new URI("https://example.com"), HttpMethod.GET);
+		ClientHttpRequest request2 = requestFactory.createRequest(new URI("https://example.com"), HttpMethod.GET);
+		assertThat(getConnection(request1).getSSLSocketFactory())
+			.isSameAs(getConnection(request2).getSSLSocketFactory());
+	}
+
+	private HttpsURLConnection getConnection(ClientHttpRequest request) {
+		return (HttpsURLConnection) ReflectionTestUtils.getField(request, "connection");
+	}
+
 }
@@ -18,6 +18,7 @@ package io.spring.concourse.artifactoryresource.io;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Collections;
 
 import org.junit.jupiter.api.Test;
@@ -81,6 +82,47 @@ class DirectoryScannerTests {
 		assertThat(files).extracting((f) -> relativePath(directory, f)).containsExactly("/bar/bar.jar");
 	}
 
+	@Test
+	void scanWhenExcludingDirectoryDoesNotReturnFilesFromDirectory() throws IOException {
+		Directory directory = createFiles();
+		touch(new File(this.tempDir, "node_modules/foo/foo.jar"));
+		touch(new File(this.tempDir, "bar/node_modules/bar.jar"));
+		FileSet files = this.scanner.scan(directory, Collections.singletonList("**/*.jar"),
+				Collections.singletonList("**/node_modules/**"));
+		assertThat(files).extracting((f) -> relativePath(directory, f)).containsExactly("/bar/bar.jar", "/baz/baz.jar");
+	}
+
+	@Test
+	void scanWhenIncludingDirectoryOnlyReturnsFilesFromDirectory() throws IOException {
+		Directory directory = createFiles();
+		FileSet files = this.scanner.scan(directory, Collections.singletonList("baz/**"), Collections.emptyList());
+		assertThat(files).extracting((f) -> relativePath(directory, f)).containsExactly("/baz/baz.jar", "/baz/baz.pom");
+	}
+
+	@Test
+	void scanWhenHasSymbolicLinkToFileReturnsLink() throws IOException {
+		Directory directory = createFiles();
+		Files.createSymbolicLink(new File(this.tempDir, "bar/link.jar").toPath(),
+				new File(this.tempDir, "baz/baz.jar").toPath());
+		FileSet files = this.scanner.scan(directory, Collections.singletonList("bar/*.jar"), Collections.emptyList());
+		assertThat(files).extracting((f) -> relativePath(directory, f))
+			.containsExactlyInAnyOrder("/bar/bar.jar", "/bar/link.jar");
+	}
+
+	@Test
+	void scanWhenUsingDifferentParallelismReturnsSameOrder() throws IOException {
+		Directory directory = createFiles();
+		for (int module = 0; module < 50; module++) {
+			File folder = new File(this.tempDir, "com/example/module-" + module + "/1.0.0");
+			touch(new File(folder, "module-" + module + "-1.0.0.pom"));
+			touch(new File(folder, "module-" + module + "-1.0.0.jar"));
+			touch(new File(folder, "module-" + module + "-1.0.0-sources.jar"));
+		}
+		FileSet sequential = new DirectoryScanner(1).scan(directory, Collections.emptyList());
+		FileSet parallel = new DirectoryScanner(8).scan(directory, Collections.emptyList());
+		assertThat(parallel).hasSize(154).containsExactlyElementsOf(sequential);
+	}
+
 	private String relativePath(Directory directory, File file) {
 		String root = StringUtils.cleanPath(directory.getFile().getPath());
 		String path = StringUtils.cleanPath(file.getPath());
@@ -181,6 +181,12 @@ class FileSetTests {
 		assertThat(signatureFiles).allSatisfy((file) -> file.getName().endsWith(".asc"));
 	}
 
+	@Test
+	void batchedByCategoryWhenHasUpperCaseChecksumFileDoesNotUseItAsPrimary() {
+		FileSet fileSet = fileSetOf("a/foo.jar", "a/f.MD5");
+		assertThat((Iterable<File>) fileSet.batchedByCategory().get(Category.PRIMARY)).satisfies(filesNamed("foo.jar"));
+	}
+
 	private boolean filter(File file) {
 		String name = file.getName().toLowerCase();
 		return (!name.endsWith(".md5") && !name.endsWith("sha1") && !name.equalsIgnoreCase("maven-metadata.xml"));
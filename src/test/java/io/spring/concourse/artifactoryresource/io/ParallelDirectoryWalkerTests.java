@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link ParallelDirectoryWalker}.
+ *
+ * @author agent
+ */
+class ParallelDirectoryWalkerTests {
+
+	private static final byte[] NO_BYTES = {};
+
+	@TempDir
+	File tempDir;
+
+	private final ParallelDirectoryWalker walker = new ParallelDirectoryWalker(4);
+
+	@Test
+	void createWhenParallelismIsNotPositiveThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new ParallelDirectoryWalker(0))
+			.withMessage("Parallelism must be positive");
+	}
+
+	@Test
+	void walkReturnsMatchingFilesFromAllDirectories() throws IOException {
+		touch("a/b/c/one.jar");
+		touch("a/two.jar");
+		touch("d/three.pom");
+		touch("four.jar");
+		List<File> files = this.walker.walk(this.tempDir.toPath(),
+				new PathFilter(Collections.singletonList("**/*.jar"), Collections.emptyList()));
+		assertThat(files).containsExactlyInAnyOrder(file("a/b/c/one.jar"), file("a/two.jar"), file("four.jar"));
+	}
+
+	@Test
+	void walkDoesNotReturnDirectories() throws IOException {
+		touch("a/one.jar");
+		List<File> files = this.walker.walk(this.tempDir.toPath(),
+				new PathFilter(Collections.emptyList(), Collections.emptyList()));
+		assertThat(files).containsExactly(file("a/one.jar"));
+	}
+
+	@Test
+	void walkWhenDirectoryIsExcludedDoesNotReturnFiles() throws IOException {
+		touch("a/one.jar");
+		touch("a/.gradle/caches/two.jar");
+		List<File> files = this.walker.walk(this.tempDir.toPath(),
+				new PathFilter(Collections.emptyList(), Collections.singletonList("**/.gradle/**")));
+		assertThat(files).containsExactly(file("a/one.jar"));
+	}
+
+	@Test
+	void walkWhenRootDoesNotExistThrowsException() {
+		assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(() -> this.walker
+			.walk(file("missing").toPath(), new PathFilter(Collections.emptyList(), Collections.emptyList())));
+	}
+
+	private void touch(String path) throws IOException {
+		File file = file(path);
+		file.getParentFile().mkdirs();
+		FileCopyUtils.copy(NO_BYTES, file);
+	}
+
+	private File file(String path) {
+		return new File(this.tempDir, path);
+	}
+
+}
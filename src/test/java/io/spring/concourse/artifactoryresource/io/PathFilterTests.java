@@ -17,6 +17,7 @@
 package io.spring.concourse.artifactoryresource.io;
 
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -79,4 +80,61 @@ class PathFilterTests {
 		assertThat(filter.isMatch("/foo/baz")).isTrue();
 	}
 
+	@Test
+	void isMatchWhenIncludeIsLiteralReturnsTrueForExactPath() {
+		PathFilter filter = new PathFilter(Collections.singletonList("foo/bar.jar"), Collections.emptyList());
+		assertThat(filter.isMatch("foo/bar.jar")).isTrue();
+		assertThat(filter.isMatch("/foo/bar.jar")).isTrue();
+		assertThat(filter.isMatch("foo/bar.jar.md5")).isFalse();
+	}
+
+	@Test
+	void isMatchWhenIncludeMatchesAnyFileWithExtension() {
+		PathFilter filter = new PathFilter(Collections.singletonList("**/*.jar"), Collections.emptyList());
+		assertThat(filter.isMatch("bar.jar")).isTrue();
+		assertThat(filter.isMatch("foo/bar.jar")).isTrue();
+		assertThat(filter.isMatch("/foo/bar.jar")).isTrue();
+		assertThat(filter.isMatch("foo/bar.pom")).isFalse();
+	}
+
+	@Test
+	void isMatchCandidateWhenIncludeIsEmptyAndExcludeIsEmptyReturnsTrue() {
+		PathFilter filter = new PathFilter(Collections.emptyList(), Collections.emptyList());
+		assertThat(filter.isMatchCandidate("foo")).isTrue();
+	}
+
+	@Test
+	void isMatchCandidateWhenIncludeCannotMatchBelowDirectoryReturnsFalse() {
+		PathFilter filter = new PathFilter(List.of("com/example/**", "org/example/bar.jar"), Collections.emptyList());
+		assertThat(filter.isMatchCandidate("com")).isTrue();
+		assertThat(filter.isMatchCandidate("com/example")).isTrue();
+		assertThat(filter.isMatchCandidate("com/example/foo")).isTrue();
+		assertThat(filter.isMatchCandidate("org/example")).isTrue();
+		assertThat(filter.isMatchCandidate("org/example/bar.jar")).isFalse();
+		assertThat(filter.isMatchCandidate("com/other")).isFalse();
+		assertThat(filter.isMatchCandidate("node_modules")).isFalse();
+	}
+
+	@Test
+	void isMatchCandidateWhenIncludeMatchesAnyFileWithExtensionReturnsTrue() {
+		PathFilter filter = new PathFilter(Collections.singletonList("/**/*.jar"), Collections.emptyList());
+		assertThat(filter.isMatchCandidate("foo/bar")).isTrue();
+	}
+
+	@Test
+	void isMatchCandidateWhenExcludeMatchesEverythingBelowDirectoryReturnsFalse() {
+		PathFilter filter = new PathFilter(Collections.emptyList(), List.of("**/node_modules/**", "/.gradle/**"));
+		assertThat(filter.isMatchCandidate("node_modules")).isFalse();
+		assertThat(filter.isMatchCandidate("foo/node_modules")).isFalse();
+		assertThat(filter.isMatchCandidate(".gradle")).isFalse();
+		assertThat(filter.isMatchCandidate("foo/.gradle")).isTrue();
+		assertThat(filter.isMatchCandidate("foo")).isTrue();
+	}
+
+	@Test
+	void isMatchCandidateWhenExcludeMatchesSomeFilesBelowDirectoryReturnsTrue() {
+		PathFilter filter = new PathFilter(Collections.emptyList(), Collections.singletonList("**/*.jar"));
+		assertThat(filter.isMatchCandidate("foo")).isTrue();
+	}
+
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import io.spring.concourse.artifactoryresource.io.Checksum;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link FlightRecording} and {@link ResourceEvent}.
+ *
+ * @author agent
+ */
+class FlightRecordingTests {
+
+	@TempDir
+	File temp;
+
+	@Test
+	void startWhenNotEnabledDoesNotSaveRecording() {
+		FlightRecording recording = FlightRecording.start(false);
+		recording.stop(this.temp);
+		assertThat(new File(this.temp, FlightRecording.FILE_NAME)).doesNotExist();
+	}
+
+	@Test
+	void startWhenEnabledSavesRecordingWithEvents() throws Exception {
+		FlightRecording recording = FlightRecording.start(true);
+		Checksum.calculateAll("test");
+		recording.stop(this.temp);
+		List<RecordedEvent> events = readEvents("io.spring.concourse.artifactoryresource.Checksum");
+		assertThat(events).isNotEmpty();
+		RecordedEvent event = events.get(0);
+		assertThat(event.getLong("bytes")).isEqualTo(4);
+		assertThat(event.getString("outcome")).isEqualTo("success");
+	}
+
+	@Test
+	void recordWhenActionFailsUsesExceptionAsOutcome() throws Exception {
+		FlightRecording recording = FlightRecording.start(true);
+		SignEvent event = new SignEvent("test.jar");
+		assertThatIllegalStateException().isThrownBy(() -> event.record(() -> {
+			throw new IllegalStateException("failed");
+		}));
+		recording.stop(this.temp);
+		List<RecordedEvent> events = readEvents("io.spring.concourse.artifactoryresource.Sign");
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getString("path")).isEqualTo("test.jar");
+		assertThat(events.get(0).getString("outcome")).isEqualTo("IllegalStateException");
+	}
+
+	private List<RecordedEvent> readEvents(String name) throws IOException {
+		Path path = new File(this.temp, FlightRecording.FILE_NAME).toPath();
+		return RecordingFile.readAllEvents(path)
+			.stream()
+			.filter((event) -> event.getEventType().getName().equals(name))
+			.toList();
+	}
+
+}
@@ -70,4 +70,35 @@ class MavenCoordinatesTests {
 			.withStackTraceContaining("Name 'maven-metadata-local.xml' does not start with artifact ID 'app'");
 	}
 
+	@Test
+	void fromPathWhenSameFolderReturnsCoordinates() {
+		String folder = "/com/example/my-project/1.0.0-SNAPSHOT/";
+		MavenCoordinates pom = MavenCoordinates.fromPath(folder + "my-project-1.0.0-20240101.123456-12.pom");
+		MavenCoordinates javadoc = MavenCoordinates
+			.fromPath(folder + "my-project-1.0.0-20240101.123456-12-javadoc.jar");
+		assertThat(pom.getClassifier()).isEqualTo("");
+		assertThat(pom.getExtension()).isEqualTo("pom");
+		assertThat(pom.getSnapshotVersion()).isEqualTo("1.0.0-20240101.123456-12");
+		assertThat(javadoc.getClassifier()).isEqualTo("javadoc");
+		assertThat(javadoc.getExtension()).isEqualTo("jar");
+		assertThat(javadoc.getSnapshotVersion()).isEqualTo("1.0.0-20240101.123456-12");
+		assertThat(javadoc.getVersion()).isSameAs(pom.getVersion());
+	}
+
+	@Test
+	void fromPathWhenSnapshotReturnsCoordinates() {
+		MavenCoordinates coordinates = MavenCoordinates
+			.fromPath("/com/example/my-project/1.0.0-SNAPSHOT/my-project-1.0.0-SNAPSHOT-sources.jar");
+		assertThat(coordinates.getClassifier()).isEqualTo("sources");
+		assertThat(coordinates.getSnapshotVersion()).isEqualTo("1.0.0-SNAPSHOT");
+		assertThat(coordinates.getVersionType()).isEqualTo(MavenVersionType.SNAPSHOT);
+	}
+
+	@Test
+	void fromPathWhenNoExtensionThrowsNiceException() {
+		assertThatIllegalStateException()
+			.isThrownBy(() -> MavenCoordinates.fromPath("/com/example/my-project/1.0.0/my-project-1"))
+			.withMessage("Unable to parse maven coordinates from path 'com/example/my-project/1.0.0/my-project-1'");
+	}
+
 }
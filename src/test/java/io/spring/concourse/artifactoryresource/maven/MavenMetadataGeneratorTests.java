@@ -76,6 +76,23 @@ class MavenMetadataGeneratorTests {
 		assertThat(file).exists().has(xmlContent(expected));
 	}
 
+	@Test
+	void generateForFolderCreatesMetadata() throws Exception {
+		Directory directory = createStructure("1.0.0.BUILD-SNAPSHOT");
+		File folder = new File(directory.toString() + "/com/example/project/my-project/1.0.0.BUILD-SNAPSHOT/");
+		this.generator.generate(directory, folder, false);
+		URL expected = getClass().getResource("generate-when-using-snapshot.xml");
+		assertThat(new File(folder, "maven-metadata.xml")).exists().has(xmlContent(expected));
+	}
+
+	@Test
+	void generateForFolderWithoutPomDoesNotCreateMetadata() throws Exception {
+		Directory directory = createStructure("1.0.0.BUILD-SNAPSHOT");
+		File folder = new File(directory.toString() + "/com/example/project/my-project/");
+		this.generator.generate(directory, folder, false);
+		assertThat(new File(folder, "maven-metadata.xml")).doesNotExist();
+	}
+
 	@Test
 	void generateWhenCreatingChecksumsCreatesChecksums() throws Exception {
 		Directory directory = createStructure("1.0.0.BUILD-SNAPSHOT");
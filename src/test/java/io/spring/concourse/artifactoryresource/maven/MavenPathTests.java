@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.maven;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link MavenPath}.
+ *
+ * @author agent
+ */
+class MavenPathTests {
+
+	@Test
+	void parseReturnsPath() {
+		MavenPath path = MavenPath.parse("/com/example/project/my-project/1.0.0-SNAPSHOT/my-project-1.0.0.jar");
+		assertThat(path.getGroupId()).isEqualTo("com.example.project");
+		assertThat(path.getArtifactId()).isEqualTo("my-project");
+		assertThat(path.getVersion()).isEqualTo("1.0.0-SNAPSHOT");
+		assertThat(path.getRootVersion()).isEqualTo("1.0.0");
+		assertThat(path.getModuleId()).isEqualTo("com.example.project:my-project:1.0.0-SNAPSHOT");
+		assertThat(path.getName()).isEqualTo("my-project-1.0.0.jar");
+		assertThat(path.getNameStart()).isEqualTo(47);
+	}
+
+	@Test
+	void parseWhenNoLeadingSlashReturnsPath() {
+		MavenPath path = MavenPath.parse("com/example/my-project/1.0.0/my-project-1.0.0.jar");
+		assertThat(path.getGroupId()).isEqualTo("com.example");
+		assertThat(path.getArtifactId()).isEqualTo("my-project");
+		assertThat(path.getVersion()).isEqualTo("1.0.0");
+		assertThat(path.getRootVersion()).isEqualTo("1.0.0");
+		assertThat(path.getName()).isEqualTo("my-project-1.0.0.jar");
+	}
+
+	@Test
+	void parseWhenSameFolderReusesFolderElements() {
+		MavenPath jar = MavenPath.parse("/com/example/my-project/1.0.0/my-project-1.0.0.jar");
+		MavenPath pom = MavenPath.parse("com/example/my-project/1.0.0/my-project-1.0.0.pom");
+		assertThat(pom.getGroupId()).isSameAs(jar.getGroupId());
+		assertThat(pom.getModuleId()).isSameAs(jar.getModuleId());
+		assertThat(pom.getName()).isEqualTo("my-project-1.0.0.pom");
+	}
+
+	@Test
+	void parseWhenNestedBelowPreviousFolderDoesNotReuseFolderElements() {
+		MavenPath.parse("/com/example/my-project/1.0.0/my-project-1.0.0.jar");
+		MavenPath nested = MavenPath.parse("/com/example/my-project/1.0.0/nested/my-project-1.0.0.jar");
+		assertThat(nested.getGroupId()).isEqualTo("com.example.my-project");
+		assertThat(nested.getArtifactId()).isEqualTo("1.0.0");
+		assertThat(nested.getVersion()).isEqualTo("nested");
+	}
+
+	@Test
+	void parseWhenTooFewFoldersThrowsException() {
+		assertThatIllegalStateException().isThrownBy(() -> MavenPath.parse("/my-project/1.0.0/my-project-1.0.0.jar"))
+			.withMessage("Path does not match folder pattern");
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.concourse.artifactoryresource.standin;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.spring.concourse.artifactoryresource.artifactory.BuildNumber;
+import io.spring.concourse.artifactoryresource.artifactory.DeployOption;
+import io.spring.concourse.artifactoryresource.artifactory.HttpArtifactoryBuildRuns;
+import io.spring.concourse.artifactoryresource.artifactory.HttpArtifactoryRepository;
+import io.spring.concourse.artifactoryresource.artifactory.payload.BuildRun;
+import io.spring.concourse.artifactoryresource.artifactory.payload.ContinuousIntegrationAgent;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployableByteArrayArtifact;
+import io.spring.concourse.artifactoryresource.artifactory.payload.DeployedArtifact;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link ArtifactoryStandIn}.
+ *
+ * @author agent
+ */
+class ArtifactoryStandInTests {
+
+	private static final String REPO = "libs-snapshot-local";
+
+	@TempDir
+	File temp;
+
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	private ArtifactoryStandIn standIn;
+
+	@AfterEach
+	void stop() {
+		if (this.standIn != null) {
+			this.standIn.stop();
+		}
+	}
+
+	@Test
+	void deployAndDownload() throws Exception {
+		start(StandInSettings.DEFAULT);
+		HttpArtifactoryRepository repository = createRepository();
+		byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-1.0.jar", content,
+				Map.of("build.name", "my-build", "build.number", "1")));
+		assertThat(this.standIn.getDeployedPaths()).containsExactly(REPO + "/com/example/foo/1.0/foo-1.0.jar");
+		repository.download("com/example/foo/1.0/foo-1.0.jar", this.temp, true);
+		File downloaded = new File(this.temp, "com/example/foo/1.0/foo-1.0.jar");
+		assertThat(Files.readAllBytes(downloaded.toPath())).isEqualTo(content);
+		assertThat(new File(this.temp, "com/example/foo/1.0/foo-1.0.jar.sha1"))
+			.hasContent("040f06fd774092478d450774f5ba30c5da78acc8");
+		assertThat(this.standIn.getRequestCounts()).containsEntry("PUT", 1L).containsEntry("GET", 3L);
+	}
+
+	@Test
+	void deployUsingChecksumWhenContentIsKnown() {
+		start(StandInSettings.DEFAULT);
+		HttpArtifactoryRepository repository = createRepository();
+		byte[] content = new byte[20 * 1024];
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-1.0.jar", content));
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/bar/1.0/bar-1.0.jar", content));
+		assertThat(this.standIn.getDeployedPaths()).hasSize(2);
+		assertThat(this.standIn.getRequestCounts()).containsEntry("PUT", 3L);
+	}
+
+	@Test
+	void getDeployedArtifactsUsesAql() {
+		start(StandInSettings.DEFAULT);
+		HttpArtifactoryRepository repository = createRepository();
+		byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-1.0.jar", content,
+				Map.of("build.name", "my-build", "build.number", "1")));
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/foo/2.0/foo-2.0.jar", content,
+				Map.of("build.name", "my-build", "build.number", "2")));
+		List<DeployedArtifact> artifacts = createBuildRuns(true).getDeployedArtifacts(BuildNumber.of("1"));
+		assertThat(artifacts).hasSize(1);
+		DeployedArtifact artifact = artifacts.get(0);
+		assertThat(artifact.getRepo()).isEqualTo(REPO);
+		assertThat(artifact.getPath()).isEqualTo("com/example/foo/1.0");
+		assertThat(artifact.getName()).isEqualTo("foo-1.0.jar");
+		assertThat(artifact.getSize()).isEqualTo(content.length);
+		assertThat(artifact.getActualSha1()).isEqualTo("040f06fd774092478d450774f5ba30c5da78acc8");
+		assertThat(artifact.getCreated()).isNull();
+	}
+
+	@Test
+	void getDeployedArtifactsWithPatternsUsesAqlNameCriteria() {
+		start(StandInSettings.DEFAULT);
+		HttpArtifactoryRepository repository = createRepository();
+		byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+		Map<String, String> properties = Map.of("build.name", "my-build", "build.number", "1");
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-1.0.jar", content, properties));
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-1.0.pom", content, properties));
+		repository.deploy(
+				new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-1.0-sources.jar", content, properties));
+		List<DeployedArtifact> artifacts = createBuildRuns(true)
+			.streamDeployedArtifacts(BuildNumber.of("1"), List.of("**/*.jar"), List.of("**/*-sources.jar"))
+			.toList();
+		assertThat(artifacts).extracting(DeployedArtifact::getName).containsExactly("foo-1.0.jar");
+	}
+
+	@Test
+	void addAndGetBuildRuns() {
+		start(StandInSettings.DEFAULT);
+		Instant started = Instant.parse("2024-01-01T12:00:00.000Z");
+		for (boolean admin : new boolean[] { true, false }) {
+			HttpArtifactoryBuildRuns buildRuns = createBuildRuns(admin);
+			buildRuns.add(BuildNumber.of("main-" + admin), new ContinuousIntegrationAgent("Concourse", null), started,
+					null, null, null);
+		}
+		List<BuildRun> runs = createBuildRuns(true).getStartedOnOrAfter("main-", started);
+		assertThat(runs).extracting(BuildRun::getBuildNumber).containsExactlyInAnyOrder("main-true", "main-false");
+		runs = createBuildRuns(false).getAll("main-t");
+		assertThat(runs).extracting(BuildRun::getBuildNumber).containsExactly("main-true");
+		assertThat(createBuildRuns(false).getRawBuildInfo(BuildNumber.of("main-true"))).contains("\"buildInfo\"");
+	}
+
+	@Test
+	void serviceIdWhenNotAdminReturnsForbidden() {
+		start(StandInSettings.DEFAULT.withAdmin(false));
+		assertThatExceptionOfType(HttpClientErrorException.Forbidden.class)
+			.isThrownBy(() -> this.restTemplate.headForHeaders(this.standIn.getUri() + "api/system/service_id"));
+	}
+
+	@Test
+	void failureInjectionReturnsFailureStatus() {
+		start(StandInSettings.DEFAULT.withFailures(1.0, 503));
+		assertThatExceptionOfType(HttpServerErrorException.class)
+			.isThrownBy(() -> this.restTemplate.getForObject(this.standIn.getUri() + REPO + "/missing", String.class))
+			.satisfies((ex) -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+		assertThat(this.standIn.getInjectedFailures()).isOne();
+	}
+
+	@Test
+	void latencyDelaysResponses() {
+		start(StandInSettings.DEFAULT.withLatency(Duration.ofMillis(200)));
+		long start = System.nanoTime();
+		this.restTemplate.headForHeaders(this.standIn.getUri() + "api/system/service_id");
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+	}
+
+	@Test
+	void bandwidthLimitsTransfers() {
+		start(StandInSettings.DEFAULT.withBandwidth(100 * 1024));
+		HttpArtifactoryRepository repository = createRepository();
+		long start = System.nanoTime();
+		repository.deploy(new DeployableByteArrayArtifact("/com/example/foo/1.0/foo-1.0.jar", new byte[50 * 1024]),
+				DeployOption.DISABLE_CHECKSUM_UPLOADS);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+	}
+
+	@Test
+	void capacityRejectsExcessConcurrentRequests() throws Exception {
+		start(StandInSettings.DEFAULT.withLatency(Duration.ofMillis(200)).withCapacity(1));
+		String uri = this.standIn.getUri() + "api/system/service_id";
+		CompletableFuture<?> first = CompletableFuture.runAsync(() -> this.restTemplate.headForHeaders(uri));
+		CompletableFuture<?> second = CompletableFuture.runAsync(() -> this.restTemplate.headForHeaders(uri));
+		CompletableFuture.allOf(first, second).exceptionally((ex) -> null).get();
+		assertThat(first.isCompletedExceptionally() ^ second.isCompletedExceptionally()).isTrue();
+		assertThat(this.standIn.getRejectedRequests()).isOne();
+		assertThat(this.standIn.getPeakConcurrentRequests()).isOne();
+	}
+
+	private void start(StandInSettings settings) {
+		try {
+			this.standIn = new ArtifactoryStandIn(settings);
+			this.standIn.start();
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private HttpArtifactoryRepository createRepository() {
+		return new HttpArtifactoryRepository(this.restTemplate, this.standIn.getUri().toString(), REPO,
+				Duration.ofMillis(10));
+	}
+
+	private HttpArtifactoryBuildRuns createBuildRuns(boolean admin) {
+		return new HttpArtifactoryBuildRuns(this.restTemplate, this.standIn.getUri().toString(), "my-build", null,
+				null, admin);
+	}
+
+}